@@ -0,0 +1,120 @@
+package com.tariff.backend.component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+// Multi-keyword matcher: one pass over the text finds every dictionary phrase, however many
+// phrases there are (vs. one indexOf/regex per product or country name).
+// Case-insensitive, whole words only, and overlapping hits are resolved leftmost-longest,
+// so "United States" wins over "States" when both are in the dictionary.
+// Immutable once built, safe to share between threads.
+public final class AhoCorasick<T> {
+
+  public record Match<T>(int start, int end, String text, T value) {}
+
+  private static final class Node<T> {
+    private final Map<Character, Node<T>> next = new HashMap<>();
+    private Node<T> fail;
+    private T value; // set when a keyword ends here
+    private int length;
+    // longest keyword ending here, either our own or one reachable through fail links
+    private Node<T> output;
+  }
+
+  private final Node<T> root = new Node<>();
+  private final int size;
+
+  public AhoCorasick(Map<String, T> keywords) {
+    int count = 0;
+    for (Map.Entry<String, T> keyword : keywords.entrySet()) {
+      String phrase = keyword.getKey().trim();
+      if (phrase.isEmpty()) {
+        continue;
+      }
+      Node<T> node = root;
+      for (int i = 0; i < phrase.length(); i++) {
+        node = node.next.computeIfAbsent(Character.toLowerCase(phrase.charAt(i)), c -> new Node<>());
+      }
+      if (node.value == null) {
+        count++;
+      }
+      node.value = keyword.getValue();
+      node.length = phrase.length();
+    }
+    this.size = count;
+    buildFailLinks();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public List<Match<T>> findAll(String text) {
+    List<Match<T>> matches = new ArrayList<>();
+    Node<T> node = root;
+    for (int i = 0; i < text.length(); i++) {
+      char c = Character.toLowerCase(text.charAt(i));
+      while (node != root && !node.next.containsKey(c)) {
+        node = node.fail;
+      }
+      node = node.next.getOrDefault(c, root);
+
+      // walk the outputs from longest to shorter keywords ending at i
+      for (Node<T> out = node.output; out != null; out = out.fail == null ? null : out.fail.output) {
+        int start = i + 1 - out.length;
+        if (isWordBoundary(text, start - 1) && isWordBoundary(text, i + 1)) {
+          addLeftmostLongest(matches, new Match<>(start, i + 1, text.substring(start, i + 1), out.value));
+          break;
+        }
+      }
+    }
+    return matches;
+  }
+
+  private void buildFailLinks() {
+    Queue<Node<T>> queue = new ArrayDeque<>();
+    root.fail = null;
+    for (Node<T> child : root.next.values()) {
+      child.fail = root;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      Node<T> node = queue.remove();
+      node.output = node.value != null ? node : node.fail.output;
+      for (Map.Entry<Character, Node<T>> edge : node.next.entrySet()) {
+        Node<T> fail = node.fail;
+        while (fail != root && !fail.next.containsKey(edge.getKey())) {
+          fail = fail.fail;
+        }
+        Node<T> child = edge.getValue();
+        child.fail = fail.next.getOrDefault(edge.getKey(), root);
+        queue.add(child);
+      }
+    }
+  }
+
+  // Matches arrive ordered by end position. A new match that overlaps earlier ones replaces
+  // them only if it starts at or before them (i.e. it is longer and not further right).
+  private static <T> void addLeftmostLongest(List<Match<T>> matches, Match<T> match) {
+    while (!matches.isEmpty()) {
+      Match<T> last = matches.get(matches.size() - 1);
+      if (last.end() <= match.start()) {
+        break;
+      }
+      if (match.start() <= last.start()) {
+        matches.remove(matches.size() - 1);
+      } else {
+        return; // overlaps something that started earlier, keep the earlier one
+      }
+    }
+    matches.add(match);
+  }
+
+  private static boolean isWordBoundary(String text, int index) {
+    return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+  }
+}
@@ -1,8 +1,8 @@
 package com.tariff.backend.component;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -10,12 +10,16 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
+import com.tariff.backend.config.RoutePolicy;
 import com.tariff.backend.service.JwtService;
+import com.tariff.backend.service.TokenRevocationService;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -32,44 +36,41 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
   private final UserDetailsService userDetailsService;
 
-  private static final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final VerifiedTokenCache verifiedTokenCache;
+
+  private final TokenRevocationService tokenRevocationService;
+
+  private final RoutePolicy routePolicy;
+
+  // the filter's own work only, the rest of the chain (and the controller) is not in here
+  private final Timer filterTimer;
 
   public JwtAuthFilter(
     JwtService jwtService,
     UserDetailsService userDetailsService,
+    VerifiedTokenCache verifiedTokenCache,
+    TokenRevocationService tokenRevocationService,
+    RoutePolicy routePolicy,
+    MeterRegistry meterRegistry,
     HandlerExceptionResolver handlerExceptionResolver
   ) {
     this.jwtService = jwtService;
     this.userDetailsService = userDetailsService;
+    this.verifiedTokenCache = verifiedTokenCache;
+    this.tokenRevocationService = tokenRevocationService;
+    this.routePolicy = routePolicy;
+    this.filterTimer = Timer.builder("http.filter.jwt_auth")
+      .publishPercentileHistogram()
+      .register(meterRegistry);
     this.handlerExceptionResolver = handlerExceptionResolver;
   }
 
   @Override
   protected boolean shouldNotFilter(HttpServletRequest request)
     throws ServletException {
-    String path = request.getRequestURI();
-
-    // Skip all OPTIONS requests (for CORS preflight)
-    if (request.getMethod().equals(HttpMethod.OPTIONS.name())) {
-      return true;
-    }
-
-    // List all your public paths from SecurityConfig here.
-    // This return true (meaning "do not filter") if the path matches.
-    return (
-      pathMatcher.match("/api/users/register", path) ||
-      // pathMatcher.match("/api/users/me", path) ||
-      pathMatcher.match("/api/users/login", path) ||
-      pathMatcher.match("/api/users/logout", path) ||
-      pathMatcher.match("/swagger-ui/**", path) ||
-      pathMatcher.match("/v3/api-docs/**", path) ||
-      pathMatcher.match("/swagger-ui.html", path) ||
-      pathMatcher.match("/health", path) ||
-      // pathMatcher.match("/api/tariffs/**", path) ||
-      pathMatcher.match("/api/products/**", path) ||
-      pathMatcher.match("/api/countries/**", path) ||
-      pathMatcher.match("/api/predict", path)
-    );
+    // PUBLIC routes (incl. OPTIONS for CORS preflight) come from RoutePolicy,
+    // the same registry SecurityConfig builds its rules from
+    return routePolicy.isPublic(request);
   }
 
   @Override
@@ -79,6 +80,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     HttpServletResponse response,
     FilterChain filterChain
   ) throws ServletException, IOException {
+    long started = System.nanoTime();
     // Read token from cookie instead of Authorization header
     String jwt = null;
     if (request.getCookies() != null) {
@@ -92,13 +94,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     // Check if token exists (no "Bearer " check needed for cookies)
     if (jwt == null) {
+      stopTimer(started);
       filterChain.doFilter(request, response);
       return;
     }
 
+    boolean timed = false;
     try {
-      // Extract email directly from jwt (no substring needed)
-      final String userEmail = jwtService.extractUsername(jwt);
+      // Verify signature + expiry once and reuse the claims for everything below,
+      // tokens verified recently come straight from the cache without any crypto
+      long verifyStarted = System.nanoTime();
+      Claims claims = verifiedTokenCache.get(jwt);
+      if (claims == null) {
+        claims = jwtService.verifyToken(jwt);
+        verifiedTokenCache.put(jwt, claims);
+      }
+      ServerTiming.record(ServerTiming.Phase.AUTH, verifyStarted);
+      final String userEmail = claims.getSubject();
 
 
     // final String authHeader = request.getHeader("Authorization");
@@ -121,13 +133,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       // check if email is not null and whether user been autheticated before,
       // uses && to short-circuit
       if (userEmail != null && authentication == null) {
-        //  if pass condition abv, get email from db
-        // (?) to-do: implementng caching to find user by email to improve performance?
-        UserDetails userDetails =
-          this.userDetailsService.loadUserByUsername(userEmail);
+        //  if pass condition abv, get the user (null if the token was revoked)
+        long lookupStarted = System.nanoTime();
+        UserDetails userDetails = resolveUser(userEmail, claims);
+        ServerTiming.record(ServerTiming.Phase.USER, lookupStarted);
 
-        // check if token valid
-        if (jwtService.isTokenValid(jwt, userDetails)) {
+        // check if token valid (uses the already parsed claims, no re-parsing)
+        if (userDetails != null && jwtService.isTokenValid(claims, userDetails)) {
           // set auth context using email from db
           UsernamePasswordAuthenticationToken authToken =
             new UsernamePasswordAuthenticationToken(
@@ -146,8 +158,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       }
 
       // pass the request and response to next filer
+      stopTimer(started);
+      timed = true;
       filterChain.doFilter(request, response);
     } catch (Exception exception) {
+      if (!timed) {
+        stopTimer(started);
+      }
       // forward error to global exception handler
       handlerExceptionResolver.resolveException(
         request,
@@ -157,4 +174,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       );
     }
   }
+
+  private void stopTimer(long started) {
+    filterTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+  }
+
+  private UserDetails resolveUser(String userEmail, Claims claims) {
+    if (jwtService.isStatelessRoles() && jwtService.hasRoleClaims(claims)) {
+      // stateless token: role comes from the claims, revocation is an in-memory lookup,
+      // so no database access at all on this path
+      long generation = jwtService.extractGeneration(claims);
+      if (tokenRevocationService.isRevoked(userEmail, generation)) {
+        return null;
+      }
+      return jwtService.principalFromClaims(claims);
+    }
+
+    // get user by email (cached in UserDetailsServiceImpl, evicted by UserService on role/password changes)
+    return this.userDetailsService.loadUserByUsername(userEmail);
+  }
 }
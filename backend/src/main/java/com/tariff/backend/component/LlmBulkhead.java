@@ -0,0 +1,141 @@
+package com.tariff.backend.component;
+
+import com.tariff.backend.exception.InternalServerErrorException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Bulkhead around every outbound model call (predictions, streams, map-reduce chunks).
+// At most max-concurrent calls run at once, up to max-waiting more wait (FIFO) for at most
+// max-wait-ms, and anything beyond that gets a 429 straight away instead of tying up a
+// request thread and a pooled connection behind a slow model.
+// Latency is recorded as histograms: prediction.llm.wait (time in the queue) and
+// prediction.llm.call (time holding the permit), tagged by operation and outcome.
+@Component
+public class LlmBulkhead {
+
+  private final Semaphore permits;
+  private final int maxConcurrent;
+  private final int maxWaiting;
+  private final long maxWaitMs;
+  private final long retryAfterSeconds;
+  private final AtomicInteger waiting = new AtomicInteger();
+
+  private final MeterRegistry meterRegistry;
+  private final Timer waitTimer;
+  private final Counter queueFullCounter;
+  private final Counter waitTimeoutCounter;
+
+  public LlmBulkhead(
+    @Value("${prediction.llm.max-concurrent:16}") int maxConcurrent,
+    @Value("${prediction.llm.max-waiting:32}") int maxWaiting,
+    @Value("${prediction.llm.max-wait-ms:10000}") long maxWaitMs,
+    @Value("${prediction.llm.retry-after-seconds:5}") long retryAfterSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.permits = new Semaphore(maxConcurrent, true);
+    this.maxConcurrent = maxConcurrent;
+    this.maxWaiting = maxWaiting;
+    this.maxWaitMs = maxWaitMs;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.meterRegistry = meterRegistry;
+
+    this.waitTimer = Timer.builder("prediction.llm.wait")
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+    this.queueFullCounter = Counter.builder("prediction.llm.rejected")
+      .tag("reason", "queue-full")
+      .register(meterRegistry);
+    this.waitTimeoutCounter = Counter.builder("prediction.llm.rejected")
+      .tag("reason", "wait-timeout")
+      .register(meterRegistry);
+    Gauge.builder("prediction.llm.active", this, LlmBulkhead::active)
+      .register(meterRegistry);
+    Gauge.builder("prediction.llm.waiting", waiting, AtomicInteger::get)
+      .register(meterRegistry);
+  }
+
+  // Runs modelCall once a permit is free. The permit is held until modelCall returns, so a
+  // streaming call should consume the whole stream inside it.
+  public <T> T call(String operation, Supplier<T> modelCall) {
+    acquire();
+    long start = System.nanoTime();
+    String outcome = "error";
+    try {
+      T result = modelCall.get();
+      outcome = "success";
+      return result;
+    } finally {
+      permits.release();
+      callTimer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  public int active() {
+    return maxConcurrent - permits.availablePermits();
+  }
+
+  public int waiting() {
+    return waiting.get();
+  }
+
+  private void acquire() {
+    // the timed form honours fairness, plain tryAcquire() would barge past queued waiters
+    if (tryAcquire(0, TimeUnit.NANOSECONDS)) {
+      waitTimer.record(0, TimeUnit.NANOSECONDS);
+      return;
+    }
+    // the queue is only a counter, the fair semaphore keeps the waiters in order
+    if (waiting.incrementAndGet() > maxWaiting) {
+      waiting.decrementAndGet();
+      queueFullCounter.increment();
+      throw overloaded();
+    }
+
+    long start = System.nanoTime();
+    boolean acquired;
+    try {
+      acquired = tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+    } finally {
+      waiting.decrementAndGet();
+      waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+    if (!acquired) {
+      waitTimeoutCounter.increment();
+      throw overloaded();
+    }
+  }
+
+  private boolean tryAcquire(long timeout, TimeUnit unit) {
+    try {
+      return permits.tryAcquire(timeout, unit);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InternalServerErrorException("Interrupted while waiting for the model");
+    }
+  }
+
+  private Timer callTimer(String operation, String outcome) {
+    // registry hands back the same timer for the same tags
+    return Timer.builder("prediction.llm.call")
+      .tag("operation", operation)
+      .tag("outcome", outcome)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  private TooManyRequestsException overloaded() {
+    return new TooManyRequestsException(
+      "Too many predictions are in progress. Please try again shortly.",
+      retryAfterSeconds
+    );
+  }
+}
@@ -0,0 +1,65 @@
+package com.tariff.backend.component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Guards /actuator/** (the Prometheus scrape) with a static bearer token,
+// security.metrics.scrape-token, which a scrape config can hold:
+//   authorization: { type: Bearer, credentials: <token> }
+// A user session can't do that job, access tokens expire after minutes and a scraper can't
+// refresh them. RoutePolicy marks /actuator/** PUBLIC so JwtAuthFilter skips it, this filter
+// is the only gate. A blank token closes the actuator to everyone.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class MetricsScrapeFilter extends OncePerRequestFilter {
+
+  private static final String PREFIX = "/actuator";
+  private static final String BEARER = "Bearer ";
+
+  private final byte[] scrapeToken;
+
+  public MetricsScrapeFilter(@Value("${security.metrics.scrape-token:}") String scrapeToken) {
+    this.scrapeToken = scrapeToken == null || scrapeToken.isBlank() ? null : scrapeToken.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return !(path.equals(PREFIX) || path.startsWith(PREFIX + "/"));
+  }
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    if (authorized(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer realm=\"metrics\"");
+    response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+  }
+
+  private boolean authorized(String header) {
+    if (scrapeToken == null || header == null || !header.startsWith(BEARER)) {
+      return false;
+    }
+    // constant time, the token is a secret
+    return MessageDigest.isEqual(scrapeToken, header.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8));
+  }
+}
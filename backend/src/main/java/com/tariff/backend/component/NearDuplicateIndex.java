@@ -0,0 +1,204 @@
+package com.tariff.backend.component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// Finds an already answered document whose text is nearly the same as a new one, so a
+// revised notice that only changed a date or a footnote can reuse the cached prediction.
+// - MinHash: the text becomes a set of word 5-grams (shingles), summarised by the minimum
+//   of `bands * rows` hash functions over that set. Two signatures agree on a position with
+//   probability = Jaccard similarity of the shingle sets.
+// - LSH: the signature is cut into `bands` bands of `rows` values, documents sharing any
+//   band are candidates. With 16x8 a pair at 0.9 similarity is found ~99.99% of the time,
+//   one at 0.5 only ~6%, so most lookups compare against a handful of signatures.
+// Candidates are confirmed by the estimated similarity >= threshold.
+// In memory only and scoped per country: after a restart it fills up again as documents
+// come in (exact repeats are still served by PredictionCache's disk tier).
+@Component
+public class NearDuplicateIndex {
+
+  static final int SHINGLE_WORDS = 5;
+
+  private record Entry(String country, long[] signature) {}
+
+  private final boolean enabled;
+  private final int bands;
+  private final int rows;
+  private final double threshold;
+  private final long[] seeds;
+  // prediction cache key -> its signature
+  private final Cache<String, Entry> entries;
+  // "country|band|band hash" -> prediction cache keys
+  private final Map<String, Set<String>> buckets = new ConcurrentHashMap<>();
+
+  public NearDuplicateIndex(
+    @Value("${prediction.near-duplicate.enabled:true}") boolean enabled,
+    @Value("${prediction.near-duplicate.bands:16}") int bands,
+    @Value("${prediction.near-duplicate.rows:8}") int rows,
+    @Value("${prediction.near-duplicate.threshold:0.9}") double threshold,
+    @Value("${prediction.near-duplicate.max-documents:10000}") long maxDocuments,
+    MeterRegistry meterRegistry
+  ) {
+    this.enabled = enabled;
+    this.bands = bands;
+    this.rows = rows;
+    this.threshold = threshold;
+    // fixed seed, signatures have to stay comparable for the life of the index
+    SplittableRandom random = new SplittableRandom(0x5eed_7a21ffL);
+    this.seeds = new long[bands * rows];
+    for (int i = 0; i < seeds.length; i++) {
+      seeds[i] = random.nextLong();
+    }
+    this.entries = Caffeine.newBuilder()
+      .maximumSize(maxDocuments)
+      .executor(Runnable::run) // drop evicted keys from the buckets right away
+      .removalListener((String key, Entry entry, RemovalCause cause) -> {
+        if (entry != null && cause != RemovalCause.REPLACED) {
+          unbucket(key, entry);
+        }
+      })
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, entries, "prediction.near-duplicates");
+  }
+
+  // null when the index is disabled or the text has no words at all
+  public long[] signature(String text) {
+    if (!enabled) {
+      return null;
+    }
+    String[] words = text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+    List<String> tokens = new ArrayList<>(words.length);
+    for (String word : words) {
+      if (!word.isEmpty()) {
+        tokens.add(word);
+      }
+    }
+    if (tokens.isEmpty()) {
+      return null;
+    }
+
+    long[] signature = new long[seeds.length];
+    Arrays.fill(signature, Long.MAX_VALUE);
+    int shingles = Math.max(1, tokens.size() - SHINGLE_WORDS + 1);
+    for (int start = 0; start < shingles; start++) {
+      long shingle = hashShingle(tokens, start, Math.min(tokens.size(), start + SHINGLE_WORDS));
+      for (int i = 0; i < seeds.length; i++) {
+        long hash = mix(shingle ^ seeds[i]);
+        if (hash < signature[i]) {
+          signature[i] = hash;
+        }
+      }
+    }
+    return signature;
+  }
+
+  // Cache key of the most similar indexed document for this country, null if none is similar enough
+  public String findSimilar(String country, long[] signature) {
+    String scope = PredictionCache.normaliseCountry(country);
+    String best = null;
+    double bestSimilarity = threshold;
+    for (int band = 0; band < bands; band++) {
+      Set<String> candidates = buckets.get(bucketKey(scope, band, signature));
+      if (candidates == null) {
+        continue;
+      }
+      for (String key : candidates) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || !entry.country().equals(scope)) {
+          continue;
+        }
+        double similarity = similarity(signature, entry.signature());
+        if (similarity >= bestSimilarity) {
+          best = key;
+          bestSimilarity = similarity;
+        }
+      }
+    }
+    return best;
+  }
+
+  public void add(String key, String country, long[] signature) {
+    Entry entry = new Entry(PredictionCache.normaliseCountry(country), signature);
+    Entry previous = entries.asMap().put(key, entry);
+    if (previous != null) {
+      unbucket(key, previous);
+    }
+    for (int band = 0; band < bands; band++) {
+      // insert inside compute: unbucket() drops a set once it's empty, adding to a set fetched
+      // with computeIfAbsent could land in one that was just removed from the map
+      buckets.compute(bucketKey(entry.country(), band, signature), (k, keys) -> {
+        if (keys == null) {
+          keys = ConcurrentHashMap.newKeySet();
+        }
+        keys.add(key);
+        return keys;
+      });
+    }
+  }
+
+  public long size() {
+    return entries.estimatedSize();
+  }
+
+  // fraction of positions where two signatures agree, estimates Jaccard similarity
+  static double similarity(long[] a, long[] b) {
+    int same = 0;
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] == b[i]) {
+        same++;
+      }
+    }
+    return (double) same / a.length;
+  }
+
+  private void unbucket(String key, Entry entry) {
+    for (int band = 0; band < bands; band++) {
+      buckets.computeIfPresent(bucketKey(entry.country(), band, entry.signature()), (k, keys) -> {
+        keys.remove(key);
+        return keys.isEmpty() ? null : keys;
+      });
+    }
+  }
+
+  private String bucketKey(String country, int band, long[] signature) {
+    long hash = band;
+    for (int i = band * rows; i < (band + 1) * rows; i++) {
+      hash = mix(hash * 31 + signature[i]);
+    }
+    return country + '|' + band + '|' + Long.toHexString(hash);
+  }
+
+  // FNV-1a over the shingle's characters, with a separator between words
+  private static long hashShingle(List<String> tokens, int from, int to) {
+    long hash = 0xcbf29ce484222325L;
+    for (int t = from; t < to; t++) {
+      String token = tokens.get(t);
+      for (int i = 0; i < token.length(); i++) {
+        hash = (hash ^ token.charAt(i)) * 0x100000001b3L;
+      }
+      hash = (hash ^ ' ') * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  // splitmix64 finaliser, turns one hash into an independent-looking one per seed
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,132 @@
+package com.tariff.backend.component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.annotation.Timed;
+
+// PDF -> text with a bounded footprint. PDFBox's scratch buffers (decoded streams etc.) spill
+// to a temp file past max-main-memory-bytes instead of growing the heap, and text is written
+// page by page into a writer that aborts the parse once the page or character budget is hit,
+// so a 500 page upload costs about the same as a 50 page one. The model only needs the start
+// of a notice anyway.
+@Component
+@Timed(value = "pdf.extract", histogram = true)
+public class PdfTextExtractor {
+
+  private final int maxPages;
+  private final int maxChars;
+  private final long maxMainMemoryBytes;
+
+  public PdfTextExtractor(
+    @Value("${pdf.extract.max-pages:50}") int maxPages,
+    @Value("${pdf.extract.max-chars:200000}") int maxChars,
+    @Value("${pdf.extract.max-main-memory-bytes:1048576}") long maxMainMemoryBytes
+  ) {
+    this.maxPages = maxPages;
+    this.maxChars = maxChars;
+    this.maxMainMemoryBytes = maxMainMemoryBytes;
+  }
+
+  public String extract(byte[] pdfBytes) throws IOException {
+    return String.join("", extractPages(pdfBytes));
+  }
+
+  // Same budget, one entry per page with text (the last one may be cut off by the char budget)
+  public List<String> extractPages(byte[] pdfBytes) throws IOException {
+    MemoryUsageSetting memoryUsage = MemoryUsageSetting.setupMixed(maxMainMemoryBytes);
+    try (PDDocument document = PDDocument.load(pdfBytes, "", null, null, memoryUsage)) {
+      BudgetWriter out = new BudgetWriter(maxChars);
+      PDFTextStripper stripper = new PDFTextStripper() {
+        @Override
+        protected void endPage(PDPage page) {
+          out.pageEnd();
+        }
+      };
+      stripper.setStartPage(1);
+      stripper.setEndPage(maxPages); // pages past the end are simply ignored
+
+      try {
+        stripper.writeText(document, out);
+      } catch (BudgetReachedException e) {
+        // expected, the rest of the document is never parsed
+        out.pageEnd();
+      }
+      return out.pages();
+    }
+  }
+
+  // Keeps at most maxChars and stops the stripper (which writes page by page) once it's full
+  private static final class BudgetWriter extends Writer {
+    private final StringBuilder text = new StringBuilder();
+    private final List<Integer> pageEnds = new ArrayList<>();
+    private final int maxChars;
+
+    BudgetWriter(int maxChars) {
+      this.maxChars = maxChars;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+      int remaining = maxChars - text.length();
+      text.append(chars, offset, Math.min(length, remaining));
+      if (length >= remaining) {
+        throw new BudgetReachedException();
+      }
+    }
+
+    @Override
+    public void write(String str, int offset, int length) throws IOException {
+      int remaining = maxChars - text.length();
+      text.append(str, offset, offset + Math.min(length, remaining));
+      if (length >= remaining) {
+        throw new BudgetReachedException();
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    // pages that produced no text are skipped
+    void pageEnd() {
+      int lastEnd = pageEnds.isEmpty() ? 0 : pageEnds.get(pageEnds.size() - 1);
+      if (text.length() > lastEnd) {
+        pageEnds.add(text.length());
+      }
+    }
+
+    List<String> pages() {
+      List<String> pages = new ArrayList<>(pageEnds.size());
+      int start = 0;
+      for (int end : pageEnds) {
+        pages.add(text.substring(start, end));
+        start = end;
+      }
+      return pages;
+    }
+  }
+
+  private static final class BudgetReachedException extends IOException {
+    BudgetReachedException() {
+      super(null, null);
+    }
+
+    // control flow only, skip the stack trace
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package com.tariff.backend.component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Prediction results keyed by what actually determines them: SHA-256 of the PDF bytes,
+// the (normalised) country and the prompt version. Re-uploading the same notice skips
+// PDF parsing and the LLM call entirely.
+// - memory tier: Caffeine, bounded by total characters of cached results
+// - disk tier (optional, prediction.cache.disk-dir): one file per key, survives restarts and
+//   is shared by instances on the same volume; hits get promoted back into memory.
+//   Pruned on a schedule, least recently written/hit files first (by mtime), down to
+//   disk-max-bytes and anything older than disk-ttl-seconds.
+@Component
+public class PredictionCache {
+
+  private static final Logger log = LoggerFactory.getLogger(PredictionCache.class);
+
+  private record DiskEntry(Path path, long size, FileTime modified) {}
+
+  private final Cache<String, String> memory;
+  private final Path diskDir;
+  private final long diskMaxBytes;
+  private final long diskTtlSeconds;
+
+  public PredictionCache(
+    @Value("${prediction.cache.max-chars:20000000}") long maxChars,
+    @Value("${prediction.cache.disk-dir:}") String diskDir,
+    @Value("${prediction.cache.disk-max-bytes:1073741824}") long diskMaxBytes,
+    @Value("${prediction.cache.disk-ttl-seconds:2592000}") long diskTtlSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.memory = Caffeine.newBuilder()
+      .maximumWeight(maxChars)
+      .weigher((String key, String value) -> value.length())
+      .recordStats()
+      .build();
+    this.diskDir = diskDir == null || diskDir.isBlank() ? null : Path.of(diskDir);
+    this.diskMaxBytes = diskMaxBytes;
+    this.diskTtlSeconds = diskTtlSeconds;
+
+    if (this.diskDir != null) {
+      try {
+        Files.createDirectories(this.diskDir);
+      } catch (IOException e) {
+        throw new IllegalStateException("Cannot create prediction cache dir " + this.diskDir, e);
+      }
+    }
+
+    CaffeineCacheMetrics.monitor(meterRegistry, memory, "predictions");
+  }
+
+  // Hex SHA-256 over (pdf bytes, country, prompt version), safe to use as a file name
+  public static String key(byte[] pdfBytes, String country, String promptVersion) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(pdfBytes);
+      // separators so ("ab", "c") and ("a", "bc") can't collide
+      digest.update((byte) 0);
+      digest.update(normaliseCountry(country).getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(promptVersion.getBytes(StandardCharsets.UTF_8));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException e) {
+      // every JVM ships SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // null when neither tier has it
+  public String get(String key) {
+    String cached = memory.getIfPresent(key);
+    if (cached != null || diskDir == null) {
+      return cached;
+    }
+
+    Path file = diskDir.resolve(key);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try {
+      String fromDisk = Files.readString(file, StandardCharsets.UTF_8);
+      memory.put(key, fromDisk);
+      touch(file);
+      return fromDisk;
+    } catch (IOException e) {
+      log.warn("Failed to read cached prediction {}", file, e);
+      return null;
+    }
+  }
+
+  public void put(String key, String prediction) {
+    memory.put(key, prediction);
+    if (diskDir == null) {
+      return;
+    }
+
+    // write to a temp file then move, so readers never see half a file
+    try {
+      Path tmp = Files.createTempFile(diskDir, key, ".tmp");
+      Files.writeString(tmp, prediction, StandardCharsets.UTF_8);
+      try {
+        Files.move(tmp, diskDir.resolve(key), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, diskDir.resolve(key), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      // memory tier still has it, disk is best effort
+      log.warn("Failed to write cached prediction {}", key, e);
+    }
+  }
+
+  // Deletes expired files, then the oldest ones until the tier fits disk-max-bytes (0 = no limit
+  // for either). Other instances on the same volume may prune at the same time, files that are
+  // already gone are skipped.
+  @Scheduled(fixedDelayString = "${prediction.cache.disk-prune-ms:3600000}")
+  public void pruneDisk() {
+    if (diskDir == null) {
+      return;
+    }
+
+    List<DiskEntry> entries = new ArrayList<>();
+    long total = 0;
+    try (Stream<Path> files = Files.list(diskDir)) {
+      for (Path file : (Iterable<Path>) files::iterator) {
+        try {
+          BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+          if (attributes.isRegularFile()) {
+            entries.add(new DiskEntry(file, attributes.size(), attributes.lastModifiedTime()));
+            total += attributes.size();
+          }
+        } catch (IOException e) {
+          // deleted in between
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Failed to list prediction cache dir {}", diskDir, e);
+      return;
+    }
+
+    entries.sort(Comparator.comparing(DiskEntry::modified));
+    FileTime expiredBefore = diskTtlSeconds > 0
+      ? FileTime.from(Instant.now().minusSeconds(diskTtlSeconds))
+      : null;
+    int deleted = 0;
+    for (DiskEntry entry : entries) {
+      boolean expired = expiredBefore != null && entry.modified().compareTo(expiredBefore) < 0;
+      boolean overBudget = diskMaxBytes > 0 && total > diskMaxBytes;
+      if (!expired && !overBudget) {
+        break; // sorted oldest first, the rest is newer and fits
+      }
+      try {
+        Files.deleteIfExists(entry.path());
+        deleted++;
+      } catch (IOException e) {
+        log.warn("Failed to delete cached prediction {}", entry.path(), e);
+      }
+      total -= entry.size();
+    }
+    if (deleted > 0) {
+      log.info("Pruned {} cached predictions from {}, {} bytes left", deleted, diskDir, total);
+    }
+  }
+
+  public double hitRate() {
+    return memory.stats().hitRate();
+  }
+
+  // a hit counts as use, pruning goes by mtime
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+    } catch (IOException e) {
+      // pruned meanwhile, the value is already in memory
+    }
+  }
+
+  // "  united states " and "United States" are the same request
+  static String normaliseCountry(String country) {
+    return country == null ? "" : country.trim().toLowerCase(Locale.ROOT);
+  }
+}
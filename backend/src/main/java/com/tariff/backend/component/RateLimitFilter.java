@@ -0,0 +1,193 @@
+package com.tariff.backend.component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tariff.backend.exception.TooManyRequestsException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Per-client rate limiting for the expensive endpoints. Runs in the security chain right
+// after JwtAuthFilter, so logged in users get a bucket per email and everyone else a bucket
+// per IP. Routes are configured as "METHOD /pattern=REQUESTS/SECONDS" entries, e.g.
+//   security.rate-limit.routes=POST /api/users/login=10/60,POST /api/predict=10/60
+// Each route has its own bounded Caffeine cache of buckets, dropped after idle-seconds without use.
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  record RouteLimit(String name, HttpMethod method, PathPattern pattern, long capacity, Duration period) {}
+
+  // buckets keyed by client (email or IP), one cache per route so keys need no concatenation
+  private record LimitedRoute(RouteLimit limit, Cache<String, TokenBucket> buckets) {}
+
+  private final HandlerExceptionResolver handlerExceptionResolver;
+  private final List<LimitedRoute> routes;
+  private final MeterRegistry meterRegistry;
+  // the filter's own work (route match + bucket, or the 429), never the rest of the chain
+  private final Timer filterTimer;
+
+  public RateLimitFilter(
+    @Value("${security.rate-limit.routes:}") String routes,
+    @Value("${security.rate-limit.max-clients:100000}") long maxClients,
+    @Value("${security.rate-limit.idle-seconds:600}") long idleSeconds,
+    MeterRegistry meterRegistry,
+    HandlerExceptionResolver handlerExceptionResolver
+  ) {
+    this.routes = new ArrayList<>();
+    for (RouteLimit limit : parseRoutes(routes)) {
+      Cache<String, TokenBucket> buckets = Caffeine.newBuilder()
+        .maximumSize(maxClients)
+        .expireAfterAccess(Duration.ofSeconds(idleSeconds))
+        .recordStats()
+        .build();
+      CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets", "route", limit.name());
+      this.routes.add(new LimitedRoute(limit, buckets));
+    }
+    this.meterRegistry = meterRegistry;
+    this.filterTimer = Timer.builder("http.filter.rate_limit")
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+    this.handlerExceptionResolver = handlerExceptionResolver;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return routes.isEmpty();
+  }
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    long now = System.nanoTime();
+    LimitedRoute route = match(request);
+    if (route == null) {
+      stopTimer(now);
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String clientKey = clientKey(request);
+    // plain lookup first, the hot path then allocates nothing
+    TokenBucket bucket = route.buckets().getIfPresent(clientKey);
+    if (bucket == null) {
+      RouteLimit limit = route.limit();
+      bucket = route.buckets().get(clientKey, key -> new TokenBucket(limit.capacity(), limit.period(), now));
+    }
+    long waitNanos = bucket.tryConsume(now);
+    if (waitNanos == 0) {
+      stopTimer(now);
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    meterRegistry.counter("http.rate-limit.rejected", "route", route.limit().name()).increment();
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    // forward to global exception handler, same as JwtAuthFilter (429 + Retry-After)
+    handlerExceptionResolver.resolveException(
+      request,
+      response,
+      null,
+      new TooManyRequestsException("Too many requests. Please slow down.", retryAfterSeconds)
+    );
+    stopTimer(now);
+  }
+
+  private void stopTimer(long started) {
+    filterTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+  }
+
+  public long trackedClients() {
+    long total = 0;
+    for (LimitedRoute route : routes) {
+      route.buckets().cleanUp();
+      total += route.buckets().estimatedSize();
+    }
+    return total;
+  }
+
+  private LimitedRoute match(HttpServletRequest request) {
+    PathContainer path = null;
+    for (LimitedRoute route : routes) {
+      if (!route.limit().method().matches(request.getMethod())) {
+        continue;
+      }
+      if (path == null) {
+        path = PathContainer.parsePath(request.getRequestURI());
+      }
+      if (route.limit().pattern().matches(path)) {
+        return route;
+      }
+    }
+    return null;
+  }
+
+  private String clientKey(HttpServletRequest request) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (
+      authentication != null &&
+      authentication.isAuthenticated() &&
+      !(authentication instanceof AnonymousAuthenticationToken)
+    ) {
+      return authentication.getName(); // emails always contain '@', IPs never do
+    }
+    return request.getRemoteAddr();
+  }
+
+  // "POST /api/users/login=10/60, POST /api/predict=10/60" -> route limits, fails startup on typos
+  static List<RouteLimit> parseRoutes(String routes) {
+    List<RouteLimit> parsed = new ArrayList<>();
+    if (routes == null || routes.isBlank()) {
+      return parsed;
+    }
+    for (String entry : routes.split(",")) {
+      String spec = entry.trim();
+      if (spec.isEmpty()) {
+        continue;
+      }
+      try {
+        String[] routeAndLimit = spec.split("=");
+        String[] methodAndPattern = routeAndLimit[0].trim().split("\\s+");
+        String[] limit = routeAndLimit[1].trim().split("/");
+        parsed.add(new RouteLimit(
+          routeAndLimit[0].trim(),
+          HttpMethod.valueOf(methodAndPattern[0].toUpperCase()),
+          PathPatternParser.defaultInstance.parse(methodAndPattern[1]),
+          Long.parseLong(limit[0]),
+          Duration.ofSeconds(Long.parseLong(limit[1]))
+        ));
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException(
+          "Invalid security.rate-limit.routes entry '" + spec + "', expected 'METHOD /path=REQUESTS/SECONDS'",
+          e
+        );
+      }
+    }
+    return parsed;
+  }
+}
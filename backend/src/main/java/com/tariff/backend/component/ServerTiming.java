@@ -0,0 +1,152 @@
+package com.tariff.backend.component;
+
+// Per-request timing breakdown behind the Server-Timing response header. ServerTimingFilter
+// binds one instance to the request thread, the hot paths (JwtAuthFilter, every repository
+// call, response bodies) add to it through the static helpers, which are a ThreadLocal read
+// and nothing else when no request is being recorded (unit tests, background threads, or
+// server-timing.enabled=false). Plain arrays, no maps or boxing: one small object per request.
+public final class ServerTiming {
+
+  // Entries may overlap: the user lookup includes its own repository call when the cache misses
+  public enum Phase {
+    AUTH("auth", "JWT verification"),
+    USER("user", "User lookup"),
+    DB("db", "Repository calls"),
+    SERIALIZE("ser", "Response serialization");
+
+    private final String metric;
+    private final String description;
+
+    Phase(String metric, String description) {
+      this.metric = metric;
+      this.description = description;
+    }
+
+    public String metric() {
+      return metric;
+    }
+  }
+
+  private static final Phase[] PHASES = Phase.values();
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+  private final long startedAt;
+  private final long[] nanos = new long[PHASES.length];
+  private final int[] counts = new int[PHASES.length];
+  private long bodyStartedAt;
+  private long bodyFinishedAt;
+  private long finishedAt;
+
+  ServerTiming(long startedAt) {
+    this.startedAt = startedAt;
+  }
+
+  static ServerTiming begin() {
+    ServerTiming timing = new ServerTiming(System.nanoTime());
+    CURRENT.set(timing);
+    return timing;
+  }
+
+  static void end() {
+    CURRENT.remove();
+  }
+
+  // usage: long started = System.nanoTime(); ...; ServerTiming.record(Phase.AUTH, started);
+  public static void record(Phase phase, long startedAt) {
+    ServerTiming timing = CURRENT.get();
+    if (timing != null) {
+      timing.add(phase, System.nanoTime() - startedAt);
+    }
+  }
+
+  public static void recordNanos(Phase phase, long nanos) {
+    ServerTiming timing = CURRENT.get();
+    if (timing != null) {
+      timing.add(phase, nanos);
+    }
+  }
+
+  // called right before the message converter writes the response body
+  public static void bodyStarted() {
+    ServerTiming timing = CURRENT.get();
+    if (timing != null && timing.bodyStartedAt == 0) {
+      timing.bodyStartedAt = System.nanoTime();
+    }
+  }
+
+  void add(Phase phase, long elapsed) {
+    nanos[phase.ordinal()] += elapsed;
+    counts[phase.ordinal()]++;
+  }
+
+  // the body was flushed, serialization is over
+  void bodyFinished(long now) {
+    if (bodyStartedAt != 0 && bodyFinishedAt == 0) {
+      bodyFinishedAt = now;
+    }
+  }
+
+  void finish(long now) {
+    bodyFinished(now);
+    finishedAt = now;
+  }
+
+  public long nanos(Phase phase) {
+    return phase == Phase.SERIALIZE ? serializeNanos(System.nanoTime()) : nanos[phase.ordinal()];
+  }
+
+  public int count(Phase phase) {
+    return phase == Phase.SERIALIZE ? (bodyStartedAt != 0 ? 1 : 0) : counts[phase.ordinal()];
+  }
+
+  public long totalNanos() {
+    return (finishedAt != 0 ? finishedAt : System.nanoTime()) - startedAt;
+  }
+
+  private long serializeNanos(long now) {
+    if (bodyStartedAt == 0) {
+      return 0;
+    }
+    return (bodyFinishedAt != 0 ? bodyFinishedAt : now) - bodyStartedAt;
+  }
+
+  // As of `now`, e.g. auth;desc="JWT verification";dur=0.04, db;desc="3 repository calls";dur=2.51, total;dur=4.87
+  // Serialization still running at that point is flagged as partial.
+  public String header(long now) {
+    StringBuilder header = new StringBuilder(192);
+    for (Phase phase : PHASES) {
+      int count = count(phase);
+      if (count == 0) {
+        continue;
+      }
+      header.append(phase.metric).append(";desc=\"");
+      if (phase == Phase.DB) {
+        header.append(count).append(count == 1 ? " repository call" : " repository calls");
+      } else {
+        header.append(phase.description);
+      }
+      long elapsed = nanos[phase.ordinal()];
+      if (phase == Phase.SERIALIZE) {
+        elapsed = serializeNanos(now);
+        if (bodyFinishedAt == 0) {
+          header.append(" (partial)");
+        }
+      }
+      header.append("\";dur=");
+      appendMillis(header, elapsed).append(", ");
+    }
+    header.append("total;dur=");
+    return appendMillis(header, (finishedAt != 0 ? finishedAt : now) - startedAt).toString();
+  }
+
+  // milliseconds with two decimals, without going through String.format
+  private static StringBuilder appendMillis(StringBuilder out, long nanos) {
+    long hundredths = Math.max(0, nanos) / 10_000;
+    out.append(hundredths / 100).append('.');
+    long fraction = hundredths % 100;
+    if (fraction < 10) {
+      out.append('0');
+    }
+    return out.append(fraction);
+  }
+}
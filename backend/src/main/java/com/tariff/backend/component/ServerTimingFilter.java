@@ -0,0 +1,257 @@
+package com.tariff.backend.component;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// Records where each request spent its time (auth, user, db, ser and total, see ServerTiming)
+// and can send it as a Server-Timing header, so browser devtools show it. Runs first, outside
+// the security chain, so JwtAuthFilter's work is inside the measured window.
+// The header is a profiling side channel (query counts and timings per route), so it is off by
+// default: server-timing.header=true sends it on every response (local and load-test profiles
+// only), otherwise only requests carrying X-Server-Timing-Token equal to
+// server-timing.header-token get it. Logging does not depend on the header.
+// The header has to go out before the body, so it is set at the last moment the response is
+// still uncommitted: when the body is flushed (Spring flushes once the converter is done), or
+// right before a write that would overflow the container buffer, in which case serialization
+// is reported as partial. The log line is written after the request and always has the full
+// numbers: server-timing.log-sample-rate of all requests, plus every request that took
+// server-timing.log-slower-than-ms or longer (-1 = off).
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "Server-Timing";
+  public static final String TOKEN_HEADER = "X-Server-Timing-Token";
+
+  private static final Logger log = LoggerFactory.getLogger(ServerTimingFilter.class);
+
+  private final boolean enabled;
+  private final boolean headerForAll;
+  private final byte[] headerToken;
+  private final double logSampleRate;
+  private final long logSlowerThanNanos;
+
+  public ServerTimingFilter(
+    @Value("${server-timing.enabled:true}") boolean enabled,
+    @Value("${server-timing.header:false}") boolean headerForAll,
+    @Value("${server-timing.header-token:}") String headerToken,
+    @Value("${server-timing.log-sample-rate:0}") double logSampleRate,
+    @Value("${server-timing.log-slower-than-ms:-1}") long logSlowerThanMs
+  ) {
+    this.enabled = enabled;
+    this.headerForAll = headerForAll;
+    this.headerToken = headerToken == null || headerToken.isBlank() ? null : headerToken.getBytes(StandardCharsets.UTF_8);
+    this.logSampleRate = logSampleRate;
+    this.logSlowerThanNanos = logSlowerThanMs < 0 ? -1 : logSlowerThanMs * 1_000_000;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled;
+  }
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain filterChain
+  ) throws ServletException, IOException {
+    ServerTiming timing = ServerTiming.begin();
+    TimedResponse timedResponse = new TimedResponse(response, timing, sendHeader(request));
+    try {
+      filterChain.doFilter(request, timedResponse);
+    } finally {
+      // nothing flushed yet (empty body, or the container flushes after us)
+      timedResponse.emit(true);
+      timing.finish(System.nanoTime());
+      ServerTiming.end();
+      // async requests (SSE, streamed batches) only have their synchronous part recorded
+      if (!request.isAsyncStarted() && shouldLog(timing.totalNanos())) {
+        log(request, response.getStatus(), timing);
+      }
+    }
+  }
+
+  private boolean sendHeader(HttpServletRequest request) {
+    if (headerForAll) {
+      return true;
+    }
+    String token = request.getHeader(TOKEN_HEADER);
+    // constant time, the token is a secret
+    return headerToken != null && token != null
+      && MessageDigest.isEqual(headerToken, token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private boolean shouldLog(long totalNanos) {
+    if (logSlowerThanNanos >= 0 && totalNanos >= logSlowerThanNanos) {
+      return true;
+    }
+    return logSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < logSampleRate;
+  }
+
+  // key-values become fields with structured logging (logging.structured.format.console)
+  private static void log(HttpServletRequest request, int status, ServerTiming timing) {
+    log.atInfo()
+      .addKeyValue("method", request.getMethod())
+      .addKeyValue("path", request.getRequestURI())
+      .addKeyValue("status", status)
+      .addKeyValue("totalMs", millis(timing.totalNanos()))
+      .addKeyValue("authMs", millis(timing.nanos(ServerTiming.Phase.AUTH)))
+      .addKeyValue("userMs", millis(timing.nanos(ServerTiming.Phase.USER)))
+      .addKeyValue("dbMs", millis(timing.nanos(ServerTiming.Phase.DB)))
+      .addKeyValue("dbCalls", timing.count(ServerTiming.Phase.DB))
+      .addKeyValue("serializeMs", millis(timing.nanos(ServerTiming.Phase.SERIALIZE)))
+      .log("Server timing {} {} {}: {}", request.getMethod(), request.getRequestURI(), status, timing.header(System.nanoTime()));
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1_000_000.0;
+  }
+
+  // Sets the header (when asked for) just before the response gets committed, and notes when
+  // the body is done either way
+  static final class TimedResponse extends HttpServletResponseWrapper {
+
+    private final ServerTiming timing;
+    private final boolean sendHeader;
+    private TimedOutputStream outputStream;
+    private boolean emitted;
+
+    TimedResponse(HttpServletResponse response, ServerTiming timing, boolean sendHeader) {
+      super(response);
+      this.timing = timing;
+      this.sendHeader = sendHeader;
+    }
+
+    void emit(boolean bodyComplete) {
+      long now = System.nanoTime();
+      if (bodyComplete) {
+        timing.bodyFinished(now);
+      }
+      if (emitted) {
+        return;
+      }
+      emitted = true;
+      if (sendHeader && !isCommitted()) {
+        setHeader(HEADER, timing.header(now));
+      }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (outputStream == null) {
+        outputStream = new TimedOutputStream(super.getOutputStream(), this);
+      }
+      return outputStream;
+    }
+
+    // character output can't be sized, so the header goes out with what is known now
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      emit(false);
+      return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      emit(true);
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+      emit(true);
+      super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+      emit(true);
+      super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      emit(true);
+      super.sendRedirect(location);
+    }
+  }
+
+  private static final class TimedOutputStream extends ServletOutputStream {
+
+    private final ServletOutputStream delegate;
+    private final TimedResponse response;
+    private final int bufferSize;
+    private long written;
+
+    TimedOutputStream(ServletOutputStream delegate, TimedResponse response) {
+      this.delegate = delegate;
+      this.response = response;
+      this.bufferSize = response.getBufferSize();
+    }
+
+    private void beforeWrite(int length) {
+      if (response.emitted) {
+        return;
+      }
+      written += length;
+      if (written > bufferSize) {
+        // the container commits the response during this write
+        response.emit(false);
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      beforeWrite(1);
+      delegate.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      beforeWrite(len);
+      delegate.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      response.emit(true);
+      delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      response.emit(true);
+      delegate.close();
+    }
+
+    @Override
+    public boolean isReady() {
+      return delegate.isReady();
+    }
+
+    @Override
+    public void setWriteListener(WriteListener writeListener) {
+      delegate.setWriteListener(writeListener);
+    }
+  }
+}
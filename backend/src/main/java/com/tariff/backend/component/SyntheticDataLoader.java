@@ -0,0 +1,186 @@
+package com.tariff.backend.component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.UserRepository;
+import com.tariff.backend.service.PasswordHashingService;
+
+// Bulk loads SyntheticTariffData with plain JDBC batch inserts (H2 or PostgreSQL), skipping
+// Hibernate entirely: no persistence context, no merge-before-insert of the assigned ids.
+// For PostgreSQL add reWriteBatchedInserts=true to the JDBC url, the driver then sends each
+// batch as multi-row INSERTs.
+// With synthetic-data.enabled=true it fills an empty database at startup, which is how
+// load tests get WITS-scale data (plus an admin account for the admin-only tariff endpoints
+// when synthetic-data.admin-email and admin-password are passed on the command line, they are
+// never committed); a database that already has tariffs is left alone, admin included.
+// Benchmarks call load() directly.
+@Component
+public class SyntheticDataLoader implements ApplicationRunner {
+
+  private static final Logger log = LoggerFactory.getLogger(SyntheticDataLoader.class);
+
+  private static final String INSERT_COUNTRY = "INSERT INTO country (code, name) VALUES (?, ?)";
+  private static final String INSERT_PRODUCT = "INSERT INTO product (hts_code, name, description, enabled) VALUES (?, ?, ?, ?)";
+  private static final String INSERT_TARIFF = """
+    INSERT INTO tariff (id, origin_country_code, dest_country_code, effective_date, expiry_date,
+      ad_valorem_rate, specific_rate, min_quantity, max_quantity, user_defined, enabled)
+    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+  private static final String INSERT_TARIFF_PRODUCT = "INSERT INTO tariff_product (tariff_id, hts_code) VALUES (?, ?)";
+
+  public record Result(int countries, int products, long tariffs, long millis) {}
+
+  private final JdbcTemplate jdbcTemplate;
+  private final UserRepository userRepository;
+  private final PasswordHashingService passwordHashingService;
+  private final boolean enabled;
+  private final SyntheticTariffData.Spec spec;
+  private final int batchSize;
+  private final String adminEmail;
+  private final String adminPassword;
+
+  public SyntheticDataLoader(
+    JdbcTemplate jdbcTemplate,
+    UserRepository userRepository,
+    PasswordHashingService passwordHashingService,
+    @Value("${synthetic-data.enabled:false}") boolean enabled,
+    @Value("${synthetic-data.seed:42}") long seed,
+    @Value("${synthetic-data.countries:200}") int countries,
+    @Value("${synthetic-data.products:50}") int products,
+    @Value("${synthetic-data.routes-per-product:2000}") int routesPerProduct,
+    @Value("${synthetic-data.first-year:1988}") int firstYear,
+    @Value("${synthetic-data.last-year:2024}") int lastYear,
+    @Value("${synthetic-data.batch-size:1000}") int batchSize,
+    @Value("${synthetic-data.admin-email:}") String adminEmail,
+    @Value("${synthetic-data.admin-password:}") String adminPassword
+  ) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.userRepository = userRepository;
+    this.passwordHashingService = passwordHashingService;
+    this.enabled = enabled;
+    this.spec = enabled ? new SyntheticTariffData.Spec(seed, countries, products, routesPerProduct, firstYear, lastYear) : null;
+    this.batchSize = Math.max(1, batchSize);
+    this.adminEmail = adminEmail;
+    this.adminPassword = adminPassword;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled) {
+      return;
+    }
+    Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tariff", Long.class);
+    if (existing != null && existing > 0) {
+      log.info("Skipping synthetic data, the tariff table already has {} rows", existing);
+      return;
+    }
+    createAdmin();
+    load(new SyntheticTariffData(spec));
+  }
+
+  private void createAdmin() {
+    if (adminEmail == null || adminEmail.isBlank()) {
+      return;
+    }
+    if (adminPassword == null || adminPassword.isBlank()) {
+      log.warn("Not creating synthetic admin {}, synthetic-data.admin-password is not set", adminEmail);
+      return;
+    }
+    if (userRepository.findByEmail(adminEmail).isEmpty()) {
+      userRepository.save(new User(adminEmail, passwordHashingService.encode(adminPassword), User.Role.ADMIN));
+      log.info("Created synthetic admin {}", adminEmail);
+    }
+  }
+
+  public Result load(SyntheticTariffData data) {
+    long started = System.nanoTime();
+
+    List<Country> countries = data.countries();
+    jdbcTemplate.batchUpdate(INSERT_COUNTRY, countries, batchSize, (ps, country) -> {
+      ps.setString(1, country.getCode());
+      ps.setString(2, country.getName());
+    });
+    List<Product> products = data.products();
+    jdbcTemplate.batchUpdate(INSERT_PRODUCT, products, batchSize, (ps, product) -> {
+      ps.setString(1, product.getHTS_code());
+      ps.setString(2, product.getName());
+      ps.setString(3, product.getDescription());
+      ps.setBoolean(4, product.isEnabled());
+    });
+
+    List<Tariff> pending = new ArrayList<>(batchSize);
+    long[] tariffs = { 0 };
+    data.forEachTariff(tariff -> {
+      pending.add(tariff);
+      if (pending.size() == batchSize) {
+        tariffs[0] += flush(pending);
+      }
+    });
+    tariffs[0] += flush(pending);
+
+    long millis = (System.nanoTime() - started) / 1_000_000;
+    log.info("Loaded synthetic data: {} countries, {} products, {} tariffs in {} ms ({} tariffs/s)",
+      countries.size(), products.size(), tariffs[0], millis, millis == 0 ? tariffs[0] : tariffs[0] * 1000 / millis);
+    return new Result(countries.size(), products.size(), tariffs[0], millis);
+  }
+
+  private int flush(List<Tariff> pending) {
+    if (pending.isEmpty()) {
+      return 0;
+    }
+    jdbcTemplate.batchUpdate(INSERT_TARIFF, new BatchPreparedStatementSetter() {
+      @Override
+      public void setValues(PreparedStatement ps, int i) throws SQLException {
+        Tariff tariff = pending.get(i);
+        ps.setObject(1, tariff.getId());
+        ps.setString(2, tariff.getOriginCountry().getCode());
+        ps.setString(3, tariff.getDestCountry().getCode());
+        ps.setDate(4, Date.valueOf(tariff.getEffectiveDate()));
+        if (tariff.getExpiryDate() == null) {
+          ps.setNull(5, Types.DATE);
+        } else {
+          ps.setDate(5, Date.valueOf(tariff.getExpiryDate()));
+        }
+        ps.setDouble(6, tariff.getAdValoremRate());
+        ps.setDouble(7, tariff.getSpecificRate());
+        ps.setLong(8, tariff.getMinQuantity());
+        ps.setLong(9, tariff.getMaxQuantity());
+        ps.setBoolean(10, tariff.isUserDefined());
+        ps.setBoolean(11, tariff.isEnabled());
+      }
+
+      @Override
+      public int getBatchSize() {
+        return pending.size();
+      }
+    });
+    List<Object[]> links = new ArrayList<>(pending.size());
+    for (Tariff tariff : pending) {
+      for (Product product : tariff.getProducts()) {
+        links.add(new Object[] { tariff.getId(), product.getHTS_code() });
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT_TARIFF_PRODUCT, links);
+
+    int flushed = pending.size();
+    pending.clear();
+    return flushed;
+  }
+}
@@ -0,0 +1,188 @@
+package com.tariff.backend.component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+
+// Seeded generator for WITS-shaped data, the same shape the scraper stores:
+// - countries with 3 digit numeric codes ("001", "002", ...)
+// - 6 digit HS products
+// - per (origin, dest, product) route a yearly rate history starting somewhere from first-year,
+//   unchanged years collapsed, expiry = day before the next change, the last one open ended.
+//   Every tariff covers exactly one product and ad valorem rates are fractions (0.05 = 5%).
+// Each product draws from its own Random derived from (seed, product index), so the same spec
+// always yields the same rows, in the same order, independent of how they are consumed.
+// Tariffs are streamed, nothing but countries and products is kept in memory.
+public class SyntheticTariffData {
+
+  public record Spec(long seed, int countries, int products, int routesPerProduct, int firstYear, int lastYear) {
+
+    public Spec {
+      if (countries < 2 || countries > 999) {
+        throw new IllegalArgumentException("countries must be between 2 and 999");
+      }
+      if (products < 1 || products > 999_999) {
+        throw new IllegalArgumentException("products must be between 1 and 999999");
+      }
+      if (routesPerProduct < 1) {
+        throw new IllegalArgumentException("routesPerProduct must be positive");
+      }
+      if (firstYear > lastYear) {
+        throw new IllegalArgumentException("firstYear must not be after lastYear");
+      }
+      // every ordered pair of different countries at most once per product
+      routesPerProduct = (int) Math.min(routesPerProduct, (long) countries * (countries - 1));
+    }
+  }
+
+  // chance per year that a route's rate changes
+  private static final double CHANGE_PROBABILITY = 0.15;
+
+  private final Spec spec;
+  private final List<Country> countries;
+  private final List<Product> products;
+
+  public SyntheticTariffData(Spec spec) {
+    this.spec = spec;
+    this.countries = new ArrayList<>(spec.countries());
+    for (int i = 1; i <= spec.countries(); i++) {
+      Country country = new Country();
+      country.setCode(String.format("%03d", i));
+      country.setName("Country " + country.getCode());
+      countries.add(country);
+    }
+    this.products = new ArrayList<>(spec.products());
+    for (int i = 0; i < spec.products(); i++) {
+      // chapters 01-97 like the real HS nomenclature, then heading + subheading
+      String code = String.format("%02d%04d", 1 + i % 97, i / 97);
+      Product product = new Product();
+      product.setHTS_code(code);
+      product.setName("HS " + code);
+      product.setDescription("Synthetic product, chapter " + code.substring(0, 2));
+      products.add(product);
+    }
+  }
+
+  public Spec spec() {
+    return spec;
+  }
+
+  public List<Country> countries() {
+    return countries;
+  }
+
+  public List<Product> products() {
+    return products;
+  }
+
+  // Calls the consumer once per tariff, product by product, route by route, oldest first.
+  // The Tariff instances reference the shared countries()/products() objects.
+  public void forEachTariff(Consumer<Tariff> consumer) {
+    int n = countries.size();
+    long pairs = (long) n * (n - 1);
+    for (int p = 0; p < products.size(); p++) {
+      Random random = new Random(mix(spec.seed(), p));
+      Product product = products.get(p);
+
+      // walk the pair space with a stride coprime to its size, so the routes are distinct
+      long start = Math.floorMod(random.nextLong(), pairs);
+      long stride = 1 + Math.floorMod(random.nextLong(), pairs);
+      while (gcd(stride, pairs) != 1) {
+        stride++;
+      }
+      // most-favoured-nation rate of the product, preferential routes pay less or nothing
+      double mfnRate = baseRate(random);
+
+      for (int r = 0; r < spec.routesPerProduct(); r++) {
+        long pair = (start + r * stride) % pairs;
+        int origin = (int) (pair / (n - 1));
+        int dest = (int) (pair % (n - 1));
+        if (dest >= origin) {
+          dest++;
+        }
+        double rate = random.nextInt(10) < 3 ? 0.0 : mfnRate * (0.5 + random.nextDouble() / 2);
+        history(random, countries.get(origin), countries.get(dest), product, rate, consumer);
+      }
+    }
+  }
+
+  private void history(Random random, Country origin, Country dest, Product product, double rate, Consumer<Tariff> consumer) {
+    // routes start reporting at different times, like WITS data from 1988 onwards
+    int span = spec.lastYear() - spec.firstYear();
+    int year = spec.firstYear() + (span == 0 ? 0 : random.nextInt(span / 2 + 1));
+    double specific = random.nextInt(20) == 0 ? round(random.nextDouble() * 5) : 0.0;
+
+    Tariff current = tariff(random, origin, dest, product, year, rate, specific);
+    for (year++; year <= spec.lastYear(); year++) {
+      if (random.nextDouble() >= CHANGE_PROBABILITY) {
+        continue;
+      }
+      // mostly liberalisation, sometimes a hike
+      rate = random.nextInt(5) == 0 ? rate * 1.5 : rate * random.nextDouble();
+      if (rate < 0.001) {
+        rate = 0.0;
+      }
+      Tariff next = tariff(random, origin, dest, product, year, rate, specific);
+      if (next.getAdValoremRate().equals(current.getAdValoremRate())) {
+        continue;
+      }
+      current.setExpiryDate(next.getEffectiveDate().minusDays(1));
+      consumer.accept(current);
+      current = next;
+    }
+    consumer.accept(current);
+  }
+
+  private static Tariff tariff(Random random, Country origin, Country dest, Product product, int year, double rate, double specific) {
+    Tariff tariff = new Tariff();
+    // version 4 layout, but reproducible
+    long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+    long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    tariff.setId(new UUID(msb, lsb));
+    tariff.setOriginCountry(origin);
+    tariff.setDestCountry(dest);
+    tariff.setEffectiveDate(LocalDate.of(year, 1, 1));
+    tariff.setAdValoremRate(round(rate));
+    tariff.setSpecificRate(specific);
+    tariff.setProducts(new HashSet<>(Set.of(product)));
+    return tariff;
+  }
+
+  // ~20% duty free, the rest skewed towards low single digits, capped around 35%
+  private static double baseRate(Random random) {
+    if (random.nextInt(5) == 0) {
+      return 0.0;
+    }
+    double r = random.nextDouble();
+    return 0.35 * r * r;
+  }
+
+  private static double round(double value) {
+    return Math.round(value * 10_000) / 10_000.0;
+  }
+
+  private static long mix(long seed, int index) {
+    long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private static long gcd(long a, long b) {
+    while (b != 0) {
+      long t = a % b;
+      a = b;
+      b = t;
+    }
+    return a;
+  }
+}
@@ -0,0 +1,39 @@
+package com.tariff.backend.component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token bucket, `capacity` requests per `period` with bursts up to `capacity`.
+// Written in GCRA form so the whole state is one AtomicLong (the time at which the bucket
+// would be full again) and taking a token is a single CAS, no locks and no allocation.
+public final class TokenBucket {
+
+  private final long emissionIntervalNanos; // time to earn back one token
+  private final long burstToleranceNanos;   // how far ahead of "now" the bucket may run
+  private final AtomicLong theoreticalArrival;
+
+  public TokenBucket(long capacity, Duration period, long nowNanos) {
+    if (capacity <= 0 || period.isZero() || period.isNegative()) {
+      throw new IllegalArgumentException("Token bucket needs a positive capacity and period");
+    }
+    this.emissionIntervalNanos = Math.max(1, period.toNanos() / capacity);
+    this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+    this.theoreticalArrival = new AtomicLong(nowNanos); // starts full
+  }
+
+  // Takes a token if one is available. Returns 0 when allowed, otherwise how many
+  // nanoseconds until the next token (nothing is consumed in that case).
+  public long tryConsume(long nowNanos) {
+    while (true) {
+      long current = theoreticalArrival.get();
+      long arrival = Math.max(current, nowNanos);
+      long waitNanos = arrival - burstToleranceNanos - nowNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+      if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+        return 0;
+      }
+    }
+  }
+}
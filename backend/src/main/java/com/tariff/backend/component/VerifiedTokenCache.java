@@ -0,0 +1,104 @@
+package com.tariff.backend.component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Cache of tokens that already passed signature verification, so the same auth_token cookie
+// does not pay for HMAC + claims parsing on every request.
+// - keyed by SHA-256 of the token (the raw token is never stored)
+// - bounded by max-size, each entry lives for min(ttl, time left until the token's own exp)
+// - reads are lock free (Caffeine), hit/miss/eviction counts are published to micrometer
+@Component
+public class VerifiedTokenCache {
+
+  private final Cache<String, Claims> cache;
+
+  public VerifiedTokenCache(
+    @Value("${security.jwt.token-cache.max-size:10000}") long maxSize,
+    @Value("${security.jwt.token-cache.ttl-seconds:300}") long ttlSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfter(new TokenExpiry(Duration.ofSeconds(ttlSeconds).toNanos()))
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+  }
+
+  // Claims of a previously verified token, or null if the token was never seen / has expired
+  public Claims get(String token) {
+    return cache.getIfPresent(digest(token));
+  }
+
+  // Only call this with claims returned by JwtService.verifyToken
+  public void put(String token, Claims claims) {
+    cache.put(digest(token), claims);
+  }
+
+  public double hitRate() {
+    return cache.stats().hitRate();
+  }
+
+  public long size() {
+    cache.cleanUp();
+    return cache.estimatedSize();
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      // every JVM has to ship SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // Entry lifetime is capped at the token's exp claim so an expired token can never be a hit
+  private static final class TokenExpiry implements Expiry<String, Claims> {
+
+    private final long maxTtlNanos;
+
+    private TokenExpiry(long maxTtlNanos) {
+      this.maxTtlNanos = maxTtlNanos;
+    }
+
+    @Override
+    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+      Date expiration = claims.getExpiration();
+      if (expiration == null) {
+        return maxTtlNanos;
+      }
+      long untilExpiry = Duration.ofMillis(expiration.getTime() - System.currentTimeMillis()).toNanos();
+      return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, claims, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package com.tariff.backend.config;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.google.genai.Client;
+import com.google.genai.types.HttpOptions;
+
+// One Gemini client for the whole app. The SDK client is thread safe, so sharing it means
+// keep-alive connections get reused instead of a new connection + TLS handshake per upload.
+// Spring calls close() on shutdown, which closes the connection pool.
+@Configuration
+public class GeminiClientConfig {
+
+  private static final Logger log = LoggerFactory.getLogger(GeminiClientConfig.class);
+
+  @Bean(destroyMethod = "close")
+  public Client geminiClient(
+    @Value("${GEMINI_API_KEY}") String apiKey,
+    // empty = the SDK's default endpoint, tests point this at a local stub server
+    @Value("${gemini.base-url:}") String baseUrl,
+    @Value("${gemini.connect-timeout-ms:5000}") int connectTimeoutMs,
+    @Value("${gemini.read-timeout-ms:60000}") int readTimeoutMs,
+    @Value("${gemini.max-connections:20}") int maxConnections,
+    @Value("${gemini.generation-timeout-ms:0}") int generationTimeoutMs
+  ) {
+    return buildClient(apiKey, baseUrl, connectTimeoutMs, readTimeoutMs, maxConnections, generationTimeoutMs);
+  }
+
+  public static Client buildClient(
+    String apiKey,
+    String baseUrl,
+    int connectTimeoutMs,
+    int readTimeoutMs,
+    int maxConnections,
+    int generationTimeoutMs
+  ) {
+    // HttpOptions.timeout is not a client timeout: the SDK sends it as X-Server-Timeout on every
+    // request and Gemini gives up on generations that take longer. Connect/read timeouts live on
+    // the pooled HttpClient below, the server deadline is opt-in (0 = none)
+    HttpOptions.Builder httpOptions = HttpOptions.builder();
+    if (generationTimeoutMs > 0) {
+      httpOptions.timeout(generationTimeoutMs);
+    }
+    if (baseUrl != null && !baseUrl.isBlank()) {
+      httpOptions.baseUrl(baseUrl);
+    }
+    Client client = Client.builder()
+      .apiKey(apiKey)
+      .httpOptions(httpOptions.build())
+      .build();
+
+    installHttpClient(client, pooledHttpClient(connectTimeoutMs, readTimeoutMs, maxConnections));
+    return client;
+  }
+
+  // Every Gemini call goes to the same host, so the per-route limit is the real concurrency cap
+  // (Apache's default is only 2). Read timeout so a hung call can't hold a pooled connection forever.
+  static CloseableHttpClient pooledHttpClient(int connectTimeoutMs, int readTimeoutMs, int maxConnections) {
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(maxConnections);
+    connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+    RequestConfig requestConfig = RequestConfig.custom()
+      .setConnectTimeout(connectTimeoutMs)
+      .setSocketTimeout(readTimeoutMs)
+      .setConnectionRequestTimeout(connectTimeoutMs) // waiting for a free pooled connection
+      .build();
+
+    return HttpClients.custom()
+      .setConnectionManager(connectionManager)
+      .setDefaultRequestConfig(requestConfig)
+      .evictIdleConnections(30, TimeUnit.SECONDS)
+      .evictExpiredConnections()
+      .build();
+  }
+
+  // google-genai 1.0.0 has no way to pass in an HttpClient and builds its own with the default
+  // pool, so swap in ours through the private Client.apiClient / ApiClient.httpClient fields.
+  // The SDK version is pinned in the pom for this; if an upgrade moves the fields, startup fails
+  // here instead of silently running on the SDK's 2-connection pool without a read timeout.
+  private static void installHttpClient(Client client, CloseableHttpClient httpClient) {
+    CloseableHttpClient sdkHttpClient;
+    try {
+      Field apiClientField = Client.class.getDeclaredField("apiClient");
+      apiClientField.setAccessible(true);
+      Object apiClient = apiClientField.get(client);
+
+      Field httpClientField = apiClientField.getType().getDeclaredField("httpClient");
+      httpClientField.setAccessible(true);
+      sdkHttpClient = (CloseableHttpClient) httpClientField.get(apiClient);
+      httpClientField.set(apiClient, httpClient);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      closeQuietly(httpClient);
+      throw new IllegalStateException(
+        "Could not install the pooled HttpClient into the Gemini client, check the google-genai version", e);
+    }
+    // the SDK's own client never sent anything, just release it
+    closeQuietly(sdkHttpClient);
+  }
+
+  private static void closeQuietly(CloseableHttpClient httpClient) {
+    try {
+      httpClient.close();
+    } catch (IOException e) {
+      log.debug("Failed to close unused HttpClient", e);
+    }
+  }
+}
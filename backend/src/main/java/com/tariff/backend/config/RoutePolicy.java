@@ -0,0 +1,119 @@
+package com.tariff.backend.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Single list of who can call what. SecurityConfig turns it into authorization rules
+// and JwtAuthFilter uses it to skip token processing on PUBLIC routes, so the public
+// path set only lives here. Rules are first-match, same as Spring Security.
+@Component
+public class RoutePolicy {
+
+  public enum Access {
+    PUBLIC,         // permitted and the auth filter is skipped entirely
+    PERMIT_ALL,     // permitted, but a token (if any) is still read so the principal is available
+    AUTHENTICATED,
+    ROLES
+  }
+
+  // method == null means any method
+  public record Rule(HttpMethod method, String pattern, Access access, String... roles) {}
+
+  private static final String[] ADMINS = { "ADMIN", "SUPER_ADMIN" };
+
+  private static final List<Rule> RULES = List.of(
+    // 1. Public Endpoints (Be specific!)
+    new Rule(HttpMethod.OPTIONS, "/**", Access.PUBLIC), // CORS preflight
+    new Rule(HttpMethod.POST, "/api/users/register", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/users/login", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/users/logout", Access.PUBLIC), // Ensure user can logout
+    new Rule(HttpMethod.POST, "/api/users/refresh", Access.PUBLIC), // authenticated by the refresh_token cookie
+    new Rule(null, "/swagger-ui/**", Access.PUBLIC),
+    new Rule(null, "/v3/api-docs/**", Access.PUBLIC),
+    new Rule(null, "/swagger-ui.html", Access.PUBLIC),
+    new Rule(HttpMethod.GET, "/health", Access.PUBLIC), // for healthchecks
+    // metrics expose every route, query, cache and pool: no user session, MetricsScrapeFilter
+    // checks the scraper's bearer token (security.metrics.scrape-token) instead
+    new Rule(null, "/actuator/**", Access.PUBLIC),
+
+    // OTHER ENDPOINTS
+    new Rule(HttpMethod.GET, "/api/tariffs/**", Access.PERMIT_ALL),
+    new Rule(HttpMethod.POST, "/api/tariffs/**", Access.PERMIT_ALL),
+    new Rule(null, "/api/tariffs/**", Access.ROLES, "SUPER_ADMIN", "ADMIN"),
+    new Rule(null, "/api/products/**", Access.PUBLIC),
+    new Rule(null, "/api/countries/**", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/predict", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/predict/jobs", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/predict/batch", Access.PUBLIC),
+    new Rule(HttpMethod.POST, "/api/predict/mentions", Access.PUBLIC),
+    new Rule(HttpMethod.GET, "/api/predict/jobs/**", Access.PUBLIC), // job ids are random UUIDs
+
+    // 2. User "Self-Service" Rules (Authenticated), before admin rules to be matched first
+    new Rule(HttpMethod.PUT, "/api/users/me/change-password", Access.AUTHENTICATED),
+    new Rule(HttpMethod.GET, "/api/users/me", Access.PERMIT_ALL),
+
+    // 3. SUPER_ADMIN Rules (Most specific roles first)
+    new Rule(HttpMethod.PUT, "/api/users/downgrade-role", Access.ROLES, "SUPER_ADMIN"),
+
+    // 4. ADMIN and SUPER_ADMIN Rules
+    new Rule(HttpMethod.GET, "/api/users/", Access.ROLES, ADMINS), // admin can view all
+    new Rule(HttpMethod.PUT, "/api/users/upgrade-role", Access.ROLES, ADMINS),
+    // The service layer will check if they are deleting an admin.
+    new Rule(HttpMethod.DELETE, "/api/users/*", Access.ROLES, ADMINS)
+
+    // 5. everything else needs authentication (SecurityConfig adds anyRequest)
+  );
+
+  private record CompiledRule(PathPattern pattern, Access access) {}
+
+  // Patterns are parsed once at startup and pre-sorted per method, so a request only
+  // walks the rules that can apply to its method
+  private final Map<HttpMethod, List<CompiledRule>> rulesByMethod = new HashMap<>();
+  private final List<CompiledRule> anyMethodRules = new ArrayList<>();
+
+  public RoutePolicy() {
+    for (HttpMethod method : HttpMethod.values()) {
+      rulesByMethod.put(method, new ArrayList<>());
+    }
+
+    for (Rule rule : RULES) {
+      CompiledRule compiled = new CompiledRule(PathPatternParser.defaultInstance.parse(rule.pattern()), rule.access());
+      if (rule.method() == null) {
+        anyMethodRules.add(compiled);
+        rulesByMethod.values().forEach(rules -> rules.add(compiled));
+      } else {
+        rulesByMethod.get(rule.method()).add(compiled);
+      }
+    }
+  }
+
+  public List<Rule> rules() {
+    return RULES;
+  }
+
+  // True when the first rule matching the request is PUBLIC
+  public boolean isPublic(HttpServletRequest request) {
+    return isPublic(request.getMethod(), request.getRequestURI());
+  }
+
+  public boolean isPublic(String method, String requestUri) {
+    List<CompiledRule> candidates = rulesByMethod.getOrDefault(HttpMethod.valueOf(method), anyMethodRules);
+    PathContainer path = PathContainer.parsePath(requestUri);
+    for (CompiledRule rule : candidates) {
+      if (rule.pattern().matches(path)) {
+        return rule.access() == Access.PUBLIC;
+      }
+    }
+    return false;
+  }
+}
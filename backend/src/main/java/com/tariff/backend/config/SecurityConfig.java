@@ -3,9 +3,9 @@ package com.tariff.backend.config;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -19,6 +19,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.tariff.backend.component.JwtAuthFilter;
+import com.tariff.backend.component.RateLimitFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -29,13 +30,19 @@ public class SecurityConfig {
 
   private final AuthenticationProvider authenticationProvider;
   private final JwtAuthFilter jwtAuthenticationFilter;
+  private final RateLimitFilter rateLimitFilter;
+  private final RoutePolicy routePolicy;
 
   public SecurityConfig(
     JwtAuthFilter jwtAuthenticationFilter,
-    AuthenticationProvider authenticationProvider
+    AuthenticationProvider authenticationProvider,
+    RoutePolicy routePolicy,
+    RateLimitFilter rateLimitFilter
   ) {
     this.authenticationProvider = authenticationProvider;
     this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    this.routePolicy = routePolicy;
+    this.rateLimitFilter = rateLimitFilter;
   }
 
   @Bean
@@ -56,49 +63,36 @@ public class SecurityConfig {
         jwtAuthenticationFilter,
         UsernamePasswordAuthenticationFilter.class
       )
-      // identify path to auth
-  .authorizeHttpRequests(request ->
-      request
-          // 1. Public Endpoints (Be specific!)
-          .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
-          .requestMatchers(HttpMethod.POST, "/api/users/register").permitAll() // Assuming this is for registration
-          .requestMatchers(HttpMethod.POST, "/api/users/login").permitAll() // Assuming you have a login endpoint
-          .requestMatchers(HttpMethod.POST, "/api/users/logout").permitAll() // Ensure user can logout
-          .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
-          .requestMatchers(HttpMethod.GET, "/health").permitAll() // for healthchecks
-
-          // OTHER ENDPOINTS
-          .requestMatchers(HttpMethod.GET, "/api/tariffs/**").permitAll()
-          .requestMatchers(HttpMethod.POST, "/api/tariffs/**").permitAll()
-          .requestMatchers("/api/tariffs/**").hasAnyRole("SUPER_ADMIN", "ADMIN")
-          .requestMatchers("/api/products/**").permitAll()
-          .requestMatchers("/api/countries/**").permitAll()
-          .requestMatchers(HttpMethod.POST, "/api/predict").permitAll()
-
-          // 2. User "Self-Service" Rules (Authenticated)
-          // Placed *before* Admin rules to be matched first
-          .requestMatchers(HttpMethod.PUT, "/api/users/me/change-password").authenticated() // For changing *own* password
-          .requestMatchers(HttpMethod.GET, "/api/users/me").permitAll() // For getting *own* profile
-
-          // 3. SUPER_ADMIN Rules (Most specific roles first)
-          .requestMatchers(HttpMethod.PUT, "/api/users/downgrade-role").hasRole("SUPER_ADMIN")
-
-          // 4. ADMIN and SUPER_ADMIN Rules
-          .requestMatchers(HttpMethod.GET, "/api/users/").hasAnyRole("ADMIN", "SUPER_ADMIN") // Plan: "admin can view all"
-          .requestMatchers(HttpMethod.PUT, "/api/users/upgrade-role").hasAnyRole("ADMIN", "SUPER_ADMIN") // Plan: "admin can upgrade user"
-
-          // No specific delete for super-admin; it's covered by the ADMIN/SUPER_ADMIN rule below.
-          // The service layer will check if they are deleting an admin.
-          .requestMatchers(HttpMethod.DELETE, "/api/users/*").hasAnyRole("ADMIN", "SUPER_ADMIN")
-
-          // 5. Deny all other requests by default (unless authenticated)
-          .anyRequest().authenticated()
-          
-  );
+      //   rate limit after auth so logged in users are limited per email instead of per IP
+      .addFilterAfter(rateLimitFilter, JwtAuthFilter.class)
+      // identify path to auth, every rule comes from RoutePolicy (first match wins)
+      .authorizeHttpRequests(request -> {
+        for (RoutePolicy.Rule rule : routePolicy.rules()) {
+          var matcher = rule.method() == null
+            ? request.requestMatchers(rule.pattern())
+            : request.requestMatchers(rule.method(), rule.pattern());
+          switch (rule.access()) {
+            case PUBLIC, PERMIT_ALL -> matcher.permitAll();
+            case AUTHENTICATED -> matcher.authenticated();
+            case ROLES -> matcher.hasAnyRole(rule.roles());
+          }
+        }
+        // Deny all other requests by default (unless authenticated)
+        request.anyRequest().authenticated();
+      });
 
     return http.build();
   }
 
+  // Filter beans are also picked up by the servlet container on their own, keep the rate
+  // limiter out of there so it only runs inside the security chain (after JwtAuthFilter)
+  @Bean
+  FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+    FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+    registration.setEnabled(false);
+    return registration;
+  }
+
   @Bean
   CorsConfigurationSource corsConfigurationSource() {
     CorsConfiguration configuration = new CorsConfiguration();
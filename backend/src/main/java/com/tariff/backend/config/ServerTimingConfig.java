@@ -0,0 +1,31 @@
+package com.tariff.backend.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import com.tariff.backend.component.ServerTiming;
+
+@Configuration
+public class ServerTimingConfig {
+
+  // Every repository call adds its duration to the request's "db" Server-Timing entry, through
+  // the same invocation listener hook Boot uses for spring.data.repository.invocations.
+  // static so registering the post processor doesn't initialize this configuration early
+  @Bean
+  static BeanPostProcessor serverTimingRepositoryListener() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(invocation ->
+            ServerTiming.recordNanos(ServerTiming.Phase.DB, invocation.getDuration(TimeUnit.NANOSECONDS))));
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -1,31 +1,108 @@
 package com.tariff.backend.controller;
 
+import com.tariff.backend.service.BatchPredictionService;
+import com.tariff.backend.service.PredictionJobService;
 import com.tariff.backend.service.PredictionService;
+import com.tariff.backend.service.TariffMentionExtractor;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/predict")
 public class PredictionController {
     private final PredictionService predictionService;
+    private final PredictionJobService predictionJobService;
+    private final TariffMentionExtractor tariffMentionExtractor;
+    private final BatchPredictionService batchPredictionService;
 
     @Autowired
-    public PredictionController(PredictionService predictionService) {
+    public PredictionController(PredictionService predictionService,
+                                PredictionJobService predictionJobService,
+                                TariffMentionExtractor tariffMentionExtractor,
+                                BatchPredictionService batchPredictionService) {
         this.predictionService = predictionService;
+        this.predictionJobService = predictionJobService;
+        this.tariffMentionExtractor = tariffMentionExtractor;
+        this.batchPredictionService = batchPredictionService;
     }
 
     @PostMapping
     public ResponseEntity<String> predictFromPdf(@RequestParam("file") MultipartFile file,
                                                  @RequestParam(value = "country", required = false) String country) {
-        if (file == null || file.isEmpty()) {
-            return ResponseEntity.badRequest().body("No file uploaded.");
-        }
-        if (!file.getContentType().equalsIgnoreCase("application/pdf")) {
-            return ResponseEntity.badRequest().body("Only PDF files are accepted.");
+        String invalid = validatePdf(file);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
         }
         String result = predictionService.sendPdfToGemini(file, country);
         return ResponseEntity.ok(result);
     }
+
+    // Many PDFs at once. SSE: a "result" event per file as soon as it's ready (JSON, any order),
+    // then "done" with the number of files. Identical files are only predicted once.
+    @PostMapping(value = "/batch", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> predictBatch(@RequestParam("files") List<MultipartFile> files,
+                                          @RequestParam(value = "country", required = false) String country) {
+        if (files == null || files.isEmpty()) {
+            return ResponseEntity.badRequest().body("No file uploaded.");
+        }
+        for (MultipartFile file : files) {
+            String invalid = validatePdf(file);
+            if (invalid != null) {
+                return ResponseEntity.badRequest().body(file.getOriginalFilename() + ": " + invalid);
+            }
+        }
+        return ResponseEntity.ok(batchPredictionService.stream(files, country));
+    }
+
+    // No model call: HTS codes, rates, products and countries found in the PDF + matching stored tariffs
+    @PostMapping("/mentions")
+    public ResponseEntity<?> extractTariffMentions(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(value = "country", required = false) String country) {
+        String invalid = validatePdf(file);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        return ResponseEntity.ok(tariffMentionExtractor.extract(predictionService.readPdfBytes(file), country));
+    }
+
+    // Async mode: returns a job id straight away, follow it with GET /jobs/{id}/stream
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitPredictionJob(@RequestParam("file") MultipartFile file,
+                                                 @RequestParam(value = "country", required = false) String country) {
+        String invalid = validatePdf(file);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(invalid);
+        }
+        String jobId = predictionJobService.submit(file, country);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("jobId", jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<PredictionJobService.JobView> getPredictionJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(predictionJobService.get(jobId));
+    }
+
+    // SSE: "chunk" events with model output as it is generated, then "done" or "failed"
+    @GetMapping(value = "/jobs/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPredictionJob(@PathVariable String jobId) {
+        return predictionJobService.stream(jobId);
+    }
+
+    // null when the upload is an acceptable PDF
+    private String validatePdf(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            return "No file uploaded.";
+        }
+        if (!"application/pdf".equalsIgnoreCase(file.getContentType())) {
+            return "Only PDF files are accepted.";
+        }
+        return null;
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.CookieValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -19,9 +20,11 @@ import com.tariff.backend.dto.UserLoginDTO;
 import com.tariff.backend.dto.UserRequestDTO;
 import com.tariff.backend.model.User;
 import com.tariff.backend.service.JwtService;
+import com.tariff.backend.service.RefreshTokenService;
 import com.tariff.backend.service.UserService;
 
 import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
@@ -29,12 +32,19 @@ import jakarta.validation.Valid;
 @RequestMapping(path = "api/users")
 public class UserController {
 
+  private static final String AUTH_COOKIE = "auth_token";
+  private static final String REFRESH_COOKIE = "refresh_token";
+  // the refresh cookie is only sent to the user endpoints (refresh + logout), not on every call
+  private static final String REFRESH_COOKIE_PATH = "/api/users";
+
   private final JwtService jwtService;
   private final UserService userService;
+  private final RefreshTokenService refreshTokenService;
 
-  public UserController(UserService userService, JwtService jwtService) {
+  public UserController(UserService userService, JwtService jwtService, RefreshTokenService refreshTokenService) {
     this.userService = userService;
     this.jwtService = jwtService;
+    this.refreshTokenService = refreshTokenService;
   }
 
   @GetMapping("/")
@@ -61,23 +71,45 @@ public class UserController {
   @PostMapping("/login")
   public ResponseEntity<UserLoginDTO> loginUser(
     @Valid @RequestBody UserRequestDTO.LoginDto loginDto,
+    HttpServletRequest request,
     HttpServletResponse response 
   ) {
     // Note that it takes in the record to auth user and returns seperate mutable DTO
-    User authenticatedUser = userService.loginUser(loginDto);
-    String jwtToken = jwtService.generateToken(authenticatedUser);
+    // (remote address is used for brute-force tracking per source)
+    User authenticatedUser = userService.loginUser(loginDto, request.getRemoteAddr());
+    return issueTokens(authenticatedUser, refreshTokenService.issue(authenticatedUser), response);
+  }
+
+  // Swaps a valid refresh_token cookie for a new access token + refresh token, no password check
+  @PostMapping("/refresh")
+  public ResponseEntity<UserLoginDTO> refresh(
+    @CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+    HttpServletResponse response
+  ) {
+    RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+    return issueTokens(rotation.user(), rotation.refreshToken(), response);
+  }
+
+  private ResponseEntity<UserLoginDTO> issueTokens(User user, String refreshToken, HttpServletResponse response) {
+    String jwtToken = jwtService.generateToken(user);
 
     // ✅ Set HttpOnly cookie
-    Cookie cookie = new Cookie("auth_token", jwtToken);
+    Cookie cookie = new Cookie(AUTH_COOKIE, jwtToken);
     cookie.setHttpOnly(false);  // Prevents JavaScript access
     cookie.setSecure(false);    // Only sent over HTTPS (set false for local dev)
     cookie.setPath("/");       // Available for all paths
-    cookie.setMaxAge(3 * 24 * 60 * 60); // 3 days in seconds
+    cookie.setMaxAge((int) (jwtService.getExpirationTime() / 1000)); // dies with the token
     // cookie.setAttribute("SameSite", "Strict"); // CSRF protection
     
     response.addCookie(cookie);
-    System.out.println("Set cookie in response"); 
-    System.out.println(cookie);
+
+    Cookie refreshCookie = new Cookie(REFRESH_COOKIE, refreshToken);
+    refreshCookie.setHttpOnly(true); // never needed by the frontend js
+    refreshCookie.setSecure(false);
+    refreshCookie.setPath(REFRESH_COOKIE_PATH);
+    refreshCookie.setMaxAge((int) (refreshTokenService.getExpirationTime() / 1000));
+    response.addCookie(refreshCookie);
+
     return ResponseEntity.ok(
       new UserLoginDTO(jwtToken, jwtService.getExpirationTime())
     );
@@ -111,15 +143,27 @@ public class UserController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<String> logout(HttpServletResponse response) {
+    public ResponseEntity<String> logout(
+      @CookieValue(name = REFRESH_COOKIE, required = false) String refreshToken,
+      HttpServletResponse response
+    ) {
+      refreshTokenService.revoke(refreshToken);
+
       // Delete the cookie by setting maxAge to 0
-      Cookie cookie = new Cookie("auth_token", null);
+      Cookie cookie = new Cookie(AUTH_COOKIE, null);
       cookie.setHttpOnly(true);
       cookie.setSecure(false);
       cookie.setPath("/");
       cookie.setMaxAge(0);  // Expire immediately
       
       response.addCookie(cookie);
+
+      Cookie refreshCookie = new Cookie(REFRESH_COOKIE, null);
+      refreshCookie.setHttpOnly(true);
+      refreshCookie.setSecure(false);
+      refreshCookie.setPath(REFRESH_COOKIE_PATH);
+      refreshCookie.setMaxAge(0);
+      response.addCookie(refreshCookie);
       
       return ResponseEntity.ok("Logged out successfully");
     }
@@ -5,6 +5,7 @@ import io.jsonwebtoken.security.SignatureException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -85,6 +86,20 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(body, HttpStatus.UNAUTHORIZED); // 401
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<Map<String, String>> handleTooManyRequests(
+    TooManyRequestsException ex
+  ) {
+    Map<String, String> body = Collections.singletonMap(
+      "message",
+      ex.getMessage()
+    );
+    return ResponseEntity
+      .status(HttpStatus.TOO_MANY_REQUESTS) // 429
+      .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+      .body(body);
+  }
+
   @ExceptionHandler(SignatureException.class)
   public ResponseEntity<Map<String, String>> handleInvalidSignature(
     SignatureException ex
@@ -0,0 +1,51 @@
+package com.tariff.backend.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+// Only the SHA-256 of the refresh token is stored, the raw value lives in the client's cookie.
+// Looked up by hash on every refresh, hence the unique index.
+@Entity
+@Data
+@Table(
+  name = "refresh_tokens",
+  indexes = {
+    @Index(name = "idx_refresh_tokens_hash", columnList = "tokenHash", unique = true),
+    @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+  }
+)
+public class RefreshToken {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 64)
+  private String tokenHash;
+
+  @Column(nullable = false)
+  private String userEmail;
+
+  // User.tokenGeneration at issue time, a role/password change bumps it and kills the token
+  @Column(nullable = false)
+  private long tokenGeneration;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+
+  protected RefreshToken() {}
+
+  public RefreshToken(String tokenHash, String userEmail, long tokenGeneration, Instant expiresAt) {
+    this.tokenHash = tokenHash;
+    this.userEmail = userEmail;
+    this.tokenGeneration = tokenGeneration;
+    this.expiresAt = expiresAt;
+  }
+}
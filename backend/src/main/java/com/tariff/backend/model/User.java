@@ -39,6 +39,12 @@ public class User implements UserDetails{
   @Column(nullable = false, columnDefinition = "varchar(255) default 'USER'")
   private Role role = Role.USER; // Defaults to regular user
 
+  // Bumped whenever tokens issued earlier must stop working (role/password change),
+  // stateless tokens carry it as the "gen" claim, see TokenRevocationService
+  @JsonIgnore
+  @Column(nullable = false, columnDefinition = "bigint default 0")
+  private long tokenGeneration = 0;
+
     // change to protected, just in case.
     protected User() {}
 
@@ -73,6 +79,10 @@ public class User implements UserDetails{
             this.role = Role.USER;
         }
     }
+
+    public void bumpTokenGeneration() {
+        this.tokenGeneration++;
+    }
     
     // Please DO NOT REMOVE, this handles the authentication for JWT,
     // if removed can run, but JWT would not be used.
@@ -0,0 +1,30 @@
+package com.tariff.backend.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tariff.backend.model.RefreshToken;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+  Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+  // bulk deletes, no entities loaded
+  @Modifying
+  @Query("DELETE FROM RefreshToken r WHERE r.tokenHash = :tokenHash")
+  int deleteByTokenHash(String tokenHash);
+
+  // every session of an account (deleted user, password or role change)
+  @Modifying
+  @Query("DELETE FROM RefreshToken r WHERE r.userEmail = :userEmail")
+  int deleteByUserEmail(String userEmail);
+
+  @Modifying
+  @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+  int deleteExpired(Instant now);
+}
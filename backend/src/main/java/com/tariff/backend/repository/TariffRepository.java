@@ -1,10 +1,12 @@
 package com.tariff.backend.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,7 +16,10 @@ import com.tariff.backend.model.Tariff;
 @Repository
 public interface TariffRepository extends JpaRepository<Tariff, UUID> {
   @Query("""
-        SELECT t FROM Tariff t JOIN t.products p
+        SELECT t FROM Tariff t
+        JOIN FETCH t.originCountry
+        JOIN FETCH t.destCountry
+        JOIN t.products p
         WHERE t.originCountry.code = :originCountry
         AND t.destCountry.code = :destCountry
         AND t.effectiveDate <= :targetDate
@@ -28,15 +33,75 @@ public interface TariffRepository extends JpaRepository<Tariff, UUID> {
   Optional<Tariff> getTariffFromProductCountriesAndDates(String productName, LocalDate targetDate, String originCountry,
       String destCountry);
 
+  // Countries and the full product set come back in the same query, p only filters
   @Query("""
-      SELECT DISTINCT t FROM Tariff t JOIN t.products p
+      SELECT DISTINCT t FROM Tariff t
+      JOIN FETCH t.originCountry
+      JOIN FETCH t.destCountry
+      LEFT JOIN FETCH t.products
+      JOIN t.products p
       WHERE p.HTS_code = :htsCode
       AND p.enabled = true
         """)
   List<Tariff> getTariffsByHtsCode(String htsCode);
 
+  // Active tariffs for every HTS code found in a document, with countries and the full product
+  // set. Two queries: the ids first, where p filters and the limit stays in SQL (with a
+  // collection fetch join Hibernate would load every match and apply the limit in memory),
+  // then the tariffs themselves with everything the response needs fetched in one go.
+  default List<Tariff> findActiveByHtsCodes(Collection<String> htsCodes, LocalDate targetDate, Limit limit) {
+    return findWithProductsByIdIn(findActiveIdsByHtsCodes(htsCodes, targetDate, limit));
+  }
+
+  // Same, narrowed to tariffs where either side is one of the given countries
+  default List<Tariff> findActiveByHtsCodesAndCountries(
+      Collection<String> htsCodes, Collection<String> countryCodes, LocalDate targetDate, Limit limit) {
+    return findWithProductsByIdIn(findActiveIdsByHtsCodesAndCountries(htsCodes, countryCodes, targetDate, limit));
+  }
+
+  @Query("""
+      SELECT DISTINCT t.id FROM Tariff t
+      JOIN t.products p
+      WHERE p.HTS_code IN :htsCodes
+      AND p.enabled = true
+      AND t.enabled = true
+      AND t.effectiveDate <= :targetDate
+      AND (t.expiryDate IS NULL OR t.expiryDate >= :targetDate)
+        """)
+  List<UUID> findActiveIdsByHtsCodes(Collection<String> htsCodes, LocalDate targetDate, Limit limit);
+
+  @Query("""
+      SELECT DISTINCT t.id FROM Tariff t
+      JOIN t.products p
+      WHERE p.HTS_code IN :htsCodes
+      AND p.enabled = true
+      AND t.enabled = true
+      AND t.effectiveDate <= :targetDate
+      AND (t.expiryDate IS NULL OR t.expiryDate >= :targetDate)
+      AND (t.originCountry.code IN :countryCodes OR t.destCountry.code IN :countryCodes)
+        """)
+  List<UUID> findActiveIdsByHtsCodesAndCountries(
+      Collection<String> htsCodes, Collection<String> countryCodes, LocalDate targetDate, Limit limit);
+
+  // no query for an empty id list
+  default List<Tariff> findWithProductsByIdIn(Collection<UUID> ids) {
+    return ids.isEmpty() ? List.of() : fetchWithProductsByIdIn(ids);
+  }
+
+  @Query("""
+      SELECT DISTINCT t FROM Tariff t
+      JOIN FETCH t.originCountry
+      JOIN FETCH t.destCountry
+      LEFT JOIN FETCH t.products
+      WHERE t.id IN :ids
+        """)
+  List<Tariff> fetchWithProductsByIdIn(Collection<UUID> ids);
+
   @Query("""
-      SELECT DISTINCT t FROM Tariff t LEFT JOIN FETCH t.products p
+      SELECT DISTINCT t FROM Tariff t
+      JOIN FETCH t.originCountry
+      JOIN FETCH t.destCountry
+      LEFT JOIN FETCH t.products p
         """)
   List<Tariff> listAll();
 
@@ -49,6 +114,7 @@ public interface TariffRepository extends JpaRepository<Tariff, UUID> {
   //     """)
   @Query("""
     SELECT DISTINCT t FROM Tariff t
+    JOIN FETCH t.originCountry
     JOIN FETCH t.destCountry
     JOIN t.products p
     WHERE t.originCountry.code = :originCountryCode
@@ -1,8 +1,10 @@
 package com.tariff.backend.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.tariff.backend.model.User;
@@ -10,4 +12,13 @@ import com.tariff.backend.model.User;
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
   Optional<User> findByEmail(String email);
+
+  // Only the columns the revocation map needs, no full entities
+  @Query("SELECT u.email AS email, u.tokenGeneration AS tokenGeneration FROM User u")
+  List<TokenGenerationView> findAllTokenGenerations();
+
+  interface TokenGenerationView {
+    String getEmail();
+    long getTokenGeneration();
+  }
 }
@@ -0,0 +1,238 @@
+package com.tariff.backend.service;
+
+import com.tariff.backend.component.PredictionCache;
+import com.tariff.backend.exception.BadRequestException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Many PDFs in one request. Identical files are predicted once. Text extraction runs on a
+// small shared pool (CPU bound, sized to the cores), then every model call (map-reduce
+// chunks and the final call) runs on virtual threads with at most model-concurrency in
+// flight per batch (and the app-wide LlmBulkhead on top). Each document's result is pushed
+// as soon as it is ready, in whatever order they finish. At most extract-queue-capacity
+// documents wait for or are in extraction across all batches, a batch that doesn't fit is
+// turned away whole with a 429.
+@Service
+public class BatchPredictionService {
+
+  private static final Logger log = LoggerFactory.getLogger(BatchPredictionService.class);
+
+  public record Upload(String fileName, byte[] pdfBytes) {}
+
+  // index = position in the upload, duplicateOf = index of the identical file it was answered with
+  public record DocumentResult(int index, String fileName, String prediction, String error, Integer duplicateOf) {}
+
+  private final PredictionService predictionService;
+  private final ThreadPoolExecutor extractPool;
+  private final ExecutorService modelCalls = Executors.newVirtualThreadPerTaskExecutor();
+  private final int modelConcurrency;
+  private final int maxFiles;
+  private final long streamTimeoutMillis;
+  // documents submitted to extractPool and not done extracting, never more than the queue holds
+  private final Semaphore extractSlots;
+  private final long retryAfterSeconds;
+
+  public BatchPredictionService(
+    PredictionService predictionService,
+    @Value("${prediction.batch.max-files:20}") int maxFiles,
+    @Value("${prediction.batch.extract-threads:0}") int extractThreads, // 0 = one per core
+    @Value("${prediction.batch.extract-queue-capacity:100}") int extractQueueCapacity,
+    @Value("${prediction.batch.model-concurrency:4}") int modelConcurrency,
+    @Value("${prediction.batch.stream-timeout-ms:600000}") long streamTimeoutMillis,
+    @Value("${prediction.batch.retry-after-seconds:5}") long retryAfterSeconds
+  ) {
+    this.predictionService = predictionService;
+    this.modelConcurrency = modelConcurrency;
+    this.maxFiles = maxFiles;
+    this.streamTimeoutMillis = streamTimeoutMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+    // a full batch must always fit, or it would be turned away forever
+    int queueCapacity = Math.max(extractQueueCapacity, maxFiles);
+    this.extractSlots = new Semaphore(queueCapacity);
+
+    int poolSize = extractThreads > 0 ? extractThreads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+    this.extractPool = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      runnable -> {
+        Thread thread = new Thread(runnable, "batch-extract-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+  }
+
+  // Copies the uploads on the request thread (multipart temp files go away with the request),
+  // then streams a "result" event per document and a final "done" event with the count
+  public SseEmitter stream(List<MultipartFile> files, String country) {
+    if (files.size() > maxFiles) {
+      throw new BadRequestException("At most " + maxFiles + " files per batch.");
+    }
+    List<Upload> uploads = new ArrayList<>(files.size());
+    for (MultipartFile file : files) {
+      uploads.add(new Upload(file.getOriginalFilename(), predictionService.readPdfBytes(file)));
+    }
+
+    SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+    EventSink sink = new EventSink(emitter);
+    run(uploads, country, sink::result).whenComplete((ignored, error) -> sink.done(uploads.size()));
+    return emitter;
+  }
+
+  // onResult is called once per upload, from whichever thread finished it.
+  // Throws TooManyRequestsException (nothing started) when the extract queue can't take the batch.
+  public CompletableFuture<Void> run(List<Upload> uploads, String country, Consumer<DocumentResult> onResult) {
+    // same bytes => same prediction, keyed like the prediction cache
+    Map<String, List<Integer>> identical = new LinkedHashMap<>();
+    for (int i = 0; i < uploads.size(); i++) {
+      String key = PredictionCache.key(uploads.get(i).pdfBytes(), country, PredictionService.PROMPT_VERSION);
+      identical.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+    }
+
+    // all or nothing, so a client never gets half a batch because the pool filled up
+    if (!extractSlots.tryAcquire(identical.size())) {
+      throw new TooManyRequestsException(
+        "Too many batch predictions are in progress. Please try again shortly.",
+        retryAfterSeconds
+      );
+    }
+
+    Semaphore permits = new Semaphore(modelConcurrency);
+    List<CompletableFuture<?>> documents = new ArrayList<>(identical.size());
+    for (List<Integer> indexes : identical.values()) {
+      byte[] pdfBytes = uploads.get(indexes.get(0)).pdfBytes();
+      documents.add(CompletableFuture
+        .supplyAsync(() -> extract(pdfBytes, country), extractPool)
+        .thenApplyAsync(prepared -> predictionService.complete(prepared, permits), modelCalls)
+        .whenComplete((prediction, error) -> report(uploads, indexes, prediction, error, onResult)));
+    }
+    return CompletableFuture.allOf(documents.toArray(CompletableFuture[]::new)).exceptionally(error -> null);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    extractPool.shutdownNow();
+    modelCalls.shutdownNow();
+  }
+
+  // no model calls in here, those wait for a batch permit on modelCalls
+  private PredictionService.PreparedPrediction extract(byte[] pdfBytes, String country) {
+    try {
+      return predictionService.prepare(pdfBytes, country);
+    } finally {
+      extractSlots.release();
+    }
+  }
+
+  private static void report(
+    List<Upload> uploads,
+    List<Integer> indexes,
+    String prediction,
+    Throwable error,
+    Consumer<DocumentResult> onResult
+  ) {
+    String message = null;
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+      log.warn("Batch prediction for {} failed", uploads.get(indexes.get(0)).fileName(), cause);
+      message = cause.getMessage() == null ? "Prediction failed" : cause.getMessage();
+    }
+    Integer first = indexes.get(0);
+    for (Integer index : indexes) {
+      onResult.accept(new DocumentResult(
+        index,
+        uploads.get(index).fileName(),
+        prediction,
+        message,
+        index.equals(first) ? null : first
+      ));
+    }
+  }
+
+  // Results arrive from several threads at once, SseEmitter wants one writer at a time.
+  // If the client goes away the remaining documents still finish (and land in the cache).
+  // A ReentrantLock rather than synchronized: the senders are virtual threads blocking on the
+  // socket, inside a monitor they would pin their carrier threads on JDK 21.
+  private static final class EventSink {
+    private final SseEmitter emitter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean open = true;
+
+    EventSink(SseEmitter emitter) {
+      this.emitter = emitter;
+      emitter.onTimeout(this::close);
+      emitter.onError(e -> close());
+    }
+
+    void result(DocumentResult result) {
+      lock.lock();
+      try {
+        send(SseEmitter.event().name("result").data(result, MediaType.APPLICATION_JSON));
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void done(int documents) {
+      lock.lock();
+      try {
+        if (send(SseEmitter.event().name("done").data(documents))) {
+          emitter.complete();
+        }
+        open = false;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void close() {
+      lock.lock();
+      try {
+        open = false;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private boolean send(SseEmitter.SseEventBuilder event) {
+      if (!open) {
+        return false;
+      }
+      try {
+        emitter.send(event);
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        open = false;
+        emitter.completeWithError(e);
+        return false;
+      }
+    }
+  }
+}
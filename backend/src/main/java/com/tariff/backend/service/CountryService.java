@@ -10,7 +10,10 @@ import com.tariff.backend.exception.NotFoundException;
 import com.tariff.backend.model.Country;
 import com.tariff.backend.repository.CountryRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.invocations")
 public class CountryService {
 
   private final CountryRepository countryRepository;
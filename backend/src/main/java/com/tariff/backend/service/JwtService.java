@@ -1,10 +1,13 @@
 package com.tariff.backend.service;
 
+import com.tariff.backend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
@@ -14,26 +17,62 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
 public class JwtService {
 
+  // claims carried by stateless tokens
+  public static final String ROLE_CLAIM = "role";
+  public static final String GENERATION_CLAIM = "gen";
+
   @Value("${JWT_SECRET_KEY}")
   private String secretKey;
 
-  @Value("${JWT_EXP_TIME}")
+  // short on purpose, POST /api/users/refresh renews it from the refresh_token cookie
+  @Value("${security.jwt.access-exp-ms:900000}")
   private long jwtExpiration;
 
+  // When on, tokens carry the user's role + token generation and the auth filter
+  // builds the principal from the claims instead of loading the user from the db
+  @Value("${security.jwt.stateless-roles:false}")
+  private boolean statelessRoles;
+
+  // Decoded once at startup, the parser is immutable and thread safe so every request shares it
+  private Key signingKey;
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  public void init() {
+    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+    this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+    this.jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+  }
+
+  // Parses the token and checks signature + expiry in a single pass,
+  // throws the usual jjwt exceptions (ExpiredJwtException, SignatureException...) if invalid
+  // timed through the proxy, so only calls from other beans (JwtAuthFilter) count
+  @Timed(value = "security.jwt.verify", histogram = true)
+  public Claims verifyToken(String token) {
+    return jwtParser.parseClaimsJws(token).getBody();
+  }
+
   public String extractUsername(String token) {
     return extractClaim(token, Claims::getSubject);
   }
 
   public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = extractAllClaims(token);
+    final Claims claims = verifyToken(token);
     return claimsResolver.apply(claims);
   }
 
   public String generateToken(UserDetails userDetails) {
-    return generateToken(new HashMap<>(), userDetails);
+    Map<String, Object> claims = new HashMap<>();
+    if (statelessRoles && userDetails instanceof User user) {
+      claims.put(ROLE_CLAIM, user.getRole().name());
+      claims.put(GENERATION_CLAIM, user.getTokenGeneration());
+    }
+    return generateToken(claims, userDetails);
   }
 
   public String generateToken(
@@ -47,6 +86,27 @@ public class JwtService {
     return jwtExpiration;
   }
 
+  public boolean isStatelessRoles() {
+    return statelessRoles;
+  }
+
+  // True if the token was issued in stateless mode (older tokens fall back to the db lookup)
+  public boolean hasRoleClaims(Claims claims) {
+    return claims.get(ROLE_CLAIM) != null && claims.get(GENERATION_CLAIM) != null;
+  }
+
+  public long extractGeneration(Claims claims) {
+    return ((Number) claims.get(GENERATION_CLAIM)).longValue();
+  }
+
+  // Principal rebuilt from verified claims, never persisted so it has no password
+  public User principalFromClaims(Claims claims) {
+    User.Role role = User.Role.valueOf(claims.get(ROLE_CLAIM, String.class));
+    User user = new User(claims.getSubject(), null, role);
+    user.setTokenGeneration(extractGeneration(claims));
+    return user;
+  }
+
   private String buildToken(
     Map<String, Object> extraClaims,
     UserDetails userDetails,
@@ -57,36 +117,25 @@ public class JwtService {
       .setSubject(userDetails.getUsername())
       .setIssuedAt(new Date(System.currentTimeMillis()))
       .setExpiration(new Date(System.currentTimeMillis() + expiration))
-      .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+      .signWith(signingKey, SignatureAlgorithm.HS256)
       .compact();
   }
 
   public boolean isTokenValid(String token, UserDetails userDetails) {
-    final String username = extractUsername(token);
-    return (
-      (username.equals(userDetails.getUsername())) && !isTokenExpired(token)
-    );
+    return isTokenValid(verifyToken(token), userDetails);
   }
 
-  private boolean isTokenExpired(String token) {
-    return extractExpiration(token).before(new Date());
-  }
-
-  private Date extractExpiration(String token) {
-    return extractClaim(token, Claims::getExpiration);
-  }
-
-  private Claims extractAllClaims(String token) {
-    return Jwts.parserBuilder()
-      .setSigningKey(getSignInKey())
-      .build()
-      .parseClaimsJws(token)
-      .getBody();
+  // Same check as above but on claims that were already verified, so no re-parsing
+  public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+    final String username = claims.getSubject();
+    return (
+      (username != null && username.equals(userDetails.getUsername())) &&
+      !isTokenExpired(claims)
+    );
   }
 
-  // For testing 
-  private Key getSignInKey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
+  private boolean isTokenExpired(Claims claims) {
+    Date expiration = claims.getExpiration();
+    return expiration != null && expiration.before(new Date());
   }
 }
@@ -0,0 +1,165 @@
+package com.tariff.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Brute-force protection for login. Failed attempts are counted per email and per source IP
+// over a sliding window; hitting the limit locks that key out for a backoff that doubles on
+// every repeat lockout (capped). Locked attempts are rejected before the user lookup and
+// bcrypt, so credential stuffing stops costing CPU.
+// Both trackers are bounded Caffeine caches, so spraying random emails/IPs can't grow memory.
+@Service
+public class LoginAttemptService {
+
+  private final Cache<String, FailureRecord> emailFailures;
+  private final Cache<String, FailureRecord> sourceFailures;
+  private final Clock clock;
+
+  private final int maxFailuresPerEmail;
+  private final int maxFailuresPerSource;
+  private final long windowMillis;
+  private final long baseLockoutMillis;
+  private final long maxLockoutMillis;
+
+  @Autowired
+  public LoginAttemptService(
+    @Value("${security.login.max-failures-per-email:5}") int maxFailuresPerEmail,
+    @Value("${security.login.max-failures-per-source:20}") int maxFailuresPerSource,
+    @Value("${security.login.window-seconds:900}") long windowSeconds,
+    @Value("${security.login.lockout-seconds:30}") long lockoutSeconds,
+    @Value("${security.login.max-lockout-seconds:3600}") long maxLockoutSeconds,
+    @Value("${security.login.max-tracked-keys:100000}") long maxTrackedKeys,
+    MeterRegistry meterRegistry
+  ) {
+    this(
+      maxFailuresPerEmail,
+      maxFailuresPerSource,
+      windowSeconds,
+      lockoutSeconds,
+      maxLockoutSeconds,
+      maxTrackedKeys,
+      meterRegistry,
+      Clock.systemUTC()
+    );
+  }
+
+  // clock is swappable for tests
+  LoginAttemptService(
+    int maxFailuresPerEmail,
+    int maxFailuresPerSource,
+    long windowSeconds,
+    long lockoutSeconds,
+    long maxLockoutSeconds,
+    long maxTrackedKeys,
+    MeterRegistry meterRegistry,
+    Clock clock
+  ) {
+    this.maxFailuresPerEmail = maxFailuresPerEmail;
+    this.maxFailuresPerSource = maxFailuresPerSource;
+    this.windowMillis = Duration.ofSeconds(windowSeconds).toMillis();
+    this.baseLockoutMillis = Duration.ofSeconds(lockoutSeconds).toMillis();
+    this.maxLockoutMillis = Duration.ofSeconds(maxLockoutSeconds).toMillis();
+    this.clock = clock;
+
+    // an entry is useless once both its window and the longest lockout are over
+    Duration idle = Duration.ofMillis(Math.max(windowMillis, maxLockoutMillis));
+    this.emailFailures = Caffeine.newBuilder()
+      .maximumSize(maxTrackedKeys)
+      .expireAfterAccess(idle)
+      .recordStats()
+      .build();
+    this.sourceFailures = Caffeine.newBuilder()
+      .maximumSize(maxTrackedKeys)
+      .expireAfterAccess(idle)
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, emailFailures, "login.failures.email");
+    CaffeineCacheMetrics.monitor(meterRegistry, sourceFailures, "login.failures.source");
+  }
+
+  // Throws 429 with Retry-After if either the email or the source is locked out
+  public void checkAllowed(String email, String source) {
+    long now = clock.millis();
+    long waitMillis = Math.max(lockedFor(emailFailures, emailKey(email), now), lockedFor(sourceFailures, source, now));
+    if (waitMillis > 0) {
+      throw new TooManyRequestsException(
+        "Too many failed login attempts. Please try again later.",
+        Math.max(1, (waitMillis + 999) / 1000)
+      );
+    }
+  }
+
+  public void recordFailure(String email, String source) {
+    long now = clock.millis();
+    if (email != null) {
+      emailFailures.get(emailKey(email), key -> new FailureRecord(maxFailuresPerEmail)).recordFailure(now);
+    }
+    if (source != null) {
+      sourceFailures.get(source, key -> new FailureRecord(maxFailuresPerSource)).recordFailure(now);
+    }
+  }
+
+  // Only the email is cleared, one good password must not unlock a whole source
+  public void recordSuccess(String email) {
+    if (email != null) {
+      emailFailures.invalidate(emailKey(email));
+    }
+  }
+
+  // so Alice@x.com and alice@x.com share a counter
+  private static String emailKey(String email) {
+    return email == null ? null : email.toLowerCase(Locale.ROOT);
+  }
+
+  private long lockedFor(Cache<String, FailureRecord> failures, String key, long now) {
+    if (key == null) {
+      return 0;
+    }
+    FailureRecord record = failures.getIfPresent(key);
+    return record == null ? 0 : record.lockedFor(now);
+  }
+
+  // Fixed-size ring of the latest failure times (sliding window) + lockout state,
+  // small enough that max-tracked-keys of them stay cheap
+  private final class FailureRecord {
+    private final long[] failureTimes;
+    private int next;
+    private int lockouts;
+    private long lockedUntil;
+
+    FailureRecord(int maxFailures) {
+      this.failureTimes = new long[Math.max(1, maxFailures)];
+      Arrays.fill(failureTimes, Long.MIN_VALUE);
+    }
+
+    synchronized long lockedFor(long now) {
+      return Math.max(0, lockedUntil - now);
+    }
+
+    synchronized void recordFailure(long now) {
+      failureTimes[next] = now;
+      next = (next + 1) % failureTimes.length;
+
+      // the slot we'd overwrite next is the oldest one, if it's still inside the window
+      // then all maxFailures happened within the window
+      long oldest = failureTimes[next];
+      if (oldest != Long.MIN_VALUE && now - oldest < windowMillis) {
+        long backoff = baseLockoutMillis << Math.min(lockouts, 30);
+        lockedUntil = now + Math.min(backoff, maxLockoutMillis);
+        lockouts++;
+        Arrays.fill(failureTimes, Long.MIN_VALUE);
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.tariff.backend.service;
+
+import com.google.genai.Client;
+import com.tariff.backend.component.LlmBulkhead;
+import com.tariff.backend.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// Map step for long documents: pages are grouped into chunks of at most chunk-chars and each
+// chunk is summarised by the model in parallel (at most `concurrency` calls in flight per
+// document). PredictionService then feeds the chunk summaries, in page order, into the usual
+// three-paragraph prompt as the reduce step. Short documents never come through here.
+@Service
+public class MapReduceSummarizer {
+
+  private final Client geminiClient;
+  private final LlmBulkhead llmBulkhead;
+  private final int chunkChars;
+  private final int concurrency;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public MapReduceSummarizer(
+    Client geminiClient,
+    LlmBulkhead llmBulkhead,
+    @Value("${prediction.map-reduce.chunk-chars:30000}") int chunkChars,
+    @Value("${prediction.map-reduce.concurrency:4}") int concurrency
+  ) {
+    this.geminiClient = geminiClient;
+    this.llmBulkhead = llmBulkhead;
+    this.chunkChars = chunkChars;
+    this.concurrency = concurrency;
+  }
+
+  // fits in one prompt as is
+  public boolean fitsInOneChunk(List<String> pages) {
+    long total = 0;
+    for (String page : pages) {
+      total += page.length();
+    }
+    return total <= chunkChars;
+  }
+
+  // One summary per chunk, same order as the pages
+  public List<String> summarize(List<String> pages, String country) {
+    return summarize(pages, country, null);
+  }
+
+  // modelPermits replaces the per-document concurrency limit, a batch passes its own so chunk
+  // calls count against the batch's model calls in flight
+  public List<String> summarize(List<String> pages, String country, Semaphore modelPermits) {
+    List<String> chunks = chunk(pages, chunkChars);
+    Semaphore permits = modelPermits != null ? modelPermits : new Semaphore(concurrency);
+
+    List<Future<String>> summaries = new ArrayList<>(chunks.size());
+    for (int i = 0; i < chunks.size(); i++) {
+      String prompt = chunkPrompt(chunks.get(i), i + 1, chunks.size(), country);
+      summaries.add(executor.submit(() -> {
+        permits.acquire();
+        try {
+          return llmBulkhead.call("summarize-chunk",
+            () -> geminiClient.models.generateContent(PredictionService.MODEL, prompt, null).text());
+        } finally {
+          permits.release();
+        }
+      }));
+    }
+
+    List<String> results = new ArrayList<>(chunks.size());
+    try {
+      for (Future<String> summary : summaries) {
+        results.add(summary.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      summaries.forEach(summary -> summary.cancel(true));
+      throw new RuntimeException("Interrupted while summarizing the document", e);
+    } catch (ExecutionException e) {
+      // one failed chunk fails the prediction, don't keep paying for the others
+      summaries.forEach(summary -> summary.cancel(true));
+      if (e.getCause() instanceof TooManyRequestsException overloaded) {
+        throw overloaded; // still a 429 for the caller, not a failed document
+      }
+      throw new RuntimeException("Failed to summarize the document", e.getCause());
+    }
+    return results;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  // Consecutive pages packed greedily up to maxChars, a single page longer than that is split
+  static List<String> chunk(List<String> pages, int maxChars) {
+    List<String> chunks = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    for (String page : pages) {
+      if (current.length() > 0 && current.length() + page.length() > maxChars) {
+        chunks.add(current.toString());
+        current.setLength(0);
+      }
+      for (int start = 0; start < page.length(); start += maxChars) {
+        String piece = page.substring(start, Math.min(page.length(), start + maxChars));
+        if (current.length() + piece.length() > maxChars) {
+          chunks.add(current.toString());
+          current.setLength(0);
+        }
+        current.append(piece);
+      }
+    }
+    if (current.length() > 0) {
+      chunks.add(current.toString());
+    }
+    return chunks;
+  }
+
+  private static String chunkPrompt(String chunk, int index, int total, String country) {
+    String focus = country != null && !country.isBlank()
+      ? " Keep anything relevant to " + country + "."
+      : "";
+    return "You are an expert economist and tariff policy analyst. Below is section " + index + " of " + total
+      + " of a longer document. Summarize it in at most 150 words of plain text, keeping every tariff rate, "
+      + "HS/HTS code, product, country and effective date it mentions." + focus
+      + "\n\nSection text (DELIMIT with triple BACKTICKS):\n\n" + chunk;
+  }
+}
@@ -0,0 +1,120 @@
+package com.tariff.backend.service;
+
+import com.tariff.backend.exception.InternalServerErrorException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+// Runs every bcrypt hash/check on a small pool sized to the cores instead of on the
+// request threads, so a login burst can only burn that many cores and can't starve
+// the Tomcat pool for tariff lookups. Anything beyond threads + queue-capacity is
+// rejected straight away with a 429 instead of piling up.
+@Service
+public class PasswordHashingService {
+
+  private final BCryptPasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final long retryAfterSeconds;
+
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejectedCounter;
+
+  public PasswordHashingService(
+    BCryptPasswordEncoder passwordEncoder,
+    @Value("${security.password.hash-threads:0}") int threads, // 0 = one per core
+    @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+    @Value("${security.password.retry-after-seconds:1}") long retryAfterSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.passwordEncoder = passwordEncoder;
+    this.retryAfterSeconds = retryAfterSeconds;
+
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      runnable -> {
+        Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+
+    // time spent hashing only, queue wait is visible through the queue gauge
+    this.encodeTimer = Timer.builder("auth.password.hash")
+      .tag("operation", "encode")
+      .register(meterRegistry);
+    this.matchesTimer = Timer.builder("auth.password.hash")
+      .tag("operation", "matches")
+      .register(meterRegistry);
+    this.rejectedCounter = Counter.builder("auth.password.hash.rejected")
+      .register(meterRegistry);
+    Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size())
+      .register(meterRegistry);
+    Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+      .register(meterRegistry);
+  }
+
+  public String encode(String rawPassword) {
+    return run(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+  }
+
+  public boolean matches(String rawPassword, String encodedPassword) {
+    return run(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+  }
+
+  public int queueDepth() {
+    return executor.getQueue().size();
+  }
+
+  private <T> T run(Callable<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      rejectedCounter.increment();
+      throw new TooManyRequestsException(
+        "Too many login attempts are being processed. Please try again shortly.",
+        retryAfterSeconds
+      );
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InternalServerErrorException("Interrupted while checking the password");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new InternalServerErrorException("Password hashing failed");
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+}
@@ -0,0 +1,265 @@
+package com.tariff.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tariff.backend.exception.NotFoundException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Async mode for predictions: submit() only reads the upload and returns a job id, the PDF
+// parsing + Gemini call run on a virtual thread. Clients follow a job over SSE and get the
+// model output chunk by chunk as the SDK streams it, or poll get() for the text so far.
+// Jobs live in a bounded Caffeine cache and are dropped job-ttl after they were submitted.
+// At most max-in-flight jobs run at once, further submits get a 429 with Retry-After before
+// the upload is even copied, so a burst can't pile up PDFs in memory behind a slow model.
+@Service
+public class PredictionJobService {
+
+  private static final Logger log = LoggerFactory.getLogger(PredictionJobService.class);
+
+  public enum Status {
+    RUNNING,
+    DONE,
+    FAILED,
+  }
+
+  public record JobView(String jobId, Status status, String output, String error) {}
+
+  private final PredictionService predictionService;
+  private final Cache<String, PredictionJob> jobs;
+  // blocking on PDFBox / the HTTP call is cheap on a virtual thread, no pool to size
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+  private final long streamTimeoutMillis;
+  private final Semaphore inFlight;
+  private final int maxInFlight;
+  private final long retryAfterSeconds;
+  private final Counter rejectedCounter;
+
+  public PredictionJobService(
+    PredictionService predictionService,
+    @Value("${prediction.jobs.ttl-seconds:600}") long ttlSeconds,
+    @Value("${prediction.jobs.max-jobs:1000}") long maxJobs,
+    @Value("${prediction.jobs.stream-timeout-ms:120000}") long streamTimeoutMillis,
+    @Value("${prediction.jobs.max-in-flight:32}") int maxInFlight,
+    @Value("${prediction.jobs.retry-after-seconds:5}") long retryAfterSeconds,
+    MeterRegistry meterRegistry
+  ) {
+    this.predictionService = predictionService;
+    this.streamTimeoutMillis = streamTimeoutMillis;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.maxInFlight = maxInFlight;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.jobs = Caffeine.newBuilder()
+      .maximumSize(maxJobs)
+      .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, jobs, "prediction.jobs");
+    this.rejectedCounter = Counter.builder("prediction.jobs.rejected")
+      .register(meterRegistry);
+    Gauge.builder("prediction.jobs.in-flight", this, PredictionJobService::inFlight)
+      .register(meterRegistry);
+  }
+
+  // Runs on the request thread only long enough to copy the upload. The permit is held until
+  // the job finishes, it is released here only if the job never got started.
+  public String submit(MultipartFile file, String country) {
+    if (!inFlight.tryAcquire()) {
+      rejectedCounter.increment();
+      throw new TooManyRequestsException(
+        "Too many prediction jobs are running. Please try again shortly.",
+        retryAfterSeconds
+      );
+    }
+    boolean started = false;
+    try {
+      byte[] pdfBytes = predictionService.readPdfBytes(file);
+      PredictionJob job = new PredictionJob(UUID.randomUUID().toString());
+      jobs.put(job.id, job);
+      executor.execute(() -> run(job, pdfBytes, country));
+      started = true;
+      return job.id;
+    } finally {
+      if (!started) {
+        inFlight.release();
+      }
+    }
+  }
+
+  public int inFlight() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  public JobView get(String jobId) {
+    return find(jobId).view();
+  }
+
+  // Replays what is already there, then pushes "chunk" events until a "done" or "failed" event
+  public SseEmitter stream(String jobId) {
+    PredictionJob job = find(jobId);
+    SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+    emitter.onCompletion(() -> job.unsubscribe(emitter));
+    emitter.onTimeout(() -> job.unsubscribe(emitter));
+    emitter.onError(e -> job.unsubscribe(emitter));
+    job.subscribe(emitter);
+    return emitter;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private PredictionJob find(String jobId) {
+    PredictionJob job = jobs.getIfPresent(jobId);
+    if (job == null) {
+      throw new NotFoundException("Prediction job not found: " + jobId);
+    }
+    return job;
+  }
+
+  private void run(PredictionJob job, byte[] pdfBytes, String country) {
+    try {
+      predictionService.streamPrediction(pdfBytes, country, job::append);
+      job.finish();
+    } catch (RuntimeException e) {
+      log.warn("Prediction job {} failed", job.id, e);
+      job.fail(e.getMessage() == null ? "Prediction failed" : e.getMessage());
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  // Output so far + whoever is listening. Everything goes through the job's lock so a
+  // subscriber never misses or double-receives a chunk between the replay and live events.
+  // A ReentrantLock rather than a monitor: SseEmitter.send blocks on the socket, and a
+  // virtual thread blocked inside synchronized pins its carrier thread on JDK 21.
+  private static final class PredictionJob {
+    private final String id;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final StringBuilder output = new StringBuilder();
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+    private Status status = Status.RUNNING;
+    private String error;
+
+    PredictionJob(String id) {
+      this.id = id;
+    }
+
+    JobView view() {
+      lock.lock();
+      try {
+        return new JobView(id, status, output.toString(), error);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void subscribe(SseEmitter emitter) {
+      lock.lock();
+      try {
+        if (output.length() > 0 && !send(emitter, "chunk", output.toString())) {
+          return;
+        }
+        if (status == Status.RUNNING) {
+          subscribers.add(emitter);
+        } else {
+          sendEnd(emitter);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void unsubscribe(SseEmitter emitter) {
+      lock.lock();
+      try {
+        subscribers.remove(emitter);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void append(String chunk) {
+      lock.lock();
+      try {
+        output.append(chunk);
+        // iterate a copy, emitter callbacks may unsubscribe while we're sending
+        for (SseEmitter emitter : List.copyOf(subscribers)) {
+          if (!send(emitter, "chunk", chunk)) {
+            subscribers.remove(emitter);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void finish() {
+      lock.lock();
+      try {
+        status = Status.DONE;
+        endAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void fail(String message) {
+      lock.lock();
+      try {
+        status = Status.FAILED;
+        error = message;
+        endAll();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void endAll() {
+      List<SseEmitter> listening = List.copyOf(subscribers);
+      subscribers.clear();
+      listening.forEach(this::sendEnd);
+    }
+
+    private void sendEnd(SseEmitter emitter) {
+      boolean sent = status == Status.DONE
+        ? send(emitter, "done", id)
+        : send(emitter, "failed", error);
+      if (sent) {
+        emitter.complete();
+      }
+    }
+
+    // false = the client went away, drop it
+    private static boolean send(SseEmitter emitter, String event, String data) {
+      try {
+        emitter.send(SseEmitter.event().name(event).data(data));
+        return true;
+      } catch (IOException | IllegalStateException e) {
+        emitter.completeWithError(e);
+        return false;
+      }
+    }
+  }
+}
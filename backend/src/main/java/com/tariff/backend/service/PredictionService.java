@@ -2,27 +2,209 @@ package com.tariff.backend.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.google.genai.Client;
+import com.google.genai.ResponseStream;
 import com.google.genai.types.GenerateContentResponse;
+import com.tariff.backend.component.LlmBulkhead;
+import com.tariff.backend.component.NearDuplicateIndex;
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.component.PredictionCache;
+
+import io.micrometer.core.annotation.Timed;
 
 
 @Service
+@Timed("service.invocations")
 public class PredictionService {
-    @Value("${GEMINI_API_KEY}")
-    private String apiKey;
+    static final String MODEL = "gemini-2.5-flash-lite";
+    // part of the cache key, bump it whenever the prompt or MODEL changes so old answers aren't served
+    static final String PROMPT_VERSION = "v2";
+    static final String APPROXIMATE_NOTE =
+            "Note: this analysis was reused from a nearly identical document that was analysed earlier.\n\n";
+
+    // shared singleton from GeminiClientConfig, reuses pooled connections across uploads
+    private final Client geminiClient;
+    private final PredictionCache predictionCache;
+    private final PdfTextExtractor pdfTextExtractor;
+    private final MapReduceSummarizer mapReduceSummarizer;
+    // caps concurrent model calls across all requests, see LlmBulkhead
+    private final LlmBulkhead llmBulkhead;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    // prefix answers reused from a near-duplicate with APPROXIMATE_NOTE
+    private final boolean flagApproximate;
+
+    public PredictionService(
+            Client geminiClient,
+            PredictionCache predictionCache,
+            PdfTextExtractor pdfTextExtractor,
+            MapReduceSummarizer mapReduceSummarizer,
+            LlmBulkhead llmBulkhead,
+            NearDuplicateIndex nearDuplicateIndex,
+            @Value("${prediction.near-duplicate.flag-approximate:true}") boolean flagApproximate) {
+        this.geminiClient = geminiClient;
+        this.predictionCache = predictionCache;
+        this.pdfTextExtractor = pdfTextExtractor;
+        this.mapReduceSummarizer = mapReduceSummarizer;
+        this.llmBulkhead = llmBulkhead;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.flagApproximate = flagApproximate;
+    }
 
-    private static final String MODEL = "gemini-2.5-flash-lite";
+    // Everything before the first model call: cache lookups, PDF text extraction and the
+    // near-duplicate check, no network. answer is set when no model call is needed, otherwise
+    // complete() builds the prompt from pages (map-reduce chunk calls included).
+    public record PreparedPrediction(String cacheKey, String country, long[] signature, List<String> pages, String answer) {}
 
     public String sendPdfToGemini(MultipartFile file, String country) {
-        String extractedText = extractTextFromPdf(file);
+        return complete(prepare(readPdfBytes(file), country));
+    }
+
+    public PreparedPrediction prepare(byte[] pdfBytes, String country) {
+        // same PDF + country + prompt => same answer, skip parsing and the model call
+        String cacheKey = PredictionCache.key(pdfBytes, country, PROMPT_VERSION);
+        String cached = predictionCache.get(cacheKey);
+        if (cached != null) {
+            return new PreparedPrediction(cacheKey, country, null, null, cached);
+        }
+
+        List<String> pages = extractPagesFromPdf(pdfBytes);
+        long[] signature = nearDuplicateIndex.signature(String.join("", pages));
+        String reused = reuseNearDuplicate(country, signature);
+        if (reused != null) {
+            return new PreparedPrediction(cacheKey, country, signature, null, reused);
+        }
+        return new PreparedPrediction(cacheKey, country, signature, pages, null);
+    }
+
+    public String complete(PreparedPrediction prepared) {
+        return complete(prepared, null);
+    }
+
+    // Each model call made here (map-reduce chunks, then the final call) holds one of
+    // modelPermits while it runs, never more than one at a time, so callers sharing the
+    // permits can't deadlock. null = only the app-wide LlmBulkhead applies.
+    public String complete(PreparedPrediction prepared, Semaphore modelPermits) {
+        if (prepared.answer() != null) {
+            return prepared.answer();
+        }
+        String prompt = buildPrompt(prepared.pages(), prepared.country(), modelPermits);
+        String prediction = withPermit(modelPermits, () -> llmBulkhead.call("generate",
+                () -> geminiClient.models.generateContent(MODEL, prompt, null).text()));
+
+        // don't pin empty/blocked responses
+        if (prediction != null && !prediction.isBlank()) {
+            remember(prepared, prediction);
+        }
+        return prediction;
+    }
+
+    // Same as sendPdfToGemini but hands each piece of model output to onChunk as it arrives
+    // (a cache hit is one chunk). Returns the full text. Used by the async prediction jobs.
+    public String streamPrediction(byte[] pdfBytes, String country, Consumer<String> onChunk) {
+        PreparedPrediction prepared = prepare(pdfBytes, country);
+        if (prepared.answer() != null) {
+            onChunk.accept(prepared.answer());
+            return prepared.answer();
+        }
+
+        String prompt = buildPrompt(prepared.pages(), country, null);
+        // the permit is held for the whole stream, that's when the connection is busy
+        String result = llmBulkhead.call("stream", () -> {
+            StringBuilder prediction = new StringBuilder();
+            try (ResponseStream<GenerateContentResponse> stream =
+                         geminiClient.models.generateContentStream(MODEL, prompt, null)) {
+                for (GenerateContentResponse response : stream) {
+                    String chunk = response.text();
+                    if (chunk != null && !chunk.isEmpty()) {
+                        prediction.append(chunk);
+                        onChunk.accept(chunk);
+                    }
+                }
+            }
+            return prediction.toString();
+        });
+
+        if (!result.isBlank()) {
+            remember(prepared, result);
+        }
+        return result;
+    }
+
+    // Multipart temp files are gone once the request ends, async callers need the bytes up front
+    public byte[] readPdfBytes(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to parse PDF file", e);
+        }
+    }
+
+    // A revised notice that is nearly the same text (same country) gets the stored answer of
+    // the earlier version instead of a model call, see NearDuplicateIndex. Null = no such document.
+    private String reuseNearDuplicate(String country, long[] signature) {
+        if (signature == null) {
+            return null;
+        }
+        String similarKey = nearDuplicateIndex.findSimilar(country, signature);
+        // the index can outlive the cached answer, then it's a miss like any other
+        String reused = similarKey == null ? null : predictionCache.get(similarKey);
+        if (reused == null) {
+            return null;
+        }
+        return flagApproximate ? APPROXIMATE_NOTE + reused : reused;
+    }
+
+    private void remember(PreparedPrediction prepared, String prediction) {
+        predictionCache.put(prepared.cacheKey(), prediction);
+        if (prepared.signature() != null) {
+            nearDuplicateIndex.add(prepared.cacheKey(), prepared.country(), prepared.signature());
+        }
+    }
+
+    private static <T> T withPermit(Semaphore permits, Supplier<T> call) {
+        if (permits == null) {
+            return call.get();
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the model", e);
+        }
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Short documents go into the prompt as is. Long ones are summarised chunk by chunk in
+    // parallel first (map) and the final prompt works from those summaries (reduce), so the
+    // prompt stays small and the chunk calls overlap instead of one huge call.
+    private String buildPrompt(List<String> pages, String country, Semaphore modelPermits) {
+        if (mapReduceSummarizer.fitsInOneChunk(pages)) {
+            return buildPrompt("Here is the extracted PDF text (DELIMIT with triple BACKTICKS):\n\n" + String.join("", pages), country);
+        }
 
+        List<String> summaries = mapReduceSummarizer.summarize(pages, country, modelPermits);
+        StringBuilder sections = new StringBuilder(
+                "The document was too long to include in full. Here are summaries of its consecutive sections, in order:\n");
+        for (int i = 0; i < summaries.size(); i++) {
+            sections.append("\nSection ").append(i + 1).append(": ").append(summaries.get(i)).append('\n');
+        }
+        return buildPrompt(sections.toString(), country);
+    }
+
+    private String buildPrompt(String userInstruction, String country) {
         String focusSentence = "Focus the analysis on the likely impacts for ";
         if (country != null && !country.isBlank()) {
             focusSentence += country + ". When discussing effects, speak directly to how consumers, producers, and trade flows in " + country + " will be affected.";
@@ -39,21 +221,13 @@ public class PredictionService {
                 + focusSentence
                 + "\nIf the document contains no tariff-related content, RETURN EXACTLY the following sentence and nothing else: \"This document is irrelevant to tariff predictions, please upload another.\"";
 
-        String userInstruction = "Here is the extracted PDF text (DELIMIT with triple BACKTICKS):\n\n" + extractedText;
-
-        String prompt = systemInstruction + "\n\n" + userInstruction;
-
-        Client client = Client.builder().apiKey(apiKey).build();
-
-        GenerateContentResponse response = client.models.generateContent(MODEL, prompt, null);
-        return response.text();
+        return systemInstruction + "\n\n" + userInstruction;
     }
-           
 
-    private String extractTextFromPdf(MultipartFile file) {
-        try (InputStream inputStream = file.getInputStream(); PDDocument document = PDDocument.load(inputStream)) {
-            PDFTextStripper pdfStripper = new PDFTextStripper();
-            return pdfStripper.getText(document);
+    // page/char budgeted and temp-file backed, see PdfTextExtractor
+    private List<String> extractPagesFromPdf(byte[] pdfBytes) {
+        try {
+            return pdfTextExtractor.extractPages(pdfBytes);
         } catch (IOException e) {
             throw new RuntimeException("Failed to parse PDF file", e);
         }
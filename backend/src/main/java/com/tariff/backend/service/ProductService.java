@@ -11,7 +11,10 @@ import com.tariff.backend.exception.NotFoundException;
 import com.tariff.backend.model.Product;
 import com.tariff.backend.repository.ProductRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.invocations")
 public class ProductService {
 
   private final ProductRepository productRepository;
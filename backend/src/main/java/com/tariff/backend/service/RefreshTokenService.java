@@ -0,0 +1,125 @@
+package com.tariff.backend.service;
+
+import com.tariff.backend.exception.InvalidCredentialsException;
+import com.tariff.backend.model.RefreshToken;
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.RefreshTokenRepository;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+// Long-lived, single-use refresh tokens so access tokens can stay short without making
+// people log in (bcrypt) again. Each refresh deletes the presented token and hands out a
+// new one; a role/password change bumps User.tokenGeneration which kills older tokens.
+@Service
+public class RefreshTokenService {
+
+  private static final int TOKEN_BYTES = 32;
+
+  private final RefreshTokenRepository refreshTokenRepository;
+  private final UserDetailsServiceImpl userDetailsService;
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  @Value("${security.jwt.refresh-exp-ms:604800000}") // 7 days
+  private long refreshExpiration;
+
+  public record Rotation(User user, String refreshToken) {}
+
+  public RefreshTokenService(
+    RefreshTokenRepository refreshTokenRepository,
+    UserDetailsServiceImpl userDetailsService
+  ) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.userDetailsService = userDetailsService;
+  }
+
+  public long getExpirationTime() {
+    return refreshExpiration;
+  }
+
+  // Returns the raw token for the cookie, only its hash is saved
+  public String issue(User user) {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    secureRandom.nextBytes(bytes);
+    String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    refreshTokenRepository.save(new RefreshToken(
+      hash(rawToken),
+      user.getEmail(),
+      user.getTokenGeneration(),
+      Instant.now().plusMillis(refreshExpiration)
+    ));
+    return rawToken;
+  }
+
+  // One indexed lookup + delete, the user normally comes from the principal cache
+  @Transactional(rollbackFor = Exception.class)
+  public Rotation rotate(String rawToken) {
+    if (rawToken == null || rawToken.isBlank()) {
+      throw new InvalidCredentialsException("Missing refresh token.");
+    }
+    String tokenHash = hash(rawToken);
+    RefreshToken stored = refreshTokenRepository.findByTokenHash(tokenHash)
+      .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token."));
+
+    // delete count guards against two requests racing with the same token
+    if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+      throw new InvalidCredentialsException("Invalid refresh token.");
+    }
+    if (stored.getExpiresAt().isBefore(Instant.now())) {
+      throw new InvalidCredentialsException("Refresh token has expired. Please log in again.");
+    }
+
+    User user;
+    try {
+      user = (User) userDetailsService.loadUserByUsername(stored.getUserEmail());
+    } catch (UsernameNotFoundException e) {
+      throw new InvalidCredentialsException("Invalid refresh token.");
+    }
+    if (user.getTokenGeneration() > stored.getTokenGeneration()) {
+      throw new InvalidCredentialsException("Refresh token was revoked. Please log in again.");
+    }
+
+    return new Rotation(user, issue(user));
+  }
+
+  // logout, unknown tokens are ignored
+  @Transactional(rollbackFor = Exception.class)
+  public void revoke(String rawToken) {
+    if (rawToken != null && !rawToken.isBlank()) {
+      refreshTokenRepository.deleteByTokenHash(hash(rawToken));
+    }
+  }
+
+  // Drops every refresh token of the account. The generation check in rotate() is not enough
+  // on its own: an account re-registered with the same email starts again at generation 0
+  @Transactional(rollbackFor = Exception.class)
+  public void revokeAll(String userEmail) {
+    refreshTokenRepository.deleteByUserEmail(userEmail);
+  }
+
+  @Scheduled(fixedDelayString = "${security.jwt.refresh-purge-ms:3600000}")
+  @Transactional(rollbackFor = Exception.class)
+  public void purgeExpired() {
+    refreshTokenRepository.deleteExpired(Instant.now());
+  }
+
+  static String hash(String rawToken) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      // every JVM ships SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,198 @@
+package com.tariff.backend.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.tariff.backend.component.AhoCorasick;
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.repository.CountryRepository;
+import com.tariff.backend.repository.ProductRepository;
+import com.tariff.backend.repository.TariffRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.annotation.Timed;
+
+// Deterministic, model-free pass over a document: finds HTS codes (with the rate written next
+// to them), product and country names, and attaches the stored tariffs for those products.
+// Plain tariff schedules get structured output in milliseconds without a Gemini call.
+// Names are matched with one Aho-Corasick pass built from the Product/Country tables; the
+// dictionary is rebuilt at most every dictionary-ttl-seconds so new products show up.
+@Service
+@Timed("service.invocations")
+public class TariffMentionExtractor {
+
+  // 8473.30 / 8473.30.10 / 8473.30.10.00 or 6-10 plain digits, not part of a longer number
+  private static final Pattern HTS_CODE = Pattern.compile(
+    "(?<![\\d.])(\\d{4}\\.\\d{2}(?:\\.\\d{2}){0,2}|\\d{6}(?:\\d{2}){0,2})(?!\\d|\\.\\d)");
+  private static final Pattern RATE = Pattern.compile(
+    "(\\d{1,3}(?:\\.\\d{1,2})?)\\s*(?:%|percent\\b|per cent\\b)", Pattern.CASE_INSENSITIVE);
+  private static final int HS6 = 6;
+
+  public record CodeMention(String code, Double rate, List<String> productCodes) {}
+
+  public record TariffMentions(
+    List<CodeMention> codes,
+    List<Product> products,
+    List<Country> countries,
+    List<Tariff> tariffs
+  ) {}
+
+  private record Dictionary(
+    AhoCorasick<Product> productNames,
+    AhoCorasick<Country> countryNames,
+    Map<String, List<Product>> productsByHs6
+  ) {}
+
+  private final PdfTextExtractor pdfTextExtractor;
+  private final ProductRepository productRepository;
+  private final CountryRepository countryRepository;
+  private final TariffRepository tariffRepository;
+  private final int maxTariffs;
+  private final LoadingCache<Boolean, Dictionary> dictionary;
+
+  public TariffMentionExtractor(
+    PdfTextExtractor pdfTextExtractor,
+    ProductRepository productRepository,
+    CountryRepository countryRepository,
+    TariffRepository tariffRepository,
+    @Value("${prediction.mentions.dictionary-ttl-seconds:300}") long dictionaryTtlSeconds,
+    @Value("${prediction.mentions.max-tariffs:100}") int maxTariffs
+  ) {
+    this.pdfTextExtractor = pdfTextExtractor;
+    this.productRepository = productRepository;
+    this.countryRepository = countryRepository;
+    this.tariffRepository = tariffRepository;
+    this.maxTariffs = maxTariffs;
+    // single entry, the cache just gives us expiry + one build at a time
+    this.dictionary = Caffeine.newBuilder()
+      .expireAfterWrite(Duration.ofSeconds(dictionaryTtlSeconds))
+      .build(key -> buildDictionary());
+  }
+
+  public TariffMentions extract(byte[] pdfBytes, String country) {
+    try {
+      return extract(pdfTextExtractor.extract(pdfBytes), country);
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to parse PDF file", e);
+    }
+  }
+
+  // country (optional, name or code) narrows the attached tariffs like a country in the text does
+  public TariffMentions extract(String text, String country) {
+    Dictionary dict = dictionary.get(Boolean.TRUE);
+    Map<String, Product> products = new LinkedHashMap<>();
+    Map<String, Country> countries = new LinkedHashMap<>();
+
+    for (AhoCorasick.Match<Product> match : dict.productNames().findAll(text)) {
+      products.putIfAbsent(match.value().getHTS_code(), match.value());
+    }
+
+    List<CodeMention> codes = new ArrayList<>();
+    Matcher code = HTS_CODE.matcher(text);
+    while (code.find()) {
+      List<String> productCodes = new ArrayList<>();
+      for (Product product : productsForCode(dict, code.group(1))) {
+        products.putIfAbsent(product.getHTS_code(), product);
+        productCodes.add(product.getHTS_code());
+      }
+      codes.add(new CodeMention(code.group(1), rateOnSameLine(text, code.end()), productCodes));
+    }
+
+    for (AhoCorasick.Match<Country> match : dict.countryNames().findAll(text)) {
+      countries.putIfAbsent(match.value().getCode(), match.value());
+    }
+    if (country != null && !country.isBlank()) {
+      // the request's country counts even if the document never names it
+      dict.countryNames().findAll(country).forEach(match -> countries.putIfAbsent(match.value().getCode(), match.value()));
+      countryRepository.findById(country.trim()).ifPresent(c -> countries.putIfAbsent(c.getCode(), c));
+    }
+
+    return new TariffMentions(
+      codes,
+      List.copyOf(products.values()),
+      List.copyOf(countries.values()),
+      tariffsFor(products.keySet().stream().toList(), countries.keySet().stream().toList())
+    );
+  }
+
+  private List<Tariff> tariffsFor(List<String> htsCodes, List<String> countryCodes) {
+    if (htsCodes.isEmpty()) {
+      return List.of();
+    }
+    LocalDate today = LocalDate.now();
+    return countryCodes.isEmpty()
+      ? tariffRepository.findActiveByHtsCodes(htsCodes, today, Limit.of(maxTariffs))
+      : tariffRepository.findActiveByHtsCodesAndCountries(htsCodes, countryCodes, today, Limit.of(maxTariffs));
+  }
+
+  // A stored code matches when one is a prefix of the other at HS6 or finer, so the text's
+  // 8473.30.10 finds product 847330 and the text's 8473.30 finds product 8473.30.10
+  private static List<Product> productsForCode(Dictionary dict, String code) {
+    String digits = digitsOf(code);
+    List<Product> candidates = dict.productsByHs6().getOrDefault(digits.substring(0, HS6), List.of());
+    List<Product> matches = new ArrayList<>();
+    for (Product candidate : candidates) {
+      String stored = digitsOf(candidate.getHTS_code());
+      if (stored.startsWith(digits) || digits.startsWith(stored)) {
+        matches.add(candidate);
+      }
+    }
+    return matches;
+  }
+
+  // schedules put the rate in the same row as the code
+  private static Double rateOnSameLine(String text, int from) {
+    int lineEnd = text.indexOf('\n', from);
+    Matcher rate = RATE.matcher(text).region(from, lineEnd < 0 ? text.length() : lineEnd);
+    return rate.find() ? Double.valueOf(rate.group(1)) : null;
+  }
+
+  private Dictionary buildDictionary() {
+    Map<String, Product> productNames = new HashMap<>();
+    Map<String, List<Product>> productsByHs6 = new HashMap<>();
+    for (Product product : productRepository.findAll()) {
+      if (!product.isEnabled() || product.getHTS_code() == null) {
+        continue;
+      }
+      if (product.getName() != null) {
+        productNames.put(product.getName(), product);
+      }
+      String digits = digitsOf(product.getHTS_code());
+      if (digits.length() >= HS6) {
+        productsByHs6.computeIfAbsent(digits.substring(0, HS6), k -> new ArrayList<>()).add(product);
+      }
+    }
+
+    Map<String, Country> countryNames = new HashMap<>();
+    for (Country country : countryRepository.findAll()) {
+      if (country.getName() != null) {
+        countryNames.put(country.getName(), country);
+      }
+    }
+    return new Dictionary(new AhoCorasick<>(productNames), new AhoCorasick<>(countryNames), productsByHs6);
+  }
+
+  private static String digitsOf(String code) {
+    StringBuilder digits = new StringBuilder(code.length());
+    for (int i = 0; i < code.length(); i++) {
+      if (Character.isDigit(code.charAt(i))) {
+        digits.append(code.charAt(i));
+      }
+    }
+    return digits.toString();
+  }
+}
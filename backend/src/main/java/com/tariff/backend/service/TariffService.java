@@ -22,7 +22,10 @@ import com.tariff.backend.repository.TariffRepository;
 
 import jakarta.transaction.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.invocations") // every public method, tagged class + method
 public class TariffService {
   private final TariffRepository tariffs;
   private final ProductRepository products;
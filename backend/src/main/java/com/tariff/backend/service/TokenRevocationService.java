@@ -0,0 +1,129 @@
+package com.tariff.backend.service;
+
+import com.tariff.backend.repository.UserRepository;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+// In-memory generation map used by stateless JWTs (security.jwt.stateless-roles=true).
+// A token is revoked when its "gen" claim is lower than the user's current token generation,
+// so the auth filter can reject old tokens with one map lookup and no database access.
+// Changes made through this instance apply immediately, changes made by other instances
+// (or straight in the db) are picked up by the periodic sync.
+// Tombstones of deleted users are dropped once the longest access token issued before the
+// delete has expired on its own, so deleted emails don't pile up in memory.
+@Service
+public class TokenRevocationService {
+
+  // tombstone for deleted users, every generation is below it
+  static final long REVOKED_ALL = Long.MAX_VALUE;
+
+  private final UserRepository userRepository;
+  private final Map<String, Long> minValidGeneration = new ConcurrentHashMap<>();
+  // email -> when it was tombstoned (epoch millis)
+  private final Map<String, Long> tombstonedAt = new ConcurrentHashMap<>();
+  private final long accessExpirationMs;
+  private final Clock clock;
+
+  @Value("${security.jwt.stateless-roles:false}")
+  private boolean statelessRoles;
+
+  @Autowired
+  public TokenRevocationService(
+    UserRepository userRepository,
+    @Value("${security.jwt.access-exp-ms:900000}") long accessExpirationMs
+  ) {
+    this(userRepository, accessExpirationMs, Clock.systemUTC());
+  }
+
+  // clock is swappable for tests
+  TokenRevocationService(UserRepository userRepository, long accessExpirationMs, Clock clock) {
+    this.userRepository = userRepository;
+    this.accessExpirationMs = accessExpirationMs;
+    this.clock = clock;
+  }
+
+  // O(1), users the map has not seen yet (registered since the last sync) are not revoked
+  public boolean isRevoked(String email, long tokenGeneration) {
+    Long minGeneration = minValidGeneration.get(email);
+    return minGeneration != null && tokenGeneration < minGeneration;
+  }
+
+  // Call after the user's bumped generation has been saved
+  public void revokeBefore(String email, long generation) {
+    minValidGeneration.merge(email, generation, Math::max);
+  }
+
+  public void revokeAll(String email) {
+    minValidGeneration.put(email, REVOKED_ALL);
+    tombstonedAt.put(email, clock.millis());
+  }
+
+  // For (re-)registered accounts, drops a tombstone left by an earlier deleted account
+  public void reset(String email, long generation) {
+    minValidGeneration.put(email, generation);
+    tombstonedAt.remove(email);
+  }
+
+  // first run happens right at startup
+  @Scheduled(fixedDelayString = "${security.jwt.revocation-sync-ms:30000}")
+  public void scheduledSync() {
+    pruneTombstones();
+    // only stateless tokens are checked against the map, no point querying otherwise
+    if (statelessRoles) {
+      sync();
+    }
+  }
+
+  // Every access token of a deleted user was issued before the delete, so once access-exp-ms
+  // has passed they are all expired and the tombstone has nothing left to reject
+  void pruneTombstones() {
+    long cutoff = clock.millis() - accessExpirationMs;
+    tombstonedAt.forEach((email, deletedAt) -> {
+      // conditional removes, a re-registration or a newer delete in between wins
+      if (deletedAt < cutoff && tombstonedAt.remove(email, deletedAt)) {
+        minValidGeneration.remove(email, REVOKED_ALL);
+      }
+    });
+  }
+
+  public void sync() {
+    // snapshot first so entries added while the query runs are not mistaken for deleted users,
+    // and a tombstone set while it runs is not mistaken for a re-registration
+    Map<String, Long> known = new HashMap<>(minValidGeneration);
+    Set<String> existing = new HashSet<>();
+    for (UserRepository.TokenGenerationView row : userRepository.findAllTokenGenerations()) {
+      existing.add(row.getEmail());
+      long generation = minValidGeneration.compute(row.getEmail(), (email, current) -> {
+        if (current == null) {
+          return row.getTokenGeneration();
+        }
+        if (current == REVOKED_ALL) {
+          // tombstoned before the query and the email exists again: the account was re-registered.
+          // Tombstoned after: the row may predate the delete, keep it until the next sync.
+          return Long.valueOf(REVOKED_ALL).equals(known.get(email)) ? row.getTokenGeneration() : REVOKED_ALL;
+        }
+        return Math.max(current, row.getTokenGeneration());
+      });
+      if (generation != REVOKED_ALL) {
+        tombstonedAt.remove(row.getEmail());
+      }
+    }
+
+    // users deleted through another instance
+    for (String email : known.keySet()) {
+      if (!existing.contains(email)) {
+        minValidGeneration.put(email, REVOKED_ALL);
+        // keeps the first sighting, a later sync must not push the expiry back
+        tombstonedAt.putIfAbsent(email, clock.millis());
+      }
+    }
+  }
+}
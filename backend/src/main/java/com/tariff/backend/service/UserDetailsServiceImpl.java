@@ -1,6 +1,14 @@
 package com.tariff.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tariff.backend.model.User;
 import com.tariff.backend.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -11,19 +19,45 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
   private UserRepository userRepository;
 
-  public UserDetailsServiceImpl(UserRepository userRepository) {
+  // email -> user, saves one users table query per authenticated request.
+  // UserService evicts an entry right after it changes the role/password or deletes the user,
+  // the ttl is only a safety net for changes made outside the app (e.g. straight in the db)
+  private final Cache<String, User> userCache;
+
+  public UserDetailsServiceImpl(
+    UserRepository userRepository,
+    @Value("${security.user-cache.max-size:10000}") long maxSize,
+    @Value("${security.user-cache.ttl-seconds:600}") long ttlSeconds,
+    MeterRegistry meterRegistry
+  ) {
     this.userRepository = userRepository;
+    this.userCache = Caffeine.newBuilder()
+      .maximumSize(maxSize)
+      .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+      .recordStats()
+      .build();
+
+    CaffeineCacheMetrics.monitor(meterRegistry, userCache, "users.principals");
   }
 
   // Retrieve user using UserRepository for Spring Security
   @Override
+  @Timed("security.user.load") // includes cache hits, see users.principals for the hit ratio
   public UserDetails loadUserByUsername(String email) {
-    return userRepository
-      .findByEmail(email)
-      .orElseThrow(() ->
-        new UsernameNotFoundException(
-          "We couldn't find an account with that email. Please check your details."
+    // an eviction that races with this load waits for it to finish, so a stale row can't stick
+    return userCache.get(email, key ->
+      userRepository
+        .findByEmail(key)
+        .orElseThrow(() ->
+          new UsernameNotFoundException(
+            "We couldn't find an account with that email. Please check your details."
+          )
         )
-      );
+    );
+  }
+
+  // Must be called after every change to a user's authorities or credentials
+  public void evictUser(String email) {
+    userCache.invalidate(email);
   }
 }
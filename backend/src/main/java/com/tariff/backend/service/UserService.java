@@ -8,19 +8,22 @@ import com.tariff.backend.repository.UserRepository;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.invocations")
 public class UserService {
 
   private final UserRepository userRepository;
-  private final BCryptPasswordEncoder passwordEncoder;
-  private final AuthenticationManager authenticationManager;
+  private final PasswordHashingService passwordHashingService;
+  private final UserDetailsServiceImpl userDetailsService;
+  private final TokenRevocationService tokenRevocationService;
+  private final LoginAttemptService loginAttemptService;
+  private final RefreshTokenService refreshTokenService;
 
   @Value("${security.password.min-length:8}") // Default to 8 if property is missing
   private int minPwdLength;
@@ -30,12 +33,18 @@ public class UserService {
 
   public UserService(
     UserRepository userRepository,
-    BCryptPasswordEncoder passwordEncoder,
-    AuthenticationManager authenticationManager
+    PasswordHashingService passwordHashingService,
+    UserDetailsServiceImpl userDetailsService,
+    TokenRevocationService tokenRevocationService,
+    LoginAttemptService loginAttemptService,
+    RefreshTokenService refreshTokenService
   ) {
     this.userRepository = userRepository;
-    this.passwordEncoder = passwordEncoder;
-    this.authenticationManager = authenticationManager;
+    this.passwordHashingService = passwordHashingService;
+    this.userDetailsService = userDetailsService;
+    this.tokenRevocationService = tokenRevocationService;
+    this.loginAttemptService = loginAttemptService;
+    this.refreshTokenService = refreshTokenService;
   }
 
   // Helper Functions
@@ -44,17 +53,25 @@ public class UserService {
   }
 
   private String hashPassword(String password) {
-    return passwordEncoder.encode(password);
+    return passwordHashingService.encode(password);
   }
 
   private void checkPasswordMatch(String rawPassword, String storedPassword) {
-    if (!passwordEncoder.matches(rawPassword, storedPassword)) {
+    if (!passwordHashingService.matches(rawPassword, storedPassword)) {
       throw new InvalidCredentialsException(
         "Invalid password. Please try again."
       );
     }
   }
 
+  // Call after saving a role/password change: drops the cached principal and
+  // revokes every token issued before the user's new token generation
+  private void invalidateSessions(User user) {
+    userDetailsService.evictUser(user.getEmail());
+    tokenRevocationService.revokeBefore(user.getEmail(), user.getTokenGeneration());
+    refreshTokenService.revokeAll(user.getEmail());
+  }
+
   private User findUserByEmailOrThrow(String email) {
       // Check if user already exists
       return userRepository.findByEmail(email)
@@ -97,24 +114,30 @@ public class UserService {
       hashPassword(addUserDto.password()),
             null
     );
-    return userRepository.save(newUser);
+    User saved = userRepository.save(newUser);
+    tokenRevocationService.reset(newUser.getEmail(), newUser.getTokenGeneration());
+    return saved;
   }
 
   @Transactional(rollbackFor = Exception.class)
-  public User loginUser(UserRequestDTO.LoginDto loginDto) {
-    User user = findUserByEmailOrThrow(loginDto.email());
-
-    // Decode password to check if ok
-    checkPasswordMatch(loginDto.password(), user.getPassword());
-
-    // Authenticate Manager
-    authenticationManager.authenticate(
-      new UsernamePasswordAuthenticationToken(
-        loginDto.email(),
-        loginDto.password()
-      )
-    );
+  public User loginUser(UserRequestDTO.LoginDto loginDto, String source) {
+    // locked out email/source gets a 429 here, before any db lookup or bcrypt
+    loginAttemptService.checkAllowed(loginDto.email(), source);
+
+    User user;
+    try {
+      user = findUserByEmailOrThrow(loginDto.email());
+
+      // The only bcrypt check on login. We used to also go through authenticationManager.authenticate,
+      // but DaoAuthenticationProvider just reloads the same user and runs bcrypt a second time
+      // (our User has no locked/expired/disabled states for it to check)
+      checkPasswordMatch(loginDto.password(), user.getPassword());
+    } catch (UsernameNotFoundException | InvalidCredentialsException e) {
+      loginAttemptService.recordFailure(loginDto.email(), source);
+      throw e;
+    }
 
+    loginAttemptService.recordSuccess(loginDto.email());
     return user;
   }
 
@@ -128,7 +151,11 @@ public class UserService {
     checkPasswordStrength(updatePasswordDto.newPassword());
 
     user.setPassword(hashPassword(updatePasswordDto.newPassword()));
-    return userRepository.save(user);
+    user.bumpTokenGeneration();
+    User saved = userRepository.save(user);
+    // after the save so the next request reloads the new hash
+    invalidateSessions(user);
+    return saved;
   }
 
   // public User updateEmail(UserRequestDTO.UpdateEmailDto updateEmailDto) {
@@ -145,18 +172,36 @@ public class UserService {
   public User deleteUser(UserRequestDTO.DeleteUserDto deleteUserDto) {
       User user = findUserByEmailOrThrow(deleteUserDto.email());
       userRepository.delete(user);
+      userDetailsService.evictUser(user.getEmail());
+      tokenRevocationService.revokeAll(user.getEmail());
+      refreshTokenService.revokeAll(user.getEmail());
       return user;
   }
 
   public User upgradeRole(UserRequestDTO.UpdateUserRoleDto updateUserRoleDto) {
       User user = findUserByEmailOrThrow(updateUserRoleDto.email());
+      User.Role before = user.getRole();
       user.upgradeRole();
-      return userRepository.save(user);
+      if (user.getRole() == before) {
+          // already an admin (or super admin): keep the sessions, nothing about them changed
+          return user;
+      }
+      user.bumpTokenGeneration();
+      User saved = userRepository.save(user);
+      invalidateSessions(user);
+      return saved;
   }
 
     public User downgradeRole(UserRequestDTO.UpdateUserRoleDto updateUserRoleDto) {
         User user = findUserByEmailOrThrow(updateUserRoleDto.email());
+        User.Role before = user.getRole();
         user.downgradeRole();
-        return userRepository.save(user);
+        if (user.getRole() == before) {
+            return user;
+        }
+        user.bumpTokenGeneration();
+        User saved = userRepository.save(user);
+        invalidateSessions(user);
+        return saved;
     }
 }
@@ -0,0 +1,123 @@
+package com.tariff.backend;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.tariff.backend.component.JwtAuthFilter;
+import com.tariff.backend.component.MetricsScrapeFilter;
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.component.RateLimitFilter;
+import com.tariff.backend.model.User;
+import com.tariff.backend.service.CountryService;
+import com.tariff.backend.service.JwtService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// The timers behind /actuator/prometheus, with the same annotation switch as application.properties,
+// and the scrape itself with the static token a Prometheus job is configured with
+@SpringBootTest(properties = {
+  "management.observations.annotations.enabled=true",
+  "security.metrics.scrape-token=" + BackendMetricsTests.SCRAPE_TOKEN,
+  "security.rate-limit.routes=POST /api/predict=10/60"
+})
+class BackendMetricsTests {
+
+  static final String SCRAPE_TOKEN = "test-scrape-token";
+
+  @Autowired
+  private WebApplicationContext context;
+
+  @Autowired
+  private MetricsScrapeFilter metricsScrapeFilter;
+
+  @Autowired
+  private JwtAuthFilter jwtAuthFilter;
+
+  @Autowired
+  private RateLimitFilter rateLimitFilter;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private CountryService countryService;
+
+  @Autowired
+  private JwtService jwtService;
+
+  @Autowired
+  private PdfTextExtractor pdfTextExtractor;
+
+  @Test
+  void serviceAndRepositoryCallsShouldBeTimed() {
+    countryService.getAllCountries();
+
+    assertThat(meterRegistry.get("service.invocations").tag("method", "getAllCountries").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("spring.data.repository.invocations")
+      .tag("repository", "CountryRepository").tag("method", "findAll").timer().count()).isPositive();
+  }
+
+  @Test
+  void jwtVerificationAndPdfExtractionShouldBeTimed() throws Exception {
+    String token = jwtService.generateToken(new User("metrics@test.com", "hash", User.Role.USER));
+    jwtService.verifyToken(token);
+
+    byte[] pdf;
+    try (PDDocument document = new PDDocument()) {
+      document.addPage(new PDPage());
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      document.save(out);
+      pdf = out.toByteArray();
+    }
+    pdfTextExtractor.extract(pdf);
+
+    assertThat(meterRegistry.get("security.jwt.verify").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("pdf.extract").tag("method", "extract").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void securityFiltersShouldBeTimed() throws Exception {
+    MockHttpServletRequest me = new MockHttpServletRequest("GET", "/api/users/me");
+    jwtAuthFilter.doFilter(me, new MockHttpServletResponse(), new MockFilterChain());
+    MockHttpServletRequest predict = new MockHttpServletRequest("POST", "/api/predict");
+    predict.setRemoteAddr("10.1.2.3");
+    rateLimitFilter.doFilter(predict, new MockHttpServletResponse(), new MockFilterChain());
+
+    assertThat(meterRegistry.get("http.filter.jwt_auth").timer().count()).isPositive();
+    assertThat(meterRegistry.get("http.filter.rate_limit").timer().count()).isPositive();
+  }
+
+  @Test
+  void connectionPoolShouldBeMonitored() {
+    assertThat(meterRegistry.get("hikaricp.connections.max").gauge().value()).isPositive();
+  }
+
+  @Test
+  void scrapeShouldWorkWithTheStaticTokenAndNothingElse() throws Exception {
+    countryService.getAllCountries();
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(metricsScrapeFilter).build();
+
+    mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + SCRAPE_TOKEN))
+      .andExpect(status().isOk())
+      .andExpect(content().string(containsString("service_invocations_seconds_count")));
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer wrong")).andExpect(status().isUnauthorized());
+  }
+}
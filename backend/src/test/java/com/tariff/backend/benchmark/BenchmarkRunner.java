@@ -0,0 +1,29 @@
+package com.tariff.backend.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Entry point for the JMH benchmarks, these are NOT picked up by surefire (no *Test suffix).
+// Run from the backend folder through the benchmark profile, optionally with a regex to pick benchmarks:
+//   ./mvnw -Pbenchmark test-compile exec:exec -Dbenchmark.include=TariffService
+// Results are also written as JSON (default target/jmh-result.json, -Djmh.result=... to change)
+// and every benchmark runs with the GC profiler, so gc.alloc.rate.norm (bytes per op) is in there.
+public class BenchmarkRunner {
+
+  public static void main(String[] args) throws RunnerException {
+    String include = args.length > 0 ? args[0] : "com.tariff.backend.benchmark.*";
+
+    Options options = new OptionsBuilder()
+      .include(include)
+      .addProfiler(GCProfiler.class)
+      .resultFormat(ResultFormatType.JSON)
+      .result(System.getProperty("jmh.result", "target/jmh-result.json"))
+      .build();
+
+    new Runner(options).run();
+  }
+}
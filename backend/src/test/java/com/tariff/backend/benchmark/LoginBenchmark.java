@@ -0,0 +1,95 @@
+package com.tariff.backend.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.tariff.backend.dto.UserRequestDTO;
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.UserRepository;
+import com.tariff.backend.service.LoginAttemptService;
+import com.tariff.backend.service.PasswordHashingService;
+import com.tariff.backend.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Login throughput with several concurrent callers, bcrypt dominates so this is basically
+// "how many hashes per login". legacyDoubleBcrypt is the old flow (matches + authenticationManager),
+// singleBcrypt goes through the current UserService.loginUser (bcrypt on the hashing pool)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+  private static final String EMAIL = "bench@user.com";
+  private static final String PASSWORD = "Password1";
+
+  private BCryptPasswordEncoder passwordEncoder;
+  private DaoAuthenticationProvider authenticationProvider;
+  private PasswordHashingService passwordHashingService;
+  private UserService userService;
+  private User user;
+  private UserRequestDTO.LoginDto loginDto;
+
+  @Setup
+  public void setUp() {
+    // same default strength as ApplicationConfig
+    passwordEncoder = new BCryptPasswordEncoder();
+    user = new User(EMAIL, passwordEncoder.encode(PASSWORD), null);
+    loginDto = new UserRequestDTO.LoginDto(EMAIL, PASSWORD);
+
+    authenticationProvider = new DaoAuthenticationProvider(email -> user);
+    authenticationProvider.setPasswordEncoder(passwordEncoder);
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+    passwordHashingService = new PasswordHashingService(passwordEncoder, 0, 64, 1, new SimpleMeterRegistry());
+    // limits high enough that the benchmark never locks itself out
+    LoginAttemptService loginAttemptService = new LoginAttemptService(
+      1000, 1000, 60, 1, 1, 1000, new SimpleMeterRegistry()
+    );
+    userService = new UserService(userRepository, passwordHashingService, null, null, loginAttemptService, null);
+  }
+
+  @TearDown
+  public void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Benchmark
+  public Object legacyDoubleBcrypt() {
+    if (!passwordEncoder.matches(PASSWORD, user.getPassword())) {
+      throw new IllegalStateException();
+    }
+    return authenticationProvider.authenticate(
+      new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD)
+    );
+  }
+
+  @Benchmark
+  public User singleBcrypt() {
+    return userService.loginUser(loginDto, "10.0.0.1");
+  }
+}
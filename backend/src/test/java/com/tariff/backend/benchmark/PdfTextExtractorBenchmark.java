@@ -0,0 +1,84 @@
+package com.tariff.backend.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tariff.backend.component.PdfTextExtractor;
+
+// Text extraction of an uploaded notice (what PredictionService.extractTextFromPdf used to do,
+// now PdfTextExtractor with the default 50 page / 200k char budget). 5 pages is a typical notice,
+// 50 is the budget limit, 200 shows that pages past the budget cost (almost) nothing.
+// Look at gc.alloc.rate.norm as well, PDFBox allocates a lot per page.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfTextExtractorBenchmark {
+
+  private static final int LINES_PER_PAGE = 45;
+
+  @Param({ "5", "50", "200" })
+  public int pages;
+
+  private PdfTextExtractor pdfTextExtractor;
+  private byte[] pdf;
+
+  @Setup
+  public void setUp() throws IOException {
+    pdfTextExtractor = new PdfTextExtractor(50, 200_000, 1_048_576);
+    pdf = createPdf(pages);
+  }
+
+  @Benchmark
+  public String extract() throws IOException {
+    return pdfTextExtractor.extract(pdf);
+  }
+
+  @Benchmark
+  public List<String> extractPages() throws IOException {
+    return pdfTextExtractor.extractPages(pdf);
+  }
+
+  private static byte[] createPdf(int pages) throws IOException {
+    try (PDDocument document = new PDDocument()) {
+      for (int page = 1; page <= pages; page++) {
+        PDPage pdPage = new PDPage();
+        document.addPage(pdPage);
+        try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+          content.beginText();
+          content.setFont(PDType1Font.HELVETICA, 9);
+          content.setLeading(15);
+          content.newLineAtOffset(40, 750);
+          for (int line = 1; line <= LINES_PER_PAGE; line++) {
+            content.showText("Page " + page + " line " + line + " tariff rate on HS code 8703 rises to 25 percent ad valorem");
+            content.newLine();
+          }
+          content.endText();
+        }
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      document.save(out);
+      return out.toByteArray();
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.tariff.backend.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.tariff.backend.component.RateLimitFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+// Overhead the rate limiter adds to a request. Limits are huge so nothing gets rejected,
+// this only measures route matching + bucket lookup + CAS. noFilter is the empty chain baseline.
+// Add -t <n> to see several threads hitting the same bucket.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimitFilterBenchmark {
+
+  private static final FilterChain NOOP_CHAIN = (request, response) -> {};
+
+  // a limited route and one that only goes through route matching
+  @Param({ "POST /api/tariffs/particular-tariff-rate", "GET /api/tariffs/valid-destinations" })
+  public String request;
+
+  private RateLimitFilter rateLimitFilter;
+
+  // requests are mutable (attributes), so each thread gets its own, the bucket is shared
+  @State(Scope.Thread)
+  public static class ThreadRequest {
+    MockHttpServletRequest servletRequest;
+    MockHttpServletResponse servletResponse;
+
+    @Setup
+    public void setUp(RateLimitFilterBenchmark benchmark) {
+      String[] parts = benchmark.request.split(" ");
+      servletRequest = new MockHttpServletRequest(parts[0], parts[1]);
+      servletRequest.setRemoteAddr("10.0.0.1");
+      servletResponse = new MockHttpServletResponse();
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    rateLimitFilter = new RateLimitFilter(
+      "POST /api/users/login=1000000000/1,POST /api/tariffs/particular-tariff-rate=1000000000/1,POST /api/predict=1000000000/1",
+      100000,
+      600,
+      new SimpleMeterRegistry(),
+      (req, res, handler, ex) -> null
+    );
+  }
+
+  @Benchmark
+  public void noFilter(ThreadRequest state) throws Exception {
+    NOOP_CHAIN.doFilter(state.servletRequest, state.servletResponse);
+  }
+
+  @Benchmark
+  public void rateLimitFilter(ThreadRequest state) throws Exception {
+    // OncePerRequestFilter marks the request, clear it so every call runs the filter
+    state.servletRequest.removeAttribute(RateLimitFilter.class.getName() + ".FILTERED");
+    rateLimitFilter.doFilter(state.servletRequest, state.servletResponse, NOOP_CHAIN);
+  }
+}
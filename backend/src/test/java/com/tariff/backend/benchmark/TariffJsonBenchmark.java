@@ -0,0 +1,60 @@
+package com.tariff.backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tariff.backend.component.SyntheticTariffData;
+import com.tariff.backend.model.Tariff;
+
+// Jackson cost of the tariff list endpoints (GET /api/tariffs and friends return List<Tariff>
+// with countries and products inlined). Mapper is set up the way Spring Boot configures it
+// (java.time module, ISO dates). Sizes: one page, a country's worth, the whole table.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TariffJsonBenchmark {
+
+  @Param({ "100", "1000", "10000" })
+  public int tariffCount;
+
+  private ObjectMapper objectMapper;
+  private List<Tariff> tariffs;
+
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper()
+      .findAndRegisterModules()
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    tariffs = new ArrayList<>(tariffCount);
+    new SyntheticTariffData(new SyntheticTariffData.Spec(42, 200, 50, 200, 1988, 2024)).forEachTariff(tariff -> {
+      if (tariffs.size() < tariffCount) {
+        tariffs.add(tariff);
+      }
+    });
+  }
+
+  @Benchmark
+  public byte[] serializeTariffList() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(tariffs);
+  }
+}
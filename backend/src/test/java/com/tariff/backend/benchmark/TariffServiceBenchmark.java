@@ -0,0 +1,102 @@
+package com.tariff.backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tariff.backend.BackendApplication;
+import com.tariff.backend.component.SyntheticDataLoader;
+import com.tariff.backend.component.SyntheticTariffData;
+import com.tariff.backend.dto.ParticularTariffDTO;
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.service.TariffService;
+
+// The two tariff lookups the calculator hits on every use, through the real service,
+// repositories and Hibernate against the in-memory H2 from the test properties.
+// The app context is started once per fork and seeded through SyntheticDataLoader.
+// Lookups cycle through keys that all hit, each inside one tariff's validity period.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TariffServiceBenchmark {
+
+  // 200 countries, 50 products on 200 routes each, histories since 1988: ~30k tariffs
+  private static final SyntheticTariffData.Spec SPEC = new SyntheticTariffData.Spec(42, 200, 50, 200, 1988, 2024);
+  private static final int LOOKUPS = 1024; // power of two, see next()
+
+  private ConfigurableApplicationContext context;
+  private TariffService tariffService;
+  private ParticularTariffDTO[] particularTariffLookups;
+  private String[][] validDestinationLookups;
+  private int cursor;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = new SpringApplicationBuilder(BackendApplication.class)
+      .properties("server.port=0", "logging.level.root=WARN")
+      .run();
+    tariffService = context.getBean(TariffService.class);
+
+    SyntheticTariffData data = new SyntheticTariffData(SPEC);
+    context.getBean(SyntheticDataLoader.class).load(data);
+    List<Tariff> tariffs = new ArrayList<>();
+    data.forEachTariff(tariffs::add);
+
+    particularTariffLookups = new ParticularTariffDTO[LOOKUPS];
+    validDestinationLookups = new String[LOOKUPS][];
+    int step = tariffs.size() / LOOKUPS;
+    for (int i = 0; i < LOOKUPS; i++) {
+      Tariff tariff = tariffs.get(i * step);
+      Product product = tariff.getProducts().iterator().next();
+
+      ParticularTariffDTO dto = new ParticularTariffDTO();
+      dto.setProductName(product.getName());
+      dto.setOriginCountry(tariff.getOriginCountry().getCode());
+      dto.setDestCountry(tariff.getDestCountry().getCode());
+      dto.setDate(tariff.getEffectiveDate().plusDays(180));
+      particularTariffLookups[i] = dto;
+      validDestinationLookups[i] = new String[] { tariff.getOriginCountry().getCode(), product.getName() };
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Tariff getParticularTariff() {
+    return tariffService.getParticularTariff(particularTariffLookups[next()]);
+  }
+
+  @Benchmark
+  public List<Country> getValidDestCountriesForProductAndOrigin() {
+    String[] lookup = validDestinationLookups[next()];
+    return tariffService.getValidDestCountriesForProductAndOrigin(lookup[0], lookup[1]);
+  }
+
+  // single threaded benchmarks, a plain field is enough
+  private int next() {
+    return cursor++ & (LOOKUPS - 1);
+  }
+}
@@ -0,0 +1,59 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class AhoCorasickTest {
+
+  @Test
+  void shouldFindEveryKeywordCaseInsensitively() {
+    AhoCorasick<String> matcher = new AhoCorasick<>(Map.of("China", "CN", "Japan", "JP", "Viet Nam", "VN"));
+
+    List<AhoCorasick.Match<String>> matches = matcher.findAll("Imports from CHINA, japan and Viet Nam.");
+
+    assertThat(matches).extracting(AhoCorasick.Match::value).containsExactly("CN", "JP", "VN");
+    assertThat(matches.get(0).text()).isEqualTo("CHINA");
+    assertThat(matches.get(2).start()).isEqualTo(30);
+  }
+
+  @Test
+  void shouldOnlyMatchWholeWords() {
+    AhoCorasick<String> matcher = new AhoCorasick<>(Map.of("oman", "OM", "india", "IN"));
+
+    assertThat(matcher.findAll("Romania and Indiana")).isEmpty();
+    assertThat(matcher.findAll("Oman/India")).extracting(AhoCorasick.Match::value).containsExactly("OM", "IN");
+  }
+
+  @Test
+  void shouldPreferTheLongestOverlappingKeyword() {
+    AhoCorasick<String> matcher = new AhoCorasick<>(Map.of(
+      "United States", "US",
+      "States", "STATES",
+      "United Kingdom", "GB"
+    ));
+
+    assertThat(matcher.findAll("the United States and the United Kingdom"))
+      .extracting(AhoCorasick.Match::value)
+      .containsExactly("US", "GB");
+  }
+
+  @Test
+  void shouldKeepTheLeftmostWhenMatchesOverlapPartially() {
+    AhoCorasick<String> matcher = new AhoCorasick<>(Map.of("steel pipe", "A", "pipe fittings", "B"));
+
+    assertThat(matcher.findAll("steel pipe fittings")).extracting(AhoCorasick.Match::value).containsExactly("A");
+  }
+
+  @Test
+  void shouldFollowFailLinksIntoShorterKeywords() {
+    // "new york" is a dead end on the "new york city" branch, "york" is only reachable via fail links
+    AhoCorasick<String> matcher = new AhoCorasick<>(Map.of("new york city", "NYC", "york", "YORK"));
+
+    assertThat(matcher.findAll("flights to new york today")).extracting(AhoCorasick.Match::value).containsExactly("YORK");
+    assertThat(matcher.findAll("new york city")).extracting(AhoCorasick.Match::value).containsExactly("NYC");
+    assertThat(matcher.size()).isEqualTo(2);
+  }
+}
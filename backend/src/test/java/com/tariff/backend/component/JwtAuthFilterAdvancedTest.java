@@ -9,14 +9,18 @@ import java.io.IOException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
+import com.tariff.backend.config.RoutePolicy;
 import com.tariff.backend.service.JwtService;
+import com.tariff.backend.service.TokenRevocationService;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -45,15 +49,32 @@ public class JwtAuthFilterAdvancedTest {
     @Mock
     private UserDetails userDetails;
 
+    @Mock
+    private Claims claims;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
     @Mock
     private org.springframework.web.servlet.HandlerExceptionResolver handlerExceptionResolver;
 
-    @InjectMocks
     private JwtAuthFilter jwtAuthFilter;
 
     @BeforeEach
     void setUp() {
         SecurityContextHolder.clearContext();
+        jwtAuthFilter = new JwtAuthFilter(
+            jwtService,
+            userDetailsService,
+            verifiedTokenCache,
+            tokenRevocationService,
+            new RoutePolicy(),
+            new SimpleMeterRegistry(),
+            handlerExceptionResolver
+        );
     }
 
     @Test
@@ -64,9 +85,10 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("preferences", "dark_mode")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("valid.jwt.token")).thenReturn("testuser");
+        when(jwtService.verifyToken("valid.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("valid.jwt.token", userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -80,7 +102,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("")).thenReturn(null);
+        when(jwtService.verifyToken("")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(null);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -94,7 +117,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "   ")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("   ")).thenReturn(null);
+        when(jwtService.verifyToken("   ")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(null);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -108,7 +132,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "invalid.jwt.token")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("invalid.jwt.token")).thenReturn(null);
+        when(jwtService.verifyToken("invalid.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(null);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -123,7 +148,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "invalid.jwt.token")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("invalid.jwt.token")).thenReturn("");
+        when(jwtService.verifyToken("invalid.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("");
         // Empty string is not null, so loadUserByUsername will be called
         when(userDetailsService.loadUserByUsername("")).thenThrow(new RuntimeException("User not found"));
 
@@ -140,7 +166,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "valid.jwt.token")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("valid.jwt.token")).thenReturn("testuser");
+        when(jwtService.verifyToken("valid.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
         when(userDetailsService.loadUserByUsername("testuser"))
             .thenThrow(new RuntimeException("User not found"));
 
@@ -158,9 +185,10 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "expired.jwt.token")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("expired.jwt.token")).thenReturn("testuser");
+        when(jwtService.verifyToken("expired.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("expired.jwt.token", userDetails)).thenReturn(false);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(false);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -181,7 +209,8 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "valid.jwt.token")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("valid.jwt.token")).thenReturn("testuser");
+        when(jwtService.verifyToken("valid.jwt.token")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -196,9 +225,10 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", "token.with.special!@#$%^&*()chars")
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername("token.with.special!@#$%^&*()chars")).thenReturn("testuser");
+        when(jwtService.verifyToken("token.with.special!@#$%^&*()chars")).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtService.isTokenValid("token.with.special!@#$%^&*()chars", userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -213,9 +243,10 @@ public class JwtAuthFilterAdvancedTest {
             new Cookie("auth_token", longToken)
         };
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername(longToken)).thenReturn("testuser");
+        when(jwtService.verifyToken(longToken)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("testuser");
         when(userDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
-        when(jwtService.isTokenValid(longToken, userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
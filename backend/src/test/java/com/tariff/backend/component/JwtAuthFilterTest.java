@@ -1,6 +1,12 @@
 package com.tariff.backend.component;
 
+import com.tariff.backend.config.RoutePolicy;
 import com.tariff.backend.service.JwtService;
+import com.tariff.backend.service.TokenRevocationService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.MalformedJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -9,7 +15,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,6 +26,7 @@ import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -48,12 +54,44 @@ public class JwtAuthFilterTest {
     @Mock
     private UserDetails userDetails;
 
-    @InjectMocks
+    @Mock
+    private Claims claims;
+
+    @Mock
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private JwtAuthFilter jwtAuthFilter;
 
     @BeforeEach
     public void setUp() {
         SecurityContextHolder.clearContext();
+        meterRegistry = new SimpleMeterRegistry();
+        jwtAuthFilter = new JwtAuthFilter(
+            jwtService,
+            userDetailsService,
+            verifiedTokenCache,
+            tokenRevocationService,
+            new RoutePolicy(),
+            meterRegistry,
+            handlerExceptionResolver
+        );
+    }
+
+    @Test
+    public void doFilterInternal_shouldTimeItsOwnWorkOnEveryPath() throws ServletException, IOException {
+        when(request.getCookies()).thenReturn(null);
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        when(request.getCookies()).thenReturn(new Cookie[] {new Cookie("auth_token", "bad-token")});
+        when(jwtService.verifyToken("bad-token")).thenThrow(new MalformedJwtException("bad"));
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertEquals(2, meterRegistry.get("http.filter.jwt_auth").timer().count());
     }
 
     @Test
@@ -65,16 +103,17 @@ public class JwtAuthFilterTest {
         Cookie[] cookies = {authCookie};
 
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(userEmail);
         when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(token, userDetails)).thenReturn(true);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
         verify(userDetailsService).loadUserByUsername(userEmail);
-        verify(jwtService).isTokenValid(token, userDetails);
+        verify(jwtService).isTokenValid(claims, userDetails);
     }
 
     @Test
@@ -85,7 +124,7 @@ public class JwtAuthFilterTest {
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).verifyToken(any());
     }
 
     @Test
@@ -99,7 +138,7 @@ public class JwtAuthFilterTest {
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).verifyToken(any());
     }
 
     @Test
@@ -111,15 +150,16 @@ public class JwtAuthFilterTest {
         Cookie[] cookies = {authCookie};
 
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(userEmail);
         when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(token, userDetails)).thenReturn(false);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(false);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
-        verify(jwtService).isTokenValid(token, userDetails);
+        verify(jwtService).isTokenValid(claims, userDetails);
     }
 
     @Test
@@ -129,7 +169,7 @@ public class JwtAuthFilterTest {
         Cookie[] cookies = {authCookie};
 
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername(token)).thenThrow(new RuntimeException("Token parsing error"));
+        when(jwtService.verifyToken(token)).thenThrow(new RuntimeException("Token parsing error"));
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
@@ -155,12 +195,106 @@ public class JwtAuthFilterTest {
         SecurityContextHolder.getContext().setAuthentication(existingAuth);
 
         when(request.getCookies()).thenReturn(cookies);
-        when(jwtService.extractUsername(token)).thenReturn(userEmail);
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(userEmail);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(jwtService, never()).isTokenValid(any(Claims.class), any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    public void doFilterInternal_shouldParseTokenExactlyOnce() throws ServletException, IOException {
+        String token = "valid-jwt-token";
+        String userEmail = "user@test.com";
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("auth_token", token)});
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(userEmail);
+        when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        verify(jwtService, times(1)).verifyToken(token);
+        verify(jwtService, never()).extractUsername(any());
+        verify(jwtService, never()).isTokenValid(anyString(), any());
+    }
+
+    @Test
+    public void doFilterInternal_withCachedToken_shouldSkipVerification() throws ServletException, IOException {
+        String token = "cached-jwt-token";
+        String userEmail = "user@test.com";
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("auth_token", token)});
+        when(verifiedTokenCache.get(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(userEmail);
+        when(userDetailsService.loadUserByUsername(userEmail)).thenReturn(userDetails);
+        when(jwtService.isTokenValid(claims, userDetails)).thenReturn(true);
 
         jwtAuthFilter.doFilterInternal(request, response, filterChain);
 
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(jwtService, never()).verifyToken(any());
+        verify(verifiedTokenCache, never()).put(any(), any());
+    }
+
+    @Test
+    public void doFilterInternal_withUncachedToken_shouldCacheVerifiedClaims() throws ServletException, IOException {
+        String token = "fresh-jwt-token";
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("auth_token", token)});
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn(null);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        verify(verifiedTokenCache).put(token, claims);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    public void doFilterInternal_withStatelessToken_shouldNotLoadUserFromDb() throws ServletException, IOException {
+        String token = "stateless-jwt-token";
+        com.tariff.backend.model.User principal =
+            new com.tariff.backend.model.User("user@test.com", null, com.tariff.backend.model.User.Role.ADMIN);
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("auth_token", token)});
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("user@test.com");
+        when(jwtService.isStatelessRoles()).thenReturn(true);
+        when(jwtService.hasRoleClaims(claims)).thenReturn(true);
+        when(jwtService.extractGeneration(claims)).thenReturn(3L);
+        when(tokenRevocationService.isRevoked("user@test.com", 3L)).thenReturn(false);
+        when(jwtService.principalFromClaims(claims)).thenReturn(principal);
+        when(jwtService.isTokenValid(claims, principal)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertSame(principal, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    public void doFilterInternal_withRevokedStatelessToken_shouldNotSetAuthentication() throws ServletException, IOException {
+        String token = "revoked-jwt-token";
+
+        when(request.getCookies()).thenReturn(new Cookie[]{new Cookie("auth_token", token)});
+        when(jwtService.verifyToken(token)).thenReturn(claims);
+        when(claims.getSubject()).thenReturn("user@test.com");
+        when(jwtService.isStatelessRoles()).thenReturn(true);
+        when(jwtService.hasRoleClaims(claims)).thenReturn(true);
+        when(jwtService.extractGeneration(claims)).thenReturn(1L);
+        when(tokenRevocationService.isRevoked("user@test.com", 1L)).thenReturn(true);
+
+        jwtAuthFilter.doFilterInternal(request, response, filterChain);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(userDetailsService, never()).loadUserByUsername(any());
-        verify(jwtService, never()).isTokenValid(any(), any());
+        verify(jwtService, never()).principalFromClaims(any());
         verify(filterChain).doFilter(request, response);
     }
 }
@@ -0,0 +1,147 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LlmBulkheadTest {
+
+  private SimpleMeterRegistry registry;
+  private ExecutorService callers;
+  private CountDownLatch release;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    callers = Executors.newVirtualThreadPerTaskExecutor();
+    release = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    release.countDown();
+    callers.shutdownNow();
+  }
+
+  @Test
+  void shouldRunCallsWhilePermitsAreFree() {
+    LlmBulkhead bulkhead = new LlmBulkhead(2, 0, 1000, 5, registry);
+
+    assertThat(bulkhead.call("generate", () -> "answer")).isEqualTo("answer");
+    assertThat(bulkhead.active()).isZero();
+    assertThat(callTimer("generate", "success").count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRejectImmediatelyWhenTheQueueIsFull() throws Exception {
+    LlmBulkhead bulkhead = new LlmBulkhead(1, 0, 10_000, 7, registry);
+    occupy(bulkhead, 1);
+
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> bulkhead.call("generate", () -> "never"))
+      .isInstanceOf(TooManyRequestsException.class)
+      .satisfies(e -> assertThat(((TooManyRequestsException) e).getRetryAfterSeconds()).isEqualTo(7));
+
+    // no waiting at all with max-waiting 0
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+    assertThat(registry.get("prediction.llm.rejected").tag("reason", "queue-full").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRejectWaitersPastTheDeadline() throws Exception {
+    LlmBulkhead bulkhead = new LlmBulkhead(1, 5, 100, 5, registry);
+    occupy(bulkhead, 1);
+
+    long start = System.nanoTime();
+    assertThatThrownBy(() -> bulkhead.call("generate", () -> "never")).isInstanceOf(TooManyRequestsException.class);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(90);
+    assertThat(bulkhead.waiting()).isZero();
+    assertThat(registry.get("prediction.llm.rejected").tag("reason", "wait-timeout").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void waitersShouldGetThePermitOnceItIsReleased() throws Exception {
+    LlmBulkhead bulkhead = new LlmBulkhead(1, 5, 10_000, 5, registry);
+    occupy(bulkhead, 1);
+
+    Future<String> waiter = callers.submit(() -> bulkhead.call("generate", () -> "queued answer"));
+    while (bulkhead.waiting() == 0) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("queued answer");
+    assertThat(registry.get("prediction.llm.wait").timer().max(TimeUnit.NANOSECONDS)).isPositive();
+  }
+
+  @Test
+  void failedCallsShouldReleaseThePermitAndBeTimedAsErrors() {
+    LlmBulkhead bulkhead = new LlmBulkhead(1, 0, 1000, 5, registry);
+
+    assertThatThrownBy(() -> bulkhead.call("stream", () -> {
+      throw new IllegalStateException("model down");
+    })).hasMessage("model down");
+
+    assertThat(bulkhead.active()).isZero();
+    assertThat(bulkhead.call("stream", () -> "recovered")).isEqualTo("recovered");
+    assertThat(callTimer("stream", "error").count()).isEqualTo(1);
+  }
+
+  @Test
+  void latencyShouldBePublishedAsHistograms() {
+    // the simple registry keeps no buckets, so check what each timer asked the registry for
+    Set<String> histograms = ConcurrentHashMap.newKeySet();
+    registry.config().meterFilter(new MeterFilter() {
+      @Override
+      public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+        if (Boolean.TRUE.equals(config.isPercentileHistogram())) {
+          histograms.add(id.getName());
+        }
+        return config;
+      }
+    });
+    LlmBulkhead bulkhead = new LlmBulkhead(1, 0, 1000, 5, registry);
+
+    bulkhead.call("generate", () -> "answer");
+
+    assertThat(histograms).containsExactlyInAnyOrder("prediction.llm.wait", "prediction.llm.call");
+  }
+
+  // holds `count` permits until release is counted down
+  private void occupy(LlmBulkhead bulkhead, int count) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(count);
+    for (int i = 0; i < count; i++) {
+      callers.submit(() -> bulkhead.call("generate", () -> {
+        started.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return "slow";
+      }));
+    }
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private Timer callTimer(String operation, String outcome) {
+    return registry.get("prediction.llm.call").tag("operation", operation).tag("outcome", outcome).timer();
+  }
+}
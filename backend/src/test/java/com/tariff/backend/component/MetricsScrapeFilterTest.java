@@ -0,0 +1,65 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class MetricsScrapeFilterTest {
+
+  private final MetricsScrapeFilter filter = new MetricsScrapeFilter("scrape-secret");
+
+  @Test
+  void scraperWithTheTokenShouldGetThrough() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+
+    MockHttpServletResponse response = send(filter, "/actuator/prometheus", "Bearer scrape-secret", chain);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(chain.getRequest()).isNotNull();
+  }
+
+  @Test
+  void missingOrWrongTokenShouldBeUnauthorized() throws Exception {
+    for (String header : new String[] { null, "Bearer guess", "scrape-secret", "Basic c2NyYXBlLXNlY3JldA==" }) {
+      MockFilterChain chain = new MockFilterChain();
+
+      MockHttpServletResponse response = send(filter, "/actuator/prometheus", header, chain);
+
+      assertThat(response.getStatus()).as(String.valueOf(header)).isEqualTo(401);
+      assertThat(response.getHeader("WWW-Authenticate")).startsWith("Bearer");
+      assertThat(chain.getRequest()).isNull();
+    }
+  }
+
+  @Test
+  void blankTokenShouldCloseTheActuator() throws Exception {
+    MetricsScrapeFilter closed = new MetricsScrapeFilter("");
+
+    assertThat(send(closed, "/actuator/prometheus", "Bearer ", new MockFilterChain()).getStatus()).isEqualTo(401);
+    assertThat(send(closed, "/actuator", "Bearer ", new MockFilterChain()).getStatus()).isEqualTo(401);
+  }
+
+  @Test
+  void otherRoutesShouldBeLeftAlone() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+
+    assertThat(send(filter, "/api/tariffs", null, chain).getStatus()).isEqualTo(200);
+    assertThat(send(filter, "/actuatorish", null, new MockFilterChain()).getStatus()).isEqualTo(200);
+    assertThat(chain.getRequest()).isNotNull();
+  }
+
+  private static MockHttpServletResponse send(MetricsScrapeFilter filter, String uri, String authorization, FilterChain chain)
+    throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+    if (authorization != null) {
+      request.addHeader("Authorization", authorization);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+}
@@ -0,0 +1,172 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class NearDuplicateIndexTest {
+
+  private final NearDuplicateIndex index = newIndex(10_000);
+
+  @Test
+  void revisedNoticeShouldMatchTheOriginal() {
+    String original = notice("1 March 2025", 20);
+    index.add("original", "Germany", index.signature(original));
+
+    String revised = notice("15 March 2025", 20);
+
+    assertThat(index.findSimilar(" germany ", index.signature(revised))).isEqualTo("original");
+  }
+
+  @Test
+  void differentDocumentShouldNotMatch() {
+    index.add("original", "Germany", index.signature(notice("1 March 2025", 20)));
+
+    String unrelated = String.join("\n", lines("Quota on steel coil from mill %d capped at %d tonnes per quarter", 60));
+
+    assertThat(index.findSimilar("Germany", index.signature(unrelated))).isNull();
+  }
+
+  @Test
+  void sameTextForAnotherCountryShouldNotMatch() {
+    String text = notice("1 March 2025", 20);
+    index.add("original", "Germany", index.signature(text));
+
+    assertThat(index.findSimilar("France", index.signature(text))).isNull();
+    assertThat(index.findSimilar(null, index.signature(text))).isNull();
+  }
+
+  @Test
+  void heavierRevisionsShouldFallBelowTheThreshold() {
+    index.add("original", "Germany", index.signature(notice("1 March 2025", 20)));
+
+    // every 3rd line rewritten, roughly half the shingles change
+    List<String> lines = new ArrayList<>(List.of(notice("1 March 2025", 20).split("\n")));
+    for (int i = 0; i < lines.size(); i += 3) {
+      lines.set(i, "Rewritten clause " + i + " now exempts agricultural machinery and spare parts entirely");
+    }
+
+    assertThat(index.findSimilar("Germany", index.signature(String.join("\n", lines)))).isNull();
+  }
+
+  @Test
+  void similarityShouldEstimateTheShingleJaccard() {
+    String a = notice("1 March 2025", 20);
+    String b = notice("1 March 2025", 20).replace("line 7 ", "line seven ");
+
+    double estimate = NearDuplicateIndex.similarity(index.signature(a), index.signature(b));
+
+    assertThat(estimate).isCloseTo(jaccard(a, b), within(0.06));
+  }
+
+  @Test
+  void evictedDocumentsShouldLeaveTheBuckets() {
+    NearDuplicateIndex small = newIndex(1);
+    String first = notice("1 March 2025", 20);
+    small.add("first", "Germany", small.signature(first));
+    small.add("second", "Germany", small.signature(String.join("\n", lines("Unrelated memo %d about %d meetings", 40))));
+    small.size(); // lets Caffeine finish the eviction
+
+    assertThat(small.findSimilar("Germany", small.signature(first))).isNull();
+  }
+
+  @Test
+  void concurrentReplacesShouldNotLoseBucketEntries() throws InterruptedException {
+    // threshold 0: any bucket hit is a match, so each band can be checked on its own below
+    NearDuplicateIndex anyMatch = new NearDuplicateIndex(true, 16, 8, 0.0, 10_000, new SimpleMeterRegistry());
+    long[] shared = anyMatch.signature(notice("1 March 2025", 20));
+    List<long[]> own = new ArrayList<>();
+    for (int t = 0; t < 4; t++) {
+      own.add(anyMatch.signature(String.join("\n", lines("Memo " + t + " number %d about %d meetings", 40))));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(5);
+
+    // "b" ends up in the shared buckets while the others keep emptying and refilling them
+    executor.submit(() -> {
+      for (int i = 0; i <= 50_000; i++) {
+        anyMatch.add("b", "Germany", i % 2 == 0 ? shared : own.get(0));
+      }
+    });
+    for (int t = 0; t < 4; t++) {
+      long[] mine = own.get(t);
+      String key = "a" + t;
+      executor.submit(() -> {
+        for (int i = 0; i <= 50_000; i++) {
+          anyMatch.add(key, "Germany", i % 2 == 0 ? mine : shared);
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+
+    // a query sharing only band `band` with "b" finds it only through that one bucket
+    for (int band = 0; band < 16; band++) {
+      long[] query = shared.clone();
+      for (int i = 0; i < query.length; i++) {
+        if (i / 8 != band) {
+          query[i] = ~query[i];
+        }
+      }
+      assertThat(anyMatch.findSimilar("Germany", query)).as("band %d", band).isEqualTo("b");
+    }
+  }
+
+  @Test
+  void blankTextHasNoSignature() {
+    assertThat(index.signature("  \n ... ")).isNull();
+    assertThat(index.signature("short")).hasSize(128);
+  }
+
+  @Test
+  void disabledIndexShouldNotProduceSignatures() {
+    NearDuplicateIndex disabled = new NearDuplicateIndex(false, 16, 8, 0.9, 100, new SimpleMeterRegistry());
+
+    assertThat(disabled.signature(notice("1 March 2025", 20))).isNull();
+  }
+
+  private static NearDuplicateIndex newIndex(long maxDocuments) {
+    return new NearDuplicateIndex(true, 16, 8, 0.9, maxDocuments, new SimpleMeterRegistry());
+  }
+
+  private static String notice(String effectiveDate, int sections) {
+    List<String> lines = new ArrayList<>(lines("Section %d line %d duty on passenger vehicles under heading 8703 rises to 25 percent", sections));
+    lines.add(0, "Notice of tariff modification effective " + effectiveDate);
+    return String.join("\n", lines);
+  }
+
+  private static List<String> lines(String template, int count) {
+    List<String> lines = new ArrayList<>();
+    for (int i = 1; i <= count; i++) {
+      lines.add(template.formatted(i, i));
+    }
+    return lines;
+  }
+
+  // exact Jaccard over the same word 5-grams the index uses
+  private static double jaccard(String a, String b) {
+    Set<String> shinglesA = shingles(a);
+    Set<String> shinglesB = shingles(b);
+    Set<String> union = new HashSet<>(shinglesA);
+    union.addAll(shinglesB);
+    shinglesA.retainAll(shinglesB);
+    return (double) shinglesA.size() / union.size();
+  }
+
+  private static Set<String> shingles(String text) {
+    String[] words = text.toLowerCase().split("[^\\p{L}\\p{N}]+");
+    Set<String> shingles = new HashSet<>();
+    for (int i = 0; i + NearDuplicateIndex.SHINGLE_WORDS <= words.length; i++) {
+      shingles.add(String.join(" ", List.of(words).subList(i, i + NearDuplicateIndex.SHINGLE_WORDS)));
+    }
+    return shingles;
+  }
+}
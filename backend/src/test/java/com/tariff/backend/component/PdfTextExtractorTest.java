@@ -0,0 +1,193 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PdfTextExtractorTest {
+
+  private static final int LINES_PER_PAGE = 45;
+
+  private static final int HEAP_LIMIT_MB = 64;
+
+  private static byte[] smallPdf;
+  private static byte[] largePdf;
+
+  @BeforeAll
+  static void createFixtures() throws IOException {
+    smallPdf = createPdf(3);
+    largePdf = createPdf(100);
+  }
+
+  @Test
+  void shouldExtractEveryPageWhenWithinBudget() throws IOException {
+    String text = new PdfTextExtractor(50, 200_000, 1_048_576).extract(smallPdf);
+
+    assertThat(text).contains("Page 1 line 1 ", "Page 3 line " + LINES_PER_PAGE + " ");
+  }
+
+  @Test
+  void extractPagesShouldReturnOneEntryPerPage() throws IOException {
+    List<String> pages = new PdfTextExtractor(50, 200_000, 1_048_576).extractPages(smallPdf);
+
+    assertThat(pages).hasSize(3);
+    assertThat(pages.get(1)).startsWith("Page 2 line 1 ").doesNotContain("Page 3");
+    assertThat(String.join("", pages)).isEqualTo(new PdfTextExtractor(50, 200_000, 1_048_576).extract(smallPdf));
+  }
+
+  @Test
+  void shouldStopAtThePageBudget() throws IOException {
+    String text = new PdfTextExtractor(5, 1_000_000, 1_048_576).extract(largePdf);
+
+    assertThat(text).contains("Page 5 line " + LINES_PER_PAGE + " ").doesNotContain("Page 6 line");
+  }
+
+  @Test
+  void shouldStopAtTheCharacterBudget() throws IOException {
+    String text = new PdfTextExtractor(1000, 5_000, 1_048_576).extract(largePdf);
+
+    assertThat(text).hasSize(5_000).startsWith("Page 1 line 1 ");
+  }
+
+  @Test
+  void shouldRejectSomethingThatIsNotAPdf() {
+    PdfTextExtractor extractor = new PdfTextExtractor(50, 200_000, 1_048_576);
+
+    assertThatThrownBy(() -> extractor.extract("Not a valid PDF".getBytes(StandardCharsets.UTF_8)))
+      .isInstanceOf(IOException.class);
+  }
+
+  // Two concurrent ~9.5 MB uploads in a 64 MB heap. The old whole-document path (load into
+  // main memory + getText over every page) runs out of heap on the same input, which shows
+  // the fixture is big enough for the bound to mean something.
+  @Test
+  void concurrentLargeUploadsShouldFitInABoundedHeap(@TempDir Path tempDir) throws Exception {
+    Path pdf = tempDir.resolve("large.pdf");
+    Files.write(pdf, createPdf(800, true));
+    assertThat(Files.size(pdf)).isGreaterThan(8L * 1024 * 1024);
+
+    ProbeResult budgeted = runHeapProbe(pdf, "budgeted");
+    assertThat(budgeted.exitCode()).as(budgeted.output()).isZero();
+    assertThat(budgeted.output()).contains("extracted=2");
+
+    ProbeResult unbounded = runHeapProbe(pdf, "unbounded");
+    assertThat(unbounded.output()).contains("OutOfMemoryError");
+  }
+
+  private record ProbeResult(int exitCode, String output) {}
+
+  private static ProbeResult runHeapProbe(Path pdf, String mode) throws Exception {
+    String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    Process process = new ProcessBuilder(
+      java, "-Xmx" + HEAP_LIMIT_MB + "m", "-cp", System.getProperty("java.class.path"),
+      HeapProbe.class.getName(), pdf.toString(), mode
+    ).redirectErrorStream(true).start();
+    String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertThat(process.waitFor(120, TimeUnit.SECONDS)).isTrue();
+    return new ProbeResult(process.exitValue(), output);
+  }
+
+  // Runs in the child JVM: each "upload" holds its own copy of the bytes, like real requests
+  public static final class HeapProbe {
+    private static final int UPLOADS = 2;
+
+    public static void main(String[] args) {
+      Path pdf = Path.of(args[0]);
+      boolean budgeted = args[1].equals("budgeted");
+      PdfTextExtractor extractor = new PdfTextExtractor(50, 200_000, 1_048_576);
+
+      ExecutorService executor = Executors.newFixedThreadPool(UPLOADS);
+      try {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+          results.add(executor.submit(() -> {
+            byte[] bytes = Files.readAllBytes(pdf);
+            if (budgeted) {
+              return extractor.extract(bytes);
+            }
+            try (PDDocument document = PDDocument.load(new ByteArrayInputStream(bytes))) {
+              return new PDFTextStripper().getText(document);
+            }
+          }));
+        }
+        int extracted = 0;
+        for (Future<String> result : results) {
+          if (result.get().contains("Page 50 line 1 ")) {
+            extracted++;
+          }
+        }
+        System.out.println("extracted=" + extracted);
+        System.exit(0);
+      } catch (Throwable e) {
+        System.out.println("failed: " + e);
+        System.exit(1);
+      }
+    }
+  }
+
+  private static byte[] createPdf(int pages) throws IOException {
+    return createPdf(pages, false);
+  }
+
+  // withNoise adds an incompressible image per page so the file gets upload-sized (~10 KB/page)
+  // without the text changing, text extraction never decodes images
+  private static byte[] createPdf(int pages, boolean withNoise) throws IOException {
+    Random random = new Random(42);
+    try (PDDocument document = new PDDocument()) {
+      for (int page = 1; page <= pages; page++) {
+        PDPage pdPage = new PDPage();
+        document.addPage(pdPage);
+        try (PDPageContentStream content = new PDPageContentStream(document, pdPage)) {
+          if (withNoise) {
+            content.drawImage(LosslessFactory.createFromImage(document, noise(random)), 500, 20);
+          }
+          content.beginText();
+          content.setFont(PDType1Font.HELVETICA, 9);
+          content.setLeading(15);
+          content.newLineAtOffset(40, 750);
+          for (int line = 1; line <= LINES_PER_PAGE; line++) {
+            content.showText("Page " + page + " line " + line + " tariff rate on HS code 8703 rises to 25 percent ad valorem");
+            content.newLine();
+          }
+          content.endText();
+        }
+      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      document.save(out);
+      return out.toByteArray();
+    }
+  }
+
+  private static BufferedImage noise(Random random) {
+    BufferedImage image = new BufferedImage(60, 60, BufferedImage.TYPE_INT_RGB);
+    for (int x = 0; x < 60; x++) {
+      for (int y = 0; y < 60; y++) {
+        image.setRGB(x, y, random.nextInt(0xFFFFFF));
+      }
+    }
+    return image;
+  }
+}
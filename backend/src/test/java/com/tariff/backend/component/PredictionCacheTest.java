@@ -0,0 +1,99 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PredictionCacheTest {
+
+  private static final byte[] PDF = "%PDF-1.4 tariff notice".getBytes(StandardCharsets.UTF_8);
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void keyShouldDependOnBytesCountryAndPromptVersion() {
+    String key = PredictionCache.key(PDF, "Germany", "v1");
+
+    assertThat(key).hasSize(64).matches("[0-9a-f]+");
+    assertThat(PredictionCache.key(PDF, " germany ", "v1")).isEqualTo(key);
+    assertThat(PredictionCache.key(PDF, "Japan", "v1")).isNotEqualTo(key);
+    assertThat(PredictionCache.key(PDF, "Germany", "v2")).isNotEqualTo(key);
+    assertThat(PredictionCache.key("%PDF-1.4 other".getBytes(StandardCharsets.UTF_8), "Germany", "v1")).isNotEqualTo(key);
+    assertThat(PredictionCache.key(PDF, null, "v1")).isEqualTo(PredictionCache.key(PDF, "", "v1"));
+  }
+
+  @Test
+  void memoryTierShouldReturnWhatWasPut() {
+    PredictionCache cache = new PredictionCache(1_000, "", 0, 0, new SimpleMeterRegistry());
+    String key = PredictionCache.key(PDF, "Germany", "v1");
+
+    assertThat(cache.get(key)).isNull();
+    cache.put(key, "prediction");
+
+    assertThat(cache.get(key)).isEqualTo("prediction");
+  }
+
+  @Test
+  void diskTierShouldSurviveANewInstance() throws Exception {
+    String key = PredictionCache.key(PDF, "Germany", "v1");
+    new PredictionCache(1_000, tempDir.toString(), 0, 0, new SimpleMeterRegistry()).put(key, "prediction");
+
+    // fresh instance = empty memory tier, e.g. after a restart
+    PredictionCache restarted = new PredictionCache(1_000, tempDir.toString(), 0, 0, new SimpleMeterRegistry());
+
+    assertThat(restarted.get(key)).isEqualTo("prediction");
+    assertThat(Files.readString(tempDir.resolve(key))).isEqualTo("prediction");
+    try (var files = Files.list(tempDir)) {
+      // no temp files left behind
+      assertThat(files.count()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void pruningShouldDropOldestFilesUntilUnderTheSizeLimit() throws Exception {
+    // 10 bytes per file, room for two
+    PredictionCache cache = new PredictionCache(1_000, tempDir.toString(), 25, 0, new SimpleMeterRegistry());
+    for (String key : new String[] {"a", "b", "c"}) {
+      cache.put(key, "0123456789");
+    }
+    setAge("a", Duration.ofMinutes(3));
+    setAge("b", Duration.ofMinutes(2));
+    setAge("c", Duration.ofMinutes(1));
+    // a disk hit makes "a" the most recently used
+    new PredictionCache(1_000, tempDir.toString(), 25, 0, new SimpleMeterRegistry()).get("a");
+
+    cache.pruneDisk();
+
+    assertThat(tempDir.resolve("a")).exists();
+    assertThat(tempDir.resolve("b")).doesNotExist();
+    assertThat(tempDir.resolve("c")).exists();
+  }
+
+  @Test
+  void pruningShouldDropExpiredFiles() throws Exception {
+    PredictionCache cache = new PredictionCache(1_000, tempDir.toString(), 0, 3600, new SimpleMeterRegistry());
+    cache.put("old", "prediction");
+    cache.put("fresh", "prediction");
+    setAge("old", Duration.ofHours(2));
+
+    cache.pruneDisk();
+
+    assertThat(tempDir.resolve("old")).doesNotExist();
+    assertThat(tempDir.resolve("fresh")).exists();
+    // memory tier is not affected
+    assertThat(cache.get("old")).isEqualTo("prediction");
+  }
+
+  private void setAge(String key, Duration age) throws Exception {
+    Files.setLastModifiedTime(tempDir.resolve(key), FileTime.from(Instant.now().minus(age)));
+  }
+}
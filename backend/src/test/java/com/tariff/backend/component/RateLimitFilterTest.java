@@ -0,0 +1,139 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+  @Mock
+  private FilterChain filterChain;
+
+  @Mock
+  private HandlerExceptionResolver handlerExceptionResolver;
+
+  private SimpleMeterRegistry meterRegistry;
+  private RateLimitFilter rateLimitFilter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    rateLimitFilter = new RateLimitFilter(
+      "POST /api/users/login=2/60, POST /api/tariffs/**=1/60",
+      1000,
+      600,
+      meterRegistry,
+      handlerExceptionResolver
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void shouldRejectWith429OnceBucketIsEmpty() throws Exception {
+    send("POST", "/api/users/login", "10.0.0.1");
+    send("POST", "/api/users/login", "10.0.0.1");
+    MockHttpServletRequest rejected = send("POST", "/api/users/login", "10.0.0.1");
+
+    verify(filterChain, times(2)).doFilter(any(), any());
+    ArgumentCaptor<Exception> captor = ArgumentCaptor.forClass(Exception.class);
+    verify(handlerExceptionResolver).resolveException(eq(rejected), any(HttpServletResponse.class), isNull(), captor.capture());
+    assertThat(captor.getValue()).isInstanceOf(TooManyRequestsException.class);
+    assertThat(((TooManyRequestsException) captor.getValue()).getRetryAfterSeconds()).isBetween(1L, 30L);
+    assertThat(meterRegistry.get("http.rate-limit.rejected").tag("route", "POST /api/users/login").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void differentClientsShouldHaveSeparateBuckets() throws Exception {
+    send("POST", "/api/tariffs/particular-tariff-rate", "10.0.0.1");
+    send("POST", "/api/tariffs/particular-tariff-rate", "10.0.0.2");
+
+    verify(filterChain, times(2)).doFilter(any(), any());
+    verify(handlerExceptionResolver, never()).resolveException(any(), any(), any(), any());
+    assertThat(rateLimitFilter.trackedClients()).isEqualTo(2);
+  }
+
+  @Test
+  void authenticatedUserShouldBeLimitedAcrossIps() throws Exception {
+    SecurityContextHolder.getContext().setAuthentication(
+      new UsernamePasswordAuthenticationToken("user@user.com", null, List.of())
+    );
+
+    send("POST", "/api/tariffs/particular-tariff-rate", "10.0.0.1");
+    send("POST", "/api/tariffs/particular-tariff-rate", "10.0.0.2");
+
+    verify(filterChain, times(1)).doFilter(any(), any());
+    verify(handlerExceptionResolver).resolveException(any(), any(), any(), any(TooManyRequestsException.class));
+  }
+
+  @Test
+  void unlimitedRoutesAndMethodsShouldPassThrough() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      send("GET", "/api/tariffs/valid-destinations", "10.0.0.1");
+      send("GET", "/api/users/login", "10.0.0.1");
+    }
+
+    verify(filterChain, times(10)).doFilter(any(), any());
+    assertThat(rateLimitFilter.trackedClients()).isZero();
+  }
+
+  @Test
+  void filterTimerShouldCoverPassThroughAllowedAndRejected() throws Exception {
+    send("GET", "/api/tariffs/valid-destinations", "10.0.0.1");
+    for (int i = 0; i < 3; i++) {
+      send("POST", "/api/users/login", "10.0.0.1");
+    }
+
+    assertThat(meterRegistry.get("http.filter.rate_limit").timer().count()).isEqualTo(4);
+  }
+
+  @Test
+  void invalidRouteSpecShouldFailFast() {
+    assertThatThrownBy(() -> RateLimitFilter.parseRoutes("/api/predict=10"))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("security.rate-limit.routes");
+  }
+
+  @Test
+  void emptyRouteSpecShouldDisableFilter() {
+    RateLimitFilter disabled = new RateLimitFilter("", 10, 10, meterRegistry, handlerExceptionResolver);
+    HttpServletRequest request = new MockHttpServletRequest("POST", "/api/users/login");
+
+    assertThat(disabled.shouldNotFilter(request)).isTrue();
+  }
+
+  private MockHttpServletRequest send(String method, String uri, String ip) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+    request.setRemoteAddr(ip);
+    rateLimitFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+    return request;
+  }
+}
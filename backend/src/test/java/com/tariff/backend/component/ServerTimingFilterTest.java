@@ -0,0 +1,144 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@ExtendWith(OutputCaptureExtension.class)
+class ServerTimingFilterTest {
+
+  // header on every response, as in the local profiles
+  private final ServerTimingFilter filter = new ServerTimingFilter(true, true, "", 0, -1);
+
+  @Test
+  void headerShouldBreakDownWhereTheRequestSpentItsTime() throws Exception {
+    MockHttpServletResponse response = send(filter, (req, res) -> {
+      ServerTiming.recordNanos(ServerTiming.Phase.AUTH, 1_500_000);
+      ServerTiming.recordNanos(ServerTiming.Phase.DB, 2_000_000);
+      ServerTiming.recordNanos(ServerTiming.Phase.DB, 500_000);
+      ServerTiming.bodyStarted();
+      res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+      res.getOutputStream().flush();
+    });
+
+    assertThat(response.getHeader(ServerTimingFilter.HEADER))
+      .startsWith("auth;desc=\"JWT verification\";dur=1.50, db;desc=\"2 repository calls\";dur=2.50, "
+        + "ser;desc=\"Response serialization\";dur=")
+      .contains(", total;dur=")
+      .doesNotContain("user;", "partial");
+    assertThat(response.getContentAsString()).isEqualTo("[]");
+  }
+
+  @Test
+  void responsesWithoutBodyShouldStillCarryTheTotal() throws Exception {
+    MockHttpServletResponse response = send(filter, (req, res) -> ((HttpServletResponse) res).setStatus(204));
+
+    assertThat(response.getHeader(ServerTimingFilter.HEADER)).startsWith("total;dur=");
+  }
+
+  @Test
+  void bodyOutgrowingTheBufferShouldSendTheHeaderBeforeTheCommit() throws Exception {
+    byte[] body = new byte[10_000];
+    MockHttpServletResponse response = send(filter, (req, res) -> {
+      ServerTiming.bodyStarted();
+      res.getOutputStream().write(body, 0, 3000);
+      res.getOutputStream().write(body, 3000, 7000);
+      res.getOutputStream().flush();
+    });
+
+    assertThat(response.getBufferSize()).isLessThan(body.length);
+    assertThat(response.getHeader(ServerTimingFilter.HEADER)).contains("ser;desc=\"Response serialization (partial)\"");
+    assertThat(response.getContentAsByteArray()).hasSize(body.length);
+  }
+
+  @Test
+  void recordingShouldStopWhenTheRequestEnds() throws Exception {
+    send(filter, (req, res) -> ServerTiming.recordNanos(ServerTiming.Phase.DB, 1_000_000));
+
+    // outside a request these are no-ops, and nothing leaks into the next request
+    ServerTiming.recordNanos(ServerTiming.Phase.DB, 1_000_000);
+    ServerTiming.record(ServerTiming.Phase.USER, System.nanoTime());
+    MockHttpServletResponse next = send(filter, (req, res) -> { });
+
+    assertThat(next.getHeader(ServerTimingFilter.HEADER)).startsWith("total;dur=");
+  }
+
+  @Test
+  void disabledFilterShouldLeaveTheResponseAlone() throws Exception {
+    ServerTimingFilter disabled = new ServerTimingFilter(false, true, "", 1, 0);
+    ServletResponse[] seen = new ServletResponse[1];
+
+    MockHttpServletResponse response = send(disabled, (req, res) -> {
+      seen[0] = res;
+      ServerTiming.recordNanos(ServerTiming.Phase.DB, 1_000_000);
+    });
+
+    assertThat(seen[0]).isSameAs(response);
+    assertThat(response.getHeader(ServerTimingFilter.HEADER)).isNull();
+  }
+
+  @Test
+  void headerShouldBeOffByDefaultWhileLoggingStillWorks(CapturedOutput output) throws Exception {
+    ServerTimingFilter production = new ServerTimingFilter(true, false, "", 0, 0);
+
+    MockHttpServletResponse response = send(production, (req, res) -> ServerTiming.recordNanos(ServerTiming.Phase.DB, 3_000_000));
+
+    assertThat(response.getHeader(ServerTimingFilter.HEADER)).isNull();
+    assertThat(output.getOut()).contains("Server timing GET /api/tariffs 200: db;desc=\"1 repository call\";dur=3.00");
+  }
+
+  @Test
+  void headerShouldOnlyGoToRequestsWithTheToken() throws Exception {
+    ServerTimingFilter production = new ServerTimingFilter(true, false, "s3cret", 0, -1);
+
+    assertThat(send(production, "s3cret", (req, res) -> { }).getHeader(ServerTimingFilter.HEADER)).startsWith("total;dur=");
+    assertThat(send(production, "guess", (req, res) -> { }).getHeader(ServerTimingFilter.HEADER)).isNull();
+    assertThat(send(production, (req, res) -> { }).getHeader(ServerTimingFilter.HEADER)).isNull();
+  }
+
+  @Test
+  void blankTokenShouldLetNobodyIn() throws Exception {
+    ServerTimingFilter production = new ServerTimingFilter(true, false, "", 0, -1);
+
+    assertThat(send(production, "", (req, res) -> { }).getHeader(ServerTimingFilter.HEADER)).isNull();
+  }
+
+  @Test
+  void slowRequestsShouldBeLoggedWithTheBreakdown(CapturedOutput output) throws Exception {
+    ServerTimingFilter logging = new ServerTimingFilter(true, true, "", 0, 0);
+
+    send(logging, (req, res) -> ServerTiming.recordNanos(ServerTiming.Phase.DB, 3_000_000));
+
+    assertThat(output.getOut()).contains("Server timing GET /api/tariffs 200: db;desc=\"1 repository call\";dur=3.00");
+  }
+
+  @Test
+  void unsampledRequestsShouldNotBeLogged(CapturedOutput output) throws Exception {
+    send(filter, (req, res) -> { });
+
+    assertThat(output.getOut()).doesNotContain("Server timing");
+  }
+
+  private static MockHttpServletResponse send(ServerTimingFilter filter, FilterChain chain) throws Exception {
+    return send(filter, null, chain);
+  }
+
+  private static MockHttpServletResponse send(ServerTimingFilter filter, String token, FilterChain chain) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tariffs");
+    if (token != null) {
+      request.addHeader(ServerTimingFilter.TOKEN_HEADER, token);
+    }
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+}
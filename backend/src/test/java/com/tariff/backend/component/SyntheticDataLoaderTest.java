@@ -0,0 +1,114 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.CountryRepository;
+import com.tariff.backend.repository.ProductRepository;
+import com.tariff.backend.repository.TariffRepository;
+import com.tariff.backend.repository.UserRepository;
+import com.tariff.backend.service.PasswordHashingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@DataJpaTest
+@Import({ SyntheticDataLoader.class, SyntheticDataLoaderTest.Hashing.class })
+class SyntheticDataLoaderTest {
+
+  @TestConfiguration
+  static class Hashing {
+    @Bean
+    PasswordHashingService passwordHashingService() {
+      return new PasswordHashingService(new BCryptPasswordEncoder(4), 1, 4, 1, new SimpleMeterRegistry());
+    }
+  }
+
+  @Autowired
+  private SyntheticDataLoader loader;
+
+  @Autowired
+  private CountryRepository countryRepository;
+
+  @Autowired
+  private ProductRepository productRepository;
+
+  @Autowired
+  private TariffRepository tariffRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private PasswordHashingService passwordHashingService;
+
+  @Test
+  void loadedRowsShouldBeReadableThroughTheRepositories() {
+    SyntheticTariffData data = new SyntheticTariffData(new SyntheticTariffData.Spec(7, 15, 12, 40, 1990, 2020));
+    List<Tariff> generated = new ArrayList<>();
+    data.forEachTariff(generated::add);
+
+    SyntheticDataLoader.Result result = loader.load(data);
+
+    assertThat(result.tariffs()).isEqualTo(generated.size());
+    assertThat(countryRepository.count()).isEqualTo(15);
+    assertThat(productRepository.count()).isEqualTo(12);
+    assertThat(tariffRepository.count()).isEqualTo(generated.size());
+
+    // every generated tariff is what the calculator's lookup finds for its route and period
+    for (Tariff expected : generated.subList(0, 50)) {
+      Product product = expected.getProducts().iterator().next();
+      Tariff found = tariffRepository.getTariffFromProductCountriesAndDates(product.getName(),
+        expected.getEffectiveDate(), expected.getOriginCountry().getCode(), expected.getDestCountry().getCode()).orElseThrow();
+      assertThat(found.getId()).isEqualTo(expected.getId());
+      assertThat(found.getAdValoremRate()).isEqualTo(expected.getAdValoremRate());
+      assertThat(found.getExpiryDate()).isEqualTo(expected.getExpiryDate());
+    }
+  }
+
+  @Test
+  void startupShouldSeedAnEmptyDatabaseWithTheAdminHashedLikeRegistration() {
+    enabledLoader("admin@loadtest.local", "from-the-command-line").run(null);
+
+    assertThat(tariffRepository.count()).isPositive();
+    User admin = userRepository.findByEmail("admin@loadtest.local").orElseThrow();
+    assertThat(admin.getRole()).isEqualTo(User.Role.ADMIN);
+    assertThat(passwordHashingService.matches("from-the-command-line", admin.getPassword())).isTrue();
+  }
+
+  @Test
+  void startupShouldLeaveAPopulatedDatabaseAloneAdminIncluded() {
+    loader.load(new SyntheticTariffData(new SyntheticTariffData.Spec(7, 5, 4, 10, 2000, 2005)));
+    long tariffs = tariffRepository.count();
+
+    enabledLoader("admin@loadtest.local", "from-the-command-line").run(null);
+
+    assertThat(tariffRepository.count()).isEqualTo(tariffs);
+    assertThat(userRepository.findByEmail("admin@loadtest.local")).isEmpty();
+  }
+
+  @Test
+  void startupShouldNotCreateTheAdminWithoutAPassword() {
+    enabledLoader("admin@loadtest.local", "").run(null);
+
+    assertThat(userRepository.findByEmail("admin@loadtest.local")).isEmpty();
+  }
+
+  private SyntheticDataLoader enabledLoader(String adminEmail, String adminPassword) {
+    return new SyntheticDataLoader(jdbcTemplate, userRepository, passwordHashingService,
+      true, 7, 5, 4, 10, 2000, 2005, 100, adminEmail, adminPassword);
+  }
+}
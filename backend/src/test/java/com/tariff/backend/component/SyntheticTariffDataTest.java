@@ -0,0 +1,84 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tariff.backend.model.Tariff;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class SyntheticTariffDataTest {
+
+  private static final SyntheticTariffData.Spec SPEC = new SyntheticTariffData.Spec(42, 20, 30, 50, 1988, 2024);
+
+  @Test
+  void sameSpecShouldYieldTheSameRows() {
+    assertThat(rows(new SyntheticTariffData(SPEC))).isEqualTo(rows(new SyntheticTariffData(SPEC)));
+  }
+
+  @Test
+  void differentSeedsShouldYieldDifferentRows() {
+    SyntheticTariffData.Spec other = new SyntheticTariffData.Spec(43, 20, 30, 50, 1988, 2024);
+
+    assertThat(rows(new SyntheticTariffData(other))).isNotEqualTo(rows(new SyntheticTariffData(SPEC)));
+  }
+
+  @Test
+  void countriesAndProductsShouldLookLikeWitsCodes() {
+    SyntheticTariffData data = new SyntheticTariffData(SPEC);
+
+    assertThat(data.countries()).hasSize(20).allSatisfy(c -> assertThat(c.getCode()).matches("\\d{3}"));
+    assertThat(data.products()).hasSize(30).allSatisfy(p -> assertThat(p.getHTS_code()).matches("\\d{6}"));
+    assertThat(data.products()).extracting(p -> p.getName()).doesNotHaveDuplicates();
+  }
+
+  @Test
+  void everyRouteShouldHaveOneContiguousHistory() {
+    Map<String, List<Tariff>> routes = new HashMap<>();
+    new SyntheticTariffData(SPEC).forEachTariff(t -> {
+      assertThat(t.getOriginCountry()).isNotEqualTo(t.getDestCountry());
+      assertThat(t.getProducts()).hasSize(1);
+      String route = t.getProducts().iterator().next().getHTS_code() + '|' + t.getOriginCountry().getCode()
+        + '|' + t.getDestCountry().getCode();
+      routes.computeIfAbsent(route, k -> new ArrayList<>()).add(t);
+    });
+
+    assertThat(routes).hasSize(30 * 50);
+    routes.values().forEach(history -> {
+      for (int i = 0; i < history.size() - 1; i++) {
+        assertThat(history.get(i).getExpiryDate()).isEqualTo(history.get(i + 1).getEffectiveDate().minusDays(1));
+        assertThat(history.get(i).getAdValoremRate()).isNotEqualTo(history.get(i + 1).getAdValoremRate());
+      }
+      assertThat(history.get(history.size() - 1).getExpiryDate()).isNull();
+      assertThat(history.get(0).getEffectiveDate().getYear()).isBetween(1988, 2024);
+    });
+  }
+
+  @Test
+  void routesShouldBeCappedAtTheNumberOfCountryPairs() {
+    SyntheticTariffData.Spec spec = new SyntheticTariffData.Spec(1, 3, 1, 100, 2000, 2000);
+
+    assertThat(spec.routesPerProduct()).isEqualTo(6);
+    List<Tariff> tariffs = new ArrayList<>();
+    new SyntheticTariffData(spec).forEachTariff(tariffs::add);
+    assertThat(tariffs).hasSize(6);
+  }
+
+  @Test
+  void invalidSpecShouldBeRejected() {
+    assertThatThrownBy(() -> new SyntheticTariffData.Spec(1, 1, 1, 1, 2000, 2000))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new SyntheticTariffData.Spec(1, 10, 1, 1, 2001, 2000))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static List<String> rows(SyntheticTariffData data) {
+    List<String> rows = new ArrayList<>();
+    data.forEachTariff(t -> rows.add(t.getId() + " " + t.getOriginCountry().getCode() + " " + t.getDestCountry().getCode()
+      + " " + t.getEffectiveDate() + " " + t.getExpiryDate() + " " + t.getAdValoremRate() + " " + t.getSpecificRate()));
+    return rows;
+  }
+}
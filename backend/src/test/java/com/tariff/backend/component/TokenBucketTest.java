@@ -0,0 +1,72 @@
+package com.tariff.backend.component;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void shouldAllowBurstUpToCapacityThenReject() {
+    TokenBucket bucket = new TokenBucket(3, Duration.ofSeconds(3), 0);
+
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isZero();
+    assertThat(bucket.tryConsume(0)).isEqualTo(SECOND);
+  }
+
+  @Test
+  void shouldRefillOneTokenPerInterval() {
+    TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+    bucket.tryConsume(0);
+    bucket.tryConsume(0);
+
+    assertThat(bucket.tryConsume(SECOND / 2)).isEqualTo(SECOND / 2);
+    assertThat(bucket.tryConsume(SECOND)).isZero();
+    assertThat(bucket.tryConsume(SECOND)).isPositive();
+  }
+
+  @Test
+  void idleTimeShouldNotGrowBeyondCapacity() {
+    TokenBucket bucket = new TokenBucket(2, Duration.ofSeconds(2), 0);
+
+    long later = 100 * SECOND;
+    assertThat(bucket.tryConsume(later)).isZero();
+    assertThat(bucket.tryConsume(later)).isZero();
+    assertThat(bucket.tryConsume(later)).isPositive();
+  }
+
+  @Test
+  void concurrentCallersShouldNeverExceedCapacity() throws InterruptedException {
+    TokenBucket bucket = new TokenBucket(100, Duration.ofHours(1), 0);
+    AtomicInteger allowed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    for (int i = 0; i < 1000; i++) {
+      executor.submit(() -> {
+        if (bucket.tryConsume(0) == 0) {
+          allowed.incrementAndGet();
+        }
+      });
+    }
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+    assertThat(allowed.get()).isEqualTo(100);
+  }
+
+  @Test
+  void shouldRejectInvalidConfiguration() {
+    assertThatThrownBy(() -> new TokenBucket(0, Duration.ofSeconds(1), 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,79 @@
+package com.tariff.backend.component;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerifiedTokenCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifiedTokenCache = new VerifiedTokenCache(100, 300, meterRegistry);
+    }
+
+    @Test
+    void get_afterPut_shouldReturnSameClaims() {
+        Claims claims = claimsExpiringIn(60000);
+
+        verifiedTokenCache.put("header.payload.signature", claims);
+
+        assertSame(claims, verifiedTokenCache.get("header.payload.signature"));
+    }
+
+    @Test
+    void get_withUnknownToken_shouldReturnNull() {
+        verifiedTokenCache.put("header.payload.signature", claimsExpiringIn(60000));
+
+        assertNull(verifiedTokenCache.get("header.payload.other-signature"));
+    }
+
+    @Test
+    void put_withAlreadyExpiredToken_shouldNeverBeAHit() {
+        verifiedTokenCache.put("expired.token", claimsExpiringIn(-1000));
+
+        assertNull(verifiedTokenCache.get("expired.token"));
+    }
+
+    @Test
+    void put_beyondMaxSize_shouldStayBounded() {
+        for (int i = 0; i < 1000; i++) {
+            verifiedTokenCache.put("token-" + i, claimsExpiringIn(60000));
+        }
+
+        assertTrue(verifiedTokenCache.size() <= 100);
+    }
+
+    @Test
+    void hitRate_shouldTrackHitsAndMisses() {
+        verifiedTokenCache.put("token", claimsExpiringIn(60000));
+
+        verifiedTokenCache.get("token");
+        verifiedTokenCache.get("token");
+        verifiedTokenCache.get("token");
+        verifiedTokenCache.get("missing");
+
+        assertEquals(0.75, verifiedTokenCache.hitRate(), 0.0001);
+        assertEquals(3.0, meterRegistry.get("cache.gets")
+                .tag("cache", "jwt.verified-tokens")
+                .tag("result", "hit")
+                .functionCounter()
+                .count());
+    }
+
+    private Claims claimsExpiringIn(long millis) {
+        return Jwts.claims()
+                .setSubject("user@test.com")
+                .setExpiration(new Date(System.currentTimeMillis() + millis));
+    }
+}
@@ -0,0 +1,77 @@
+package com.tariff.backend.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+class RoutePolicyTest {
+
+    private final RoutePolicy routePolicy = new RoutePolicy();
+
+    @Test
+    void isPublic_withPreflightOnAnyPath_shouldReturnTrue() {
+        assertTrue(routePolicy.isPublic("OPTIONS", "/api/users/downgrade-role"));
+    }
+
+    @Test
+    void isPublic_withAuthEndpoints_shouldReturnTrue() {
+        assertTrue(routePolicy.isPublic("POST", "/api/users/register"));
+        assertTrue(routePolicy.isPublic("POST", "/api/users/login"));
+        assertTrue(routePolicy.isPublic("POST", "/api/users/logout"));
+        assertTrue(routePolicy.isPublic("POST", "/api/users/refresh"));
+    }
+
+    @Test
+    void isPublic_withWildcardRoutes_shouldMatchNestedPaths() {
+        assertTrue(routePolicy.isPublic("GET", "/swagger-ui/index.html"));
+        assertTrue(routePolicy.isPublic("GET", "/v3/api-docs/swagger-config"));
+        assertTrue(routePolicy.isPublic("DELETE", "/api/products/123"));
+        assertTrue(routePolicy.isPublic("GET", "/api/countries"));
+        assertTrue(routePolicy.isPublic("GET", "/api/predict/jobs/abc/stream"));
+        assertTrue(routePolicy.isPublic("POST", "/api/predict/batch"));
+    }
+
+    @Test
+    void isPublic_withPermitAllRoute_shouldStillRunFilter() {
+        // tariffs are readable by anyone but the filter must run so admins are recognised
+        assertFalse(routePolicy.isPublic("GET", "/api/tariffs/valid-destinations"));
+        assertFalse(routePolicy.isPublic("GET", "/api/users/me"));
+    }
+
+    @Test
+    void isPublic_withProtectedRoutes_shouldReturnFalse() {
+        assertFalse(routePolicy.isPublic("PUT", "/api/users/upgrade-role"));
+        assertFalse(routePolicy.isPublic("DELETE", "/api/users/someone@test.com"));
+        assertFalse(routePolicy.isPublic("GET", "/api/unknown"));
+    }
+
+    @Test
+    void isPublic_withMethodNotCoveredByRule_shouldReturnFalse() {
+        assertFalse(routePolicy.isPublic("GET", "/api/predict"));
+        assertFalse(routePolicy.isPublic("DELETE", "/health"));
+    }
+
+    @Test
+    void isPublic_withRequest_shouldUseMethodAndUri() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/health");
+
+        assertTrue(routePolicy.isPublic(request));
+    }
+
+    @Test
+    void actuator_shouldSkipUserAuthForTheScrapeTokenFilter() {
+        // MetricsScrapeFilter is the gate, a user session would expire under the scraper
+        assertTrue(routePolicy.isPublic("GET", "/actuator/prometheus"));
+        assertTrue(routePolicy.isPublic("GET", "/actuator/health"));
+    }
+
+    @Test
+    void rules_shouldAllHaveRolesWhenRoleRestricted() {
+        for (RoutePolicy.Rule rule : routePolicy.rules()) {
+            if (rule.access() == RoutePolicy.Access.ROLES) {
+                assertTrue(rule.roles().length > 0, rule.pattern());
+            }
+        }
+    }
+}
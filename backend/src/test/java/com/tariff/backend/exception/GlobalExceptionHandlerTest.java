@@ -5,6 +5,7 @@ import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -107,6 +108,18 @@ public class GlobalExceptionHandlerTest {
         assertEquals("Invalid credentials", response.getBody().get("message"));
     }
 
+    @Test
+    public void handleTooManyRequests_shouldReturn429WithRetryAfter() {
+        TooManyRequestsException ex = new TooManyRequestsException("Slow down", 3);
+
+        ResponseEntity<Map<String, String>> response = exceptionHandler.handleTooManyRequests(ex);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("3", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals("Slow down", response.getBody().get("message"));
+    }
+
     @Test
     public void handleInvalidSignature_shouldReturnForbidden() {
         SignatureException ex = mock(SignatureException.class);
@@ -0,0 +1,161 @@
+package com.tariff.backend.loadtest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+// Per-scenario latency histograms (microseconds, 3 significant digits), status codes and
+// client-side failures of one LoadTest run. toJson() is what gets written to load.output,
+// keep its field names stable so results from different runs can be diffed.
+class LoadReport {
+
+  private static final double[] PERCENTILES = { 50, 90, 95, 99, 99.9, 99.99 };
+
+  private final double rate;
+  private final Duration warmup;
+  private final Duration duration;
+  private final Map<LoadTest.Scenario, Integer> mix;
+  private final Instant startedAt = Instant.now();
+  private final Map<LoadTest.Scenario, Stats> stats = new EnumMap<>(LoadTest.Scenario.class);
+  private Instant finishedAt;
+  private long elapsedNanos;
+
+  LoadReport(double rate, Duration warmup, Duration duration, Map<LoadTest.Scenario, Integer> mix) {
+    this.rate = rate;
+    this.warmup = warmup;
+    this.duration = duration;
+    this.mix = mix;
+    for (LoadTest.Scenario scenario : mix.keySet()) {
+      stats.put(scenario, new Stats());
+    }
+  }
+
+  void completed(LoadTest.Scenario scenario, long latencyMicros, int status) {
+    Stats s = stats.get(scenario);
+    s.latency.recordValue(latencyMicros);
+    s.statuses.computeIfAbsent(String.valueOf(status), k -> new LongAdder()).increment();
+    if (status >= 400) {
+      s.errors.increment();
+    }
+  }
+
+  void failed(LoadTest.Scenario scenario, long latencyMicros, String error) {
+    Stats s = stats.get(scenario);
+    s.latency.recordValue(latencyMicros);
+    s.statuses.computeIfAbsent(error, k -> new LongAdder()).increment();
+    s.errors.increment();
+  }
+
+  void dropped(LoadTest.Scenario scenario) {
+    stats.get(scenario).dropped.increment();
+  }
+
+  void finish(Instant finishedAt, long elapsedNanos) {
+    this.finishedAt = finishedAt;
+    this.elapsedNanos = elapsedNanos;
+  }
+
+  Map<String, Object> toJson() {
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("startedAt", startedAt.toString());
+    json.put("finishedAt", finishedAt.toString());
+    json.put("targetRate", rate);
+    json.put("warmupSeconds", warmup.toSeconds());
+    json.put("durationSeconds", duration.toSeconds());
+    Map<String, Integer> weights = new LinkedHashMap<>();
+    mix.forEach((scenario, weight) -> weights.put(scenario.name(), weight));
+    json.put("mix", weights);
+
+    Histogram total = new Histogram(3);
+    long errors = 0;
+    long dropped = 0;
+    Map<String, Object> scenarios = new LinkedHashMap<>();
+    for (Map.Entry<LoadTest.Scenario, Stats> entry : stats.entrySet()) {
+      Stats s = entry.getValue();
+      total.add(s.latency);
+      errors += s.errors.sum();
+      dropped += s.dropped.sum();
+      scenarios.put(entry.getKey().name(), section(s.latency, s.errors.sum(), s.dropped.sum(), s.statusCounts()));
+    }
+    json.put("total", section(total, errors, dropped, null));
+    json.put("scenarios", scenarios);
+    return json;
+  }
+
+  String summary() {
+    StringBuilder out = new StringBuilder(String.format("%n%-14s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+      "scenario", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+    Histogram total = new Histogram(3);
+    long errors = 0;
+    for (Map.Entry<LoadTest.Scenario, Stats> entry : stats.entrySet()) {
+      Stats s = entry.getValue();
+      total.add(s.latency);
+      errors += s.errors.sum();
+      out.append(row(entry.getKey().name(), s.latency, s.errors.sum()));
+    }
+    out.append(row("total", total, errors));
+    return out.toString();
+  }
+
+  private String row(String name, Histogram latency, long errors) {
+    return String.format("%-14s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+      name, latency.getTotalCount(), throughput(latency.getTotalCount()), errorRate(errors, latency.getTotalCount()),
+      millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+      millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)), millis(latency.getMaxValue()));
+  }
+
+  private Map<String, Object> section(Histogram latency, long errors, long dropped, Map<String, Long> statuses) {
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("requests", latency.getTotalCount());
+    section.put("throughput", throughput(latency.getTotalCount()));
+    section.put("errors", errors);
+    section.put("errorRate", errorRate(errors, latency.getTotalCount()) / 100);
+    section.put("dropped", dropped);
+    Map<String, Object> latencyMs = new LinkedHashMap<>();
+    latencyMs.put("min", millis(latency.getMinValue()));
+    latencyMs.put("mean", latency.getMean() / 1000);
+    for (double percentile : PERCENTILES) {
+      latencyMs.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+        millis(latency.getValueAtPercentile(percentile)));
+    }
+    latencyMs.put("max", millis(latency.getMaxValue()));
+    section.put("latencyMs", latencyMs);
+    if (statuses != null) {
+      section.put("statuses", statuses);
+    }
+    return section;
+  }
+
+  private double throughput(long requests) {
+    return elapsedNanos == 0 ? 0 : requests * 1_000_000_000.0 / elapsedNanos;
+  }
+
+  private static double errorRate(long errors, long requests) {
+    return requests == 0 ? 0 : errors * 100.0 / requests;
+  }
+
+  private static double millis(long micros) {
+    return micros / 1000.0;
+  }
+
+  private static final class Stats {
+    final Histogram latency = new ConcurrentHistogram(3);
+    final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+    final LongAdder errors = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+
+    Map<String, Long> statusCounts() {
+      Map<String, Long> counts = new TreeMap<>();
+      statuses.forEach((status, count) -> counts.put(status, count.sum()));
+      return counts;
+    }
+  }
+}
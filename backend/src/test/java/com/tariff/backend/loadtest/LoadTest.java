@@ -0,0 +1,272 @@
+package com.tariff.backend.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tariff.backend.component.SyntheticTariffData;
+import com.tariff.backend.model.Tariff;
+
+// Open-model HTTP load generator for a running backend. Start the app on H2 with synthetic data
+// and an admin for the login scenario:
+//   SPRING_PROFILES_ACTIVE=loadtest ./mvnw spring-boot:run \
+//     -Dspring-boot.run.arguments="--synthetic-data.admin-email=<email> --synthetic-data.admin-password=<password>"
+// then from the backend folder:
+//   ./mvnw -Ploadtest test-compile exec:java -Dload.rate=200 -Dload.duration-seconds=60 \
+//     -Dload.email=<email> -Dload.password=<password>
+// Requests are fired on a Poisson schedule at load.rate per second whether or not earlier ones
+// came back (open model), and latency is measured from the scheduled start, so a stalling server
+// shows up in the percentiles instead of silently slowing the client down (coordinated omission).
+// Request keys come from the same SyntheticTariffData spec the app loaded (load.synthetic-*
+// must match synthetic-data.*), so lookups hit real rows.
+// Settings (system properties, defaults in brackets):
+//   load.base-url [http://localhost:8080]   load.rate [100]   load.duration-seconds [60]
+//   load.warmup-seconds [10]   load.max-in-flight [1000]   load.timeout-ms [10000]   load.seed [1]
+//   load.mix [particular=70,destinations=20,login=8,tariffs=2]
+//   load.email / load.password [required, the synthetic admin]   load.output [target/loadtest-result.json]
+public class LoadTest {
+
+  enum Scenario { particular, destinations, tariffs, login }
+
+  record Key(String productName, String origin, String dest, String date) {}
+
+  private final URI baseUrl;
+  private final double rate;
+  private final Duration warmup;
+  private final Duration duration;
+  private final int maxInFlight;
+  private final Duration timeout;
+  private final Map<Scenario, Integer> mix;
+  private final String email;
+  private final String password;
+  private final Random random;
+  private final List<Key> keys;
+
+  private final HttpClient client = HttpClient.newBuilder()
+    .version(HttpClient.Version.HTTP_1_1)
+    .connectTimeout(Duration.ofSeconds(5))
+    .executor(Executors.newVirtualThreadPerTaskExecutor())
+    .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private String authToken;
+
+  LoadTest(URI baseUrl, double rate, Duration warmup, Duration duration, int maxInFlight, Duration timeout,
+      Map<Scenario, Integer> mix, String email, String password, long seed, List<Key> keys) {
+    this.baseUrl = baseUrl;
+    this.rate = rate;
+    this.warmup = warmup;
+    this.duration = duration;
+    this.maxInFlight = maxInFlight;
+    this.timeout = timeout;
+    this.mix = mix;
+    this.email = email;
+    this.password = password;
+    this.random = new Random(seed);
+    this.keys = keys;
+  }
+
+  public static void main(String[] args) throws Exception {
+    SyntheticTariffData data = new SyntheticTariffData(new SyntheticTariffData.Spec(
+      Long.getLong("load.synthetic-seed", 42),
+      Integer.getInteger("load.synthetic-countries", 200),
+      Integer.getInteger("load.synthetic-products", 50),
+      Integer.getInteger("load.synthetic-routes-per-product", 2000),
+      Integer.getInteger("load.synthetic-first-year", 1988),
+      Integer.getInteger("load.synthetic-last-year", 2024)));
+
+    LoadTest loadTest = new LoadTest(
+      URI.create(System.getProperty("load.base-url", "http://localhost:8080")),
+      Double.parseDouble(System.getProperty("load.rate", "100")),
+      Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10)),
+      Duration.ofSeconds(Long.getLong("load.duration-seconds", 60)),
+      Integer.getInteger("load.max-in-flight", 1000),
+      Duration.ofMillis(Long.getLong("load.timeout-ms", 10_000)),
+      parseMix(System.getProperty("load.mix", "particular=70,destinations=20,login=8,tariffs=2")),
+      requiredProperty("load.email"),
+      requiredProperty("load.password"),
+      Long.getLong("load.seed", 1),
+      sampleKeys(data, 10_000));
+
+    LoadReport report = loadTest.run();
+
+    Path output = Path.of(System.getProperty("load.output", "target/loadtest-result.json"));
+    if (output.getParent() != null) {
+      Files.createDirectories(output.getParent());
+    }
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report.toJson());
+    System.out.println(report.summary());
+    System.out.println("Results written to " + output.toAbsolutePath());
+    System.exit(0);
+  }
+
+  LoadReport run() throws IOException, InterruptedException {
+    authToken = login();
+
+    LoadReport report = new LoadReport(rate, warmup, duration, mix);
+    long start = System.nanoTime();
+    long measureFrom = start + warmup.toNanos();
+    long end = measureFrom + duration.toNanos();
+    int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    System.out.printf("Running %.0f req/s for %ds (+%ds warmup) against %s%n",
+      rate, duration.toSeconds(), warmup.toSeconds(), baseUrl);
+
+    long scheduled = start;
+    while (scheduled < end) {
+      long wait = scheduled - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      Scenario scenario = pick(totalWeight);
+      boolean measured = scheduled >= measureFrom;
+      if (inFlight.get() >= maxInFlight) {
+        // the client can't keep the schedule, count it instead of queueing behind the server
+        if (measured) {
+          report.dropped(scenario);
+        }
+      } else {
+        send(scenario, scheduled, measured ? report : null);
+      }
+      // exponential inter-arrival times = Poisson arrivals
+      scheduled += (long) (-Math.log(1 - random.nextDouble()) / rate * 1_000_000_000L);
+    }
+
+    long drainUntil = System.nanoTime() + timeout.toNanos();
+    while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+      Thread.sleep(10);
+    }
+    report.finish(Instant.now(), System.nanoTime() - measureFrom);
+    return report;
+  }
+
+  private void send(Scenario scenario, long scheduled, LoadReport report) {
+    inFlight.incrementAndGet();
+    client.sendAsync(request(scenario), HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+      inFlight.decrementAndGet();
+      if (report == null) {
+        return;
+      }
+      long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled);
+      if (error != null) {
+        report.failed(scenario, latencyMicros, error.getClass().getSimpleName());
+      } else {
+        report.completed(scenario, latencyMicros, response.statusCode());
+      }
+    });
+  }
+
+  private HttpRequest request(Scenario scenario) {
+    Key key = keys.get(random.nextInt(keys.size()));
+    HttpRequest.Builder builder = switch (scenario) {
+      case particular -> post("/api/tariffs/particular-tariff-rate", Map.of(
+        "productName", key.productName(),
+        "originCountry", key.origin(),
+        "destCountry", key.dest(),
+        "date", key.date()));
+      case destinations -> HttpRequest.newBuilder(baseUrl.resolve("/api/tariffs/valid-destinations?originCountry="
+        + encode(key.origin()) + "&productName=" + encode(key.productName()))).GET();
+      case tariffs -> HttpRequest.newBuilder(baseUrl.resolve("/api/tariffs")).GET();
+      case login -> post("/api/users/login", Map.of("email", email, "password", password));
+    };
+    if (scenario != Scenario.login) {
+      builder.header("Cookie", "auth_token=" + authToken);
+    }
+    return builder.timeout(timeout).build();
+  }
+
+  private HttpRequest.Builder post(String path, Map<String, String> body) {
+    try {
+      return HttpRequest.newBuilder(baseUrl.resolve(path))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private String login() throws IOException, InterruptedException {
+    HttpResponse<String> response = client.send(post("/api/users/login", Map.of("email", email, "password", password))
+      .timeout(timeout).build(), HttpResponse.BodyHandlers.ofString());
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("Login as " + email + " failed with " + response.statusCode()
+        + ", is the app running with the loadtest profile?");
+    }
+    return objectMapper.readTree(response.body()).get("token").asText();
+  }
+
+  private Scenario pick(int totalWeight) {
+    int roll = random.nextInt(totalWeight);
+    for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+      roll -= entry.getValue();
+      if (roll < 0) {
+        return entry.getKey();
+      }
+    }
+    throw new IllegalStateException("empty mix");
+  }
+
+  // "particular=70,destinations=20" -> ordered weights
+  static Map<Scenario, Integer> parseMix(String mix) {
+    Map<Scenario, Integer> weights = new LinkedHashMap<>();
+    for (String entry : mix.split(",")) {
+      String[] parts = entry.trim().split("=");
+      int weight = Integer.parseInt(parts[1].trim());
+      if (weight > 0) {
+        weights.put(Scenario.valueOf(parts[0].trim()), weight);
+      }
+    }
+    if (weights.isEmpty()) {
+      throw new IllegalArgumentException("load.mix has no scenario with a positive weight");
+    }
+    return weights;
+  }
+
+  // every n-th generated tariff, dated mid-year so the lookup falls inside its validity
+  static List<Key> sampleKeys(SyntheticTariffData data, int max) {
+    List<Key> keys = new ArrayList<>(max);
+    int[] seen = { 0 };
+    data.forEachTariff(tariff -> {
+      if (seen[0]++ % 7 == 0 && keys.size() < max) {
+        keys.add(key(tariff));
+      }
+    });
+    return keys;
+  }
+
+  private static Key key(Tariff tariff) {
+    return new Key(tariff.getProducts().iterator().next().getName(), tariff.getOriginCountry().getCode(),
+      tariff.getDestCountry().getCode(), tariff.getEffectiveDate().plusMonths(6).toString());
+  }
+
+  // the admin credentials are passed in, never defaulted, like the app's synthetic-data.admin-*
+  private static String requiredProperty(String name) {
+    String value = System.getProperty(name);
+    if (value == null || value.isBlank()) {
+      throw new IllegalArgumentException("-D" + name + " is required");
+    }
+    return value;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,56 @@
+package com.tariff.backend.repository;
+
+import com.tariff.backend.model.RefreshToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class RefreshTokenRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void findByTokenHash_shouldReturnStoredToken() {
+        entityManager.persist(new RefreshToken("a".repeat(64), "user@user.com", 0, Instant.now().plusSeconds(60)));
+
+        assertTrue(refreshTokenRepository.findByTokenHash("a".repeat(64)).isPresent());
+        assertTrue(refreshTokenRepository.findByTokenHash("b".repeat(64)).isEmpty());
+    }
+
+    @Test
+    void deleteByTokenHash_shouldOnlyDeleteOnce() {
+        entityManager.persist(new RefreshToken("a".repeat(64), "user@user.com", 0, Instant.now().plusSeconds(60)));
+
+        assertEquals(1, refreshTokenRepository.deleteByTokenHash("a".repeat(64)));
+        assertEquals(0, refreshTokenRepository.deleteByTokenHash("a".repeat(64)));
+    }
+
+    @Test
+    void deleteByUserEmail_shouldOnlyDeleteThatUsersTokens() {
+        entityManager.persist(new RefreshToken("a".repeat(64), "user@user.com", 0, Instant.now().plusSeconds(60)));
+        entityManager.persist(new RefreshToken("b".repeat(64), "user@user.com", 0, Instant.now().plusSeconds(60)));
+        entityManager.persist(new RefreshToken("c".repeat(64), "other@user.com", 0, Instant.now().plusSeconds(60)));
+
+        assertEquals(2, refreshTokenRepository.deleteByUserEmail("user@user.com"));
+        assertTrue(refreshTokenRepository.findByTokenHash("c".repeat(64)).isPresent());
+    }
+
+    @Test
+    void deleteExpired_shouldKeepLiveTokens() {
+        entityManager.persist(new RefreshToken("a".repeat(64), "user@user.com", 0, Instant.now().minusSeconds(60)));
+        entityManager.persist(new RefreshToken("b".repeat(64), "user@user.com", 0, Instant.now().plusSeconds(60)));
+
+        assertEquals(1, refreshTokenRepository.deleteExpired(Instant.now()));
+        assertTrue(refreshTokenRepository.findByTokenHash("b".repeat(64)).isPresent());
+    }
+}
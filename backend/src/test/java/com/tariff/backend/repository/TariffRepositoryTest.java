@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -339,4 +340,49 @@ class TariffRepositoryTest {
 
         assertTrue(results.isEmpty());
     }
+
+    @Test
+    void findActiveByHtsCodes_shouldSkipDisabledAndExpiredTariffs() {
+        Tariff active = tariff(chinaCountry, usaCountry, LocalDate.of(2024, 1, 1), null, enabledProduct);
+        tariff(chinaCountry, usaCountry, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31), enabledProduct);
+        tariff(chinaCountry, usaCountry, LocalDate.of(2024, 1, 1), null, disabledProduct);
+
+        List<Tariff> result = tariffRepository.findActiveByHtsCodes(
+                List.of("1234.56.78", "9876.54.32"), LocalDate.of(2024, 6, 15), Limit.of(10));
+
+        assertEquals(1, result.size());
+        assertEquals(active.getId(), result.get(0).getId());
+    }
+
+    @Test
+    void findActiveByHtsCodesAndCountries_shouldMatchEitherSide() {
+        Country germany = new Country();
+        germany.setCode("DE");
+        germany.setName("Germany");
+        entityManager.persist(germany);
+        Tariff fromChina = tariff(chinaCountry, usaCountry, LocalDate.of(2024, 1, 1), null, enabledProduct);
+        Tariff toChina = tariff(usaCountry, chinaCountry, LocalDate.of(2024, 1, 1), null, enabledProduct);
+        tariff(germany, usaCountry, LocalDate.of(2024, 1, 1), null, enabledProduct);
+
+        List<Tariff> result = tariffRepository.findActiveByHtsCodesAndCountries(
+                List.of("1234.56.78"), List.of("CN"), LocalDate.of(2024, 6, 15), Limit.of(10));
+
+        assertEquals(Set.of(fromChina.getId(), toChina.getId()),
+                Set.copyOf(result.stream().map(Tariff::getId).toList()));
+        assertEquals(1, tariffRepository.findActiveByHtsCodesAndCountries(
+                List.of("1234.56.78"), List.of("CN"), LocalDate.of(2024, 6, 15), Limit.of(1)).size());
+    }
+
+    private Tariff tariff(Country origin, Country dest, LocalDate effective, LocalDate expiry, Product product) {
+        Tariff tariff = new Tariff();
+        tariff.setOriginCountry(origin);
+        tariff.setDestCountry(dest);
+        tariff.setEffectiveDate(effective);
+        tariff.setExpiryDate(expiry);
+        tariff.setAdValoremRate(10.0);
+        tariff.setProducts(new HashSet<>(Set.of(product)));
+        entityManager.persist(tariff);
+        entityManager.flush();
+        return tariff;
+    }
 }
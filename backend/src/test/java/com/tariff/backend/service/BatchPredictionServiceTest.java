@@ -0,0 +1,255 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.exception.BadRequestException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+class BatchPredictionServiceTest {
+
+  @Mock
+  private PredictionService predictionService;
+
+  private BatchPredictionService batchPredictionService;
+
+  @AfterEach
+  void tearDown() {
+    if (batchPredictionService != null) {
+      batchPredictionService.shutdown();
+    }
+  }
+
+  @Test
+  void identicalFilesShouldBePredictedOnce() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 2, 100, 2, 5000, 5);
+    byte[] notice = { 1, 2, 3 };
+    byte[] other = { 4, 5, 6 };
+    answerWithPrompt(notice, "notice prompt", "notice prediction");
+    answerWithPrompt(other, "other prompt", "other prediction");
+
+    List<BatchPredictionService.DocumentResult> results = runAndCollect(List.of(
+      new BatchPredictionService.Upload("a.pdf", notice),
+      new BatchPredictionService.Upload("b.pdf", other),
+      new BatchPredictionService.Upload("a-copy.pdf", notice.clone())
+    ));
+
+    assertThat(results).hasSize(3);
+    assertThat(results).filteredOn(r -> r.index() == 2).singleElement().satisfies(copy -> {
+      assertThat(copy.fileName()).isEqualTo("a-copy.pdf");
+      assertThat(copy.prediction()).isEqualTo("notice prediction");
+      assertThat(copy.duplicateOf()).isZero();
+    });
+    assertThat(results).filteredOn(r -> r.index() == 1).singleElement().satisfies(b -> {
+      assertThat(b.prediction()).isEqualTo("other prediction");
+      assertThat(b.duplicateOf()).isNull();
+    });
+    verify(predictionService, times(1)).prepare(eq(notice), eq("Germany"));
+    verify(predictionService, times(2)).complete(any(), any());
+  }
+
+  @Test
+  void resultsShouldBeReportedAsEachDocumentFinishes() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 2, 100, 2, 5000, 5);
+    byte[] slow = { 1 };
+    byte[] fast = { 2 };
+    CountDownLatch releaseSlow = new CountDownLatch(1);
+    when(predictionService.prepare(eq(slow), any())).thenAnswer(invocation -> {
+      releaseSlow.await(5, TimeUnit.SECONDS);
+      return cached("slow prediction");
+    });
+    when(predictionService.prepare(eq(fast), any())).thenReturn(cached("fast prediction"));
+
+    List<BatchPredictionService.DocumentResult> results = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch fastReported = new CountDownLatch(1);
+    var batch = batchPredictionService.run(
+      List.of(new BatchPredictionService.Upload("slow.pdf", slow), new BatchPredictionService.Upload("fast.pdf", fast)),
+      "Germany",
+      result -> {
+        results.add(result);
+        fastReported.countDown();
+      }
+    );
+
+    // the fast one is out while the slow one is still extracting
+    assertThat(fastReported.await(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(results).extracting(BatchPredictionService.DocumentResult::fileName).containsExactly("fast.pdf");
+    assertThat(batch).isNotDone();
+
+    releaseSlow.countDown();
+    batch.get(5, TimeUnit.SECONDS);
+    assertThat(results).extracting(BatchPredictionService.DocumentResult::fileName).containsExactly("fast.pdf", "slow.pdf");
+  }
+
+  @Test
+  void extractionShouldRunInParallelOnTheBoundedPool() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 2, 100, 4, 5000, 5);
+    ConcurrencyProbe extracting = new ConcurrencyProbe();
+    when(predictionService.prepare(any(), any())).thenAnswer(invocation -> extracting.during(() -> cached("prediction")));
+
+    List<BatchPredictionService.DocumentResult> results = runAndCollect(uploads(6));
+
+    assertThat(results).hasSize(6);
+    assertThat(extracting.max()).isEqualTo(2);
+  }
+
+  @Test
+  void modelCallsShouldRunConcurrentlyUnderTheLimit() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 4, 100, 3, 5000, 5);
+    ConcurrencyProbe calling = new ConcurrencyProbe();
+    when(predictionService.prepare(any(), any()))
+      .thenReturn(new PredictionService.PreparedPrediction("key", "Germany", null, List.of("page"), null));
+    // PredictionService.complete takes one of the batch's permits per model call
+    when(predictionService.complete(any(), any())).thenAnswer(invocation -> {
+      Semaphore permits = invocation.getArgument(1);
+      permits.acquire();
+      try {
+        return calling.during(() -> "prediction");
+      } finally {
+        permits.release();
+      }
+    });
+
+    List<BatchPredictionService.DocumentResult> results = runAndCollect(uploads(10));
+
+    assertThat(results).hasSize(10).allSatisfy(r -> assertThat(r.prediction()).isEqualTo("prediction"));
+    assertThat(calling.max()).isEqualTo(3);
+  }
+
+  @Test
+  void modelCallsShouldShareOneSetOfPermitsPerBatch() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 2, 100, 3, 5000, 5);
+    when(predictionService.prepare(any(), any()))
+      .thenReturn(new PredictionService.PreparedPrediction("key", "Germany", null, List.of("page"), null));
+    Set<Semaphore> seen = ConcurrentHashMap.newKeySet();
+    when(predictionService.complete(any(), any())).thenAnswer(invocation -> {
+      seen.add(invocation.getArgument(1));
+      return "prediction";
+    });
+
+    runAndCollect(uploads(4));
+
+    assertThat(seen).singleElement().satisfies(permits -> assertThat(permits.availablePermits()).isEqualTo(3));
+  }
+
+  @Test
+  void batchesBeyondTheExtractQueueShouldBeRejected() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 2, 1, 3, 2, 5000, 7);
+    CountDownLatch release = new CountDownLatch(1);
+    when(predictionService.prepare(any(), any())).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return cached("prediction");
+    });
+
+    var first = batchPredictionService.run(uploads(2), "Germany", result -> { });
+
+    // 2 of 3 slots taken, a second batch of 2 doesn't fit and nothing of it starts
+    assertThatThrownBy(() -> batchPredictionService.run(uploads(2), "Germany", result -> { }))
+      .isInstanceOfSatisfying(TooManyRequestsException.class, e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(7));
+    verify(predictionService, timeout(1000).times(1)).prepare(any(), any());
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    assertThat(runAndCollect(uploads(2))).hasSize(2);
+  }
+
+  @Test
+  void aFailedDocumentShouldNotFailTheBatch() throws Exception {
+    batchPredictionService = new BatchPredictionService(predictionService, 20, 2, 100, 2, 5000, 5);
+    byte[] broken = { 9 };
+    byte[] fine = { 1 };
+    when(predictionService.prepare(eq(broken), any())).thenThrow(new RuntimeException("Failed to parse PDF file"));
+    when(predictionService.prepare(eq(fine), any())).thenReturn(cached("fine prediction"));
+    when(predictionService.complete(any(), any()))
+      .thenAnswer(invocation -> invocation.<PredictionService.PreparedPrediction>getArgument(0).answer());
+
+    List<BatchPredictionService.DocumentResult> results = runAndCollect(List.of(
+      new BatchPredictionService.Upload("broken.pdf", broken),
+      new BatchPredictionService.Upload("fine.pdf", fine)
+    ));
+
+    assertThat(results).filteredOn(r -> r.index() == 0).singleElement().satisfies(r -> {
+      assertThat(r.prediction()).isNull();
+      assertThat(r.error()).isEqualTo("Failed to parse PDF file");
+    });
+    assertThat(results).filteredOn(r -> r.index() == 1).singleElement()
+      .satisfies(r -> assertThat(r.prediction()).isEqualTo("fine prediction"));
+  }
+
+  @Test
+  void tooManyFilesShouldBeRejected() {
+    batchPredictionService = new BatchPredictionService(predictionService, 1, 1, 100, 1, 5000, 5);
+
+    assertThatThrownBy(() -> batchPredictionService.stream(List.of(
+      mock(MultipartFile.class),
+      mock(MultipartFile.class)
+    ), null)).isInstanceOf(BadRequestException.class).hasMessage("At most 1 files per batch.");
+  }
+
+  private List<BatchPredictionService.DocumentResult> runAndCollect(List<BatchPredictionService.Upload> uploads) throws Exception {
+    List<BatchPredictionService.DocumentResult> results = Collections.synchronizedList(new ArrayList<>());
+    batchPredictionService.run(uploads, "Germany", results::add).get(5, TimeUnit.SECONDS);
+    return results;
+  }
+
+  private static List<BatchPredictionService.Upload> uploads(int count) {
+    List<BatchPredictionService.Upload> uploads = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      uploads.add(new BatchPredictionService.Upload("doc" + i + ".pdf", new byte[] { (byte) i }));
+    }
+    return uploads;
+  }
+
+  private void answerWithPrompt(byte[] pdf, String prompt, String prediction) {
+    PredictionService.PreparedPrediction prepared = new PredictionService.PreparedPrediction("key", "Germany", null, List.of(prompt), null);
+    when(predictionService.prepare(eq(pdf), eq("Germany"))).thenReturn(prepared);
+    when(predictionService.complete(eq(prepared), any())).thenReturn(prediction);
+  }
+
+  private static PredictionService.PreparedPrediction cached(String answer) {
+    return new PredictionService.PreparedPrediction("key", "Germany", null, null, answer);
+  }
+
+  private static final class ConcurrencyProbe {
+    private final AtomicInteger current = new AtomicInteger();
+    private final AtomicInteger max = new AtomicInteger();
+
+    <T> T during(Supplier<T> work) throws InterruptedException {
+      max.accumulateAndGet(current.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(100);
+        return work.get();
+      } finally {
+        current.decrementAndGet();
+      }
+    }
+
+    int max() {
+      return max.get();
+    }
+  }
+}
@@ -6,6 +6,7 @@ import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
@@ -14,6 +15,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.security.Key;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
@@ -40,6 +42,7 @@ class JwtServiceTest {
         // Set the secret key and expiration using reflection
         ReflectionTestUtils.setField(jwtService, "secretKey", testSecretKey);
         ReflectionTestUtils.setField(jwtService, "jwtExpiration", testExpiration);
+        jwtService.init();
     }
 
     @Test
@@ -219,6 +222,79 @@ class JwtServiceTest {
         assertEquals("multi@example.com", username);
     }
 
+    @Test
+    void verifyToken_shouldReturnClaimsInSinglePass() {
+        UserDetails userDetails = User.builder()
+                .username("single@example.com")
+                .password("password")
+                .authorities(new ArrayList<>())
+                .build();
+        String token = jwtService.generateToken(userDetails);
+
+        Claims claims = jwtService.verifyToken(token);
+
+        assertEquals("single@example.com", claims.getSubject());
+        assertTrue(jwtService.isTokenValid(claims, userDetails));
+    }
+
+    @Test
+    void verifyToken_withTokenSignedByOtherKey_shouldThrow() {
+        byte[] otherKeyBytes = new byte[32];
+        Arrays.fill(otherKeyBytes, (byte) 7);
+        String forgedToken = Jwts.builder()
+                .setSubject("forged@example.com")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(otherKeyBytes), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(SignatureException.class, () -> jwtService.verifyToken(forgedToken));
+    }
+
+    @Test
+    void isTokenValid_withClaimsOfDifferentUser_shouldReturnFalse() {
+        UserDetails owner = User.builder()
+                .username("owner@example.com")
+                .password("password")
+                .authorities(new ArrayList<>())
+                .build();
+        UserDetails other = User.builder()
+                .username("other@example.com")
+                .password("password")
+                .authorities(new ArrayList<>())
+                .build();
+
+        Claims claims = jwtService.verifyToken(jwtService.generateToken(owner));
+
+        assertFalse(jwtService.isTokenValid(claims, other));
+    }
+
+    @Test
+    void generateToken_inStatelessMode_shouldCarryRoleAndGeneration() {
+        ReflectionTestUtils.setField(jwtService, "statelessRoles", true);
+        com.tariff.backend.model.User user =
+                new com.tariff.backend.model.User("stateless@example.com", "hash", com.tariff.backend.model.User.Role.ADMIN);
+        user.bumpTokenGeneration();
+
+        Claims claims = jwtService.verifyToken(jwtService.generateToken(user));
+
+        assertTrue(jwtService.hasRoleClaims(claims));
+        assertEquals(1L, jwtService.extractGeneration(claims));
+        com.tariff.backend.model.User principal = jwtService.principalFromClaims(claims);
+        assertEquals("stateless@example.com", principal.getUsername());
+        assertEquals(com.tariff.backend.model.User.Role.ADMIN, principal.getRole());
+        assertNull(principal.getPassword());
+    }
+
+    @Test
+    void generateToken_withStatelessModeOff_shouldNotCarryRoleClaims() {
+        com.tariff.backend.model.User user =
+                new com.tariff.backend.model.User("stateful@example.com", "hash", com.tariff.backend.model.User.Role.USER);
+
+        Claims claims = jwtService.verifyToken(jwtService.generateToken(user));
+
+        assertFalse(jwtService.hasRoleClaims(claims));
+    }
+
     // Helper method to get the signing key for verification
     private Key getSignInKey() {
         byte[] keyBytes = Decoders.BASE64.decode(testSecretKey);
@@ -0,0 +1,126 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LoginAttemptServiceTest {
+
+  private MutableClock clock;
+  private LoginAttemptService loginAttemptService;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    // 3 failures per email / 5 per source within 60s, lockout 10s doubling up to 40s
+    loginAttemptService = new LoginAttemptService(3, 5, 60, 10, 40, 1000, new SimpleMeterRegistry(), clock);
+  }
+
+  @Test
+  void shouldAllowUntilEmailLimitIsReached() {
+    fail("user@user.com", "10.0.0.1", 2);
+    assertThatCode(() -> loginAttemptService.checkAllowed("user@user.com", "10.0.0.1")).doesNotThrowAnyException();
+
+    fail("user@user.com", "10.0.0.1", 1);
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("user@user.com", "10.0.0.9"))
+      .isInstanceOf(TooManyRequestsException.class)
+      .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(10));
+  }
+
+  @Test
+  void emailKeyShouldIgnoreCase() {
+    fail("User@User.com", "10.0.0.1", 3);
+
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("user@user.com", "10.0.0.2"))
+      .isInstanceOf(TooManyRequestsException.class);
+  }
+
+  @Test
+  void failuresOutsideWindowShouldNotCount() {
+    fail("user@user.com", "10.0.0.1", 2);
+    clock.advance(Duration.ofSeconds(61));
+    fail("user@user.com", "10.0.0.1", 1);
+
+    assertThatCode(() -> loginAttemptService.checkAllowed("user@user.com", "10.0.0.1")).doesNotThrowAnyException();
+  }
+
+  @Test
+  void lockoutShouldExpireAndDoubleOnRepeat() {
+    fail("user@user.com", "10.0.0.1", 3);
+    clock.advance(Duration.ofSeconds(11));
+    assertThatCode(() -> loginAttemptService.checkAllowed("user@user.com", null)).doesNotThrowAnyException();
+
+    fail("user@user.com", null, 3);
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("user@user.com", null))
+      .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(20));
+
+    clock.advance(Duration.ofSeconds(21));
+    fail("user@user.com", null, 3);
+    clock.advance(Duration.ofSeconds(21));
+    fail("user@user.com", null, 3);
+    // capped at max-lockout
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("user@user.com", null))
+      .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(40));
+  }
+
+  @Test
+  void sourceSprayingManyEmailsShouldBeLockedOut() {
+    for (int i = 0; i < 5; i++) {
+      fail("user" + i + "@user.com", "10.0.0.1", 1);
+    }
+
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("fresh@user.com", "10.0.0.1"))
+      .isInstanceOf(TooManyRequestsException.class);
+    assertThatCode(() -> loginAttemptService.checkAllowed("fresh@user.com", "10.0.0.2")).doesNotThrowAnyException();
+  }
+
+  @Test
+  void successShouldResetEmailButNotSource() {
+    fail("user@user.com", "10.0.0.1", 2);
+    loginAttemptService.recordSuccess("user@user.com");
+    fail("user@user.com", "10.0.0.1", 2);
+    assertThatCode(() -> loginAttemptService.checkAllowed("user@user.com", "10.0.0.1")).doesNotThrowAnyException();
+
+    fail("other@user.com", "10.0.0.1", 1);
+    assertThatThrownBy(() -> loginAttemptService.checkAllowed("new@user.com", "10.0.0.1"))
+      .isInstanceOf(TooManyRequestsException.class);
+  }
+
+  private void fail(String email, String source, int times) {
+    for (int i = 0; i < times; i++) {
+      loginAttemptService.recordFailure(email, source);
+    }
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
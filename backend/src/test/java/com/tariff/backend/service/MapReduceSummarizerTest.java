@@ -0,0 +1,138 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.genai.Client;
+import com.tariff.backend.component.LlmBulkhead;
+import com.tariff.backend.config.GeminiClientConfig;
+import com.tariff.backend.support.StubGeminiServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+// Chunk summaries come from a local stub model (StubGeminiServer)
+class MapReduceSummarizerTest {
+
+  private static final Pattern SECTION = Pattern.compile("section (\\d+) of (\\d+)");
+
+  private static StubGeminiServer stubServer;
+  private static Client geminiClient;
+
+  @BeforeAll
+  static void startStub() throws IOException {
+    stubServer = new StubGeminiServer();
+    geminiClient = GeminiClientConfig.buildClient("test-api-key", stubServer.baseUrl(), 2000, 5000, 8, 0);
+  }
+
+  @AfterAll
+  static void stopStub() {
+    geminiClient.close();
+    stubServer.close();
+  }
+
+  @BeforeEach
+  void setUp() {
+    stubServer.requests().clear();
+    stubServer.resetConcurrency();
+    stubServer.delay(0);
+    stubServer.respondWith(body -> {
+      Matcher matcher = SECTION.matcher(body);
+      return matcher.find() ? "summary " + matcher.group(1) + "/" + matcher.group(2) : "no section";
+    });
+  }
+
+  @Test
+  void chunkShouldPackConsecutivePagesUpToTheLimit() {
+    List<String> chunks = MapReduceSummarizer.chunk(List.of("aaaa", "bbb", "cc", "dddd"), 8);
+
+    assertThat(chunks).containsExactly("aaaabbb", "ccdddd");
+  }
+
+  @Test
+  void chunkShouldSplitPagesLongerThanTheLimit() {
+    List<String> chunks = MapReduceSummarizer.chunk(List.of("ab", "0123456789", "cd"), 4);
+
+    assertThat(chunks).containsExactly("ab", "0123", "4567", "89cd");
+    assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(4));
+  }
+
+  @Test
+  void fitsInOneChunkShouldCompareTotalLength() {
+    MapReduceSummarizer summarizer = new MapReduceSummarizer(geminiClient, bulkhead(), 10, 2);
+
+    assertThat(summarizer.fitsInOneChunk(List.of("12345", "67890"))).isTrue();
+    assertThat(summarizer.fitsInOneChunk(List.of("12345", "678901"))).isFalse();
+  }
+
+  @Test
+  void summarizeShouldReturnSummariesInPageOrder() {
+    MapReduceSummarizer summarizer = new MapReduceSummarizer(geminiClient, bulkhead(), 10, 4);
+
+    List<String> summaries = summarizer.summarize(List.of("page one.", "page two.", "page three"), "Germany");
+
+    assertThat(summaries).containsExactly("summary 1/3", "summary 2/3", "summary 3/3");
+    assertThat(stubServer.requests()).hasSize(3);
+    assertThat(stubServer.requests()).allSatisfy(request -> assertThat(request.body()).contains("relevant to Germany"));
+  }
+
+  @Test
+  void summarizeShouldNeverExceedTheConcurrencyLimit() {
+    MapReduceSummarizer summarizer = new MapReduceSummarizer(geminiClient, bulkhead(), 5, 2);
+    stubServer.delay(100);
+
+    List<String> summaries = summarizer.summarize(List.of("11111", "22222", "33333", "44444", "55555", "66666"), null);
+
+    assertThat(summaries).hasSize(6);
+    assertThat(stubServer.maxConcurrentRequests()).isEqualTo(2);
+  }
+
+  @Test
+  void summarizeShouldTakeTheCallersPermitsInsteadOfItsOwn() {
+    // per-document concurrency is 4, the batch has one permit left
+    MapReduceSummarizer summarizer = new MapReduceSummarizer(geminiClient, bulkhead(), 5, 4);
+    Semaphore batchPermits = new Semaphore(1);
+    stubServer.delay(50);
+
+    List<String> summaries = summarizer.summarize(List.of("11111", "22222", "33333", "44444"), null, batchPermits);
+
+    assertThat(summaries).hasSize(4);
+    assertThat(stubServer.maxConcurrentRequests()).isEqualTo(1);
+    assertThat(batchPermits.availablePermits()).isEqualTo(1);
+  }
+
+  @Test
+  void summarizeShouldGoThroughTheSharedBulkhead() {
+    // per-document concurrency is 4, the app-wide bulkhead only lets one call out at a time
+    LlmBulkhead singleCall = new LlmBulkhead(1, 10, 10_000, 5, new SimpleMeterRegistry());
+    MapReduceSummarizer summarizer = new MapReduceSummarizer(geminiClient, singleCall, 5, 4);
+    stubServer.delay(50);
+
+    List<String> summaries = summarizer.summarize(List.of("11111", "22222", "33333", "44444"), null);
+
+    assertThat(summaries).hasSize(4);
+    assertThat(stubServer.maxConcurrentRequests()).isEqualTo(1);
+  }
+
+  @Test
+  void summarizeShouldFailWhenAChunkFails() {
+    try (Client unreachable = GeminiClientConfig.buildClient("test-api-key", "http://127.0.0.1:1", 200, 200, 2, 0)) {
+      MapReduceSummarizer summarizer = new MapReduceSummarizer(unreachable, bulkhead(), 5, 2);
+
+      assertThatThrownBy(() -> summarizer.summarize(List.of("11111", "22222"), null))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessage("Failed to summarize the document");
+    }
+  }
+
+  private static LlmBulkhead bulkhead() {
+    return new LlmBulkhead(16, 32, 10_000, 5, new SimpleMeterRegistry());
+  }
+}
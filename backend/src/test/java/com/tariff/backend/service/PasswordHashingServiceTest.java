@@ -0,0 +1,95 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingServiceTest {
+
+  @Mock
+  private BCryptPasswordEncoder passwordEncoder;
+
+  private SimpleMeterRegistry meterRegistry;
+  private PasswordHashingService passwordHashingService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    // one worker + one queue slot so saturation is easy to reach
+    passwordHashingService = new PasswordHashingService(passwordEncoder, 1, 1, 2, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Test
+  void encodeAndMatchesShouldDelegateToEncoder() {
+    when(passwordEncoder.encode("Password1")).thenReturn("hash");
+    when(passwordEncoder.matches("Password1", "hash")).thenReturn(true);
+
+    assertThat(passwordHashingService.encode("Password1")).isEqualTo("hash");
+    assertThat(passwordHashingService.matches("Password1", "hash")).isTrue();
+    assertThat(meterRegistry.get("auth.password.hash").tag("operation", "encode").timer().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("auth.password.hash").tag("operation", "matches").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  void encoderExceptionsShouldReachTheCaller() {
+    when(passwordEncoder.encode("Password1")).thenThrow(new IllegalArgumentException("boom"));
+
+    assertThatThrownBy(() -> passwordHashingService.encode("Password1"))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("boom");
+  }
+
+  @Test
+  void shouldRejectWithRetryAfterWhenPoolAndQueueAreFull() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(passwordEncoder.matches("slow", "hash")).thenAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return true;
+    });
+
+    // first attempt occupies the only worker, second sits in the queue
+    CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordHashingService.matches("slow", "hash"));
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordHashingService.matches("slow", "hash"));
+    waitForQueueDepth(1);
+
+    assertThatThrownBy(() -> passwordHashingService.matches("slow", "hash"))
+      .isInstanceOf(TooManyRequestsException.class)
+      .satisfies(ex -> assertThat(((TooManyRequestsException) ex).getRetryAfterSeconds()).isEqualTo(2));
+    assertThat(meterRegistry.get("auth.password.hash.rejected").counter().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("auth.password.hash.queue").gauge().value()).isEqualTo(1);
+
+    release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private void waitForQueueDepth(int depth) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (passwordHashingService.queueDepth() < depth && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(passwordHashingService.queueDepth()).isEqualTo(depth);
+  }
+}
@@ -0,0 +1,144 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.exception.NotFoundException;
+import com.tariff.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.multipart.MultipartFile;
+
+@ExtendWith(MockitoExtension.class)
+class PredictionJobServiceTest {
+
+  private static final byte[] PDF = { 1, 2, 3 };
+
+  @Mock
+  private PredictionService predictionService;
+
+  @Mock
+  private MultipartFile file;
+
+  private PredictionJobService predictionJobService;
+
+  @BeforeEach
+  void setUp() {
+    predictionJobService = new PredictionJobService(predictionService, 60, 100, 5000, 1, 7, new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void tearDown() {
+    predictionJobService.shutdown();
+  }
+
+  @Test
+  void submitShouldReturnBeforeTheModelAnswersAndExposePartialOutput() throws Exception {
+    when(predictionService.readPdfBytes(file)).thenReturn(PDF);
+    CountDownLatch firstChunkSent = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(predictionService.streamPrediction(eq(PDF), eq("Germany"), any())).thenAnswer(invocation -> {
+      Consumer<String> onChunk = invocation.getArgument(2);
+      onChunk.accept("Summary ");
+      firstChunkSent.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      onChunk.accept("for you");
+      return "Summary for you";
+    });
+
+    String jobId = predictionJobService.submit(file, "Germany");
+
+    assertThat(firstChunkSent.await(5, TimeUnit.SECONDS)).isTrue();
+    PredictionJobService.JobView running = predictionJobService.get(jobId);
+    assertThat(running.status()).isEqualTo(PredictionJobService.Status.RUNNING);
+    assertThat(running.output()).isEqualTo("Summary ");
+
+    release.countDown();
+    PredictionJobService.JobView done = awaitFinished(jobId);
+    assertThat(done.status()).isEqualTo(PredictionJobService.Status.DONE);
+    assertThat(done.output()).isEqualTo("Summary for you");
+    assertThat(done.error()).isNull();
+  }
+
+  @Test
+  void failuresShouldBeReportedOnTheJob() throws Exception {
+    when(predictionService.readPdfBytes(file)).thenReturn(PDF);
+    when(predictionService.streamPrediction(eq(PDF), any(), any())).thenThrow(new RuntimeException("Failed to parse PDF file"));
+
+    String jobId = predictionJobService.submit(file, null);
+
+    PredictionJobService.JobView failed = awaitFinished(jobId);
+    assertThat(failed.status()).isEqualTo(PredictionJobService.Status.FAILED);
+    assertThat(failed.error()).isEqualTo("Failed to parse PDF file");
+  }
+
+  @Test
+  void submitShouldRejectWithRetryAfterWhileMaxInFlightJobsRun() throws Exception {
+    when(predictionService.readPdfBytes(file)).thenReturn(PDF);
+    CountDownLatch release = new CountDownLatch(1);
+    when(predictionService.streamPrediction(eq(PDF), any(), any())).thenAnswer(invocation -> {
+      release.await(5, TimeUnit.SECONDS);
+      return "done";
+    });
+    MultipartFile second = mock(MultipartFile.class);
+
+    String jobId = predictionJobService.submit(file, null);
+
+    assertThatThrownBy(() -> predictionJobService.submit(second, null))
+      .isInstanceOfSatisfying(TooManyRequestsException.class, e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(7));
+    // rejected before the upload is copied
+    verify(predictionService, never()).readPdfBytes(second);
+
+    release.countDown();
+    assertThat(awaitFinished(jobId).status()).isEqualTo(PredictionJobService.Status.DONE);
+    assertThat(awaitInFlight(0)).isZero();
+    assertThat(predictionJobService.submit(file, null)).isNotNull();
+  }
+
+  @Test
+  void failedUploadShouldGiveThePermitBack() {
+    when(predictionService.readPdfBytes(file)).thenThrow(new RuntimeException("Failed to read file"));
+
+    assertThatThrownBy(() -> predictionJobService.submit(file, null)).hasMessage("Failed to read file");
+    assertThat(predictionJobService.inFlight()).isZero();
+  }
+
+  @Test
+  void unknownJobShouldThrowNotFound() {
+    assertThatThrownBy(() -> predictionJobService.get("missing")).isInstanceOf(NotFoundException.class);
+    assertThatThrownBy(() -> predictionJobService.stream("missing")).isInstanceOf(NotFoundException.class);
+  }
+
+  // the permit is released just after the job reports done
+  private int awaitInFlight(int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (predictionJobService.inFlight() != expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    return predictionJobService.inFlight();
+  }
+
+  private PredictionJobService.JobView awaitFinished(String jobId) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    PredictionJobService.JobView view = predictionJobService.get(jobId);
+    while (view.status() == PredictionJobService.Status.RUNNING && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+      view = predictionJobService.get(jobId);
+    }
+    return view;
+  }
+}
@@ -1,18 +1,41 @@
 package com.tariff.backend.service;
 
-// Note: Gemini client is created internally and cannot be easily mocked
-// These tests focus on PDF extraction and error handling
+// Gemini calls go to a local stub server (StubGeminiServer) through a real SDK client
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.google.genai.Client;
+import com.tariff.backend.component.LlmBulkhead;
+import com.tariff.backend.component.NearDuplicateIndex;
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.component.PredictionCache;
+import com.tariff.backend.config.GeminiClientConfig;
+import com.tariff.backend.exception.TooManyRequestsException;
+import com.tariff.backend.support.StubGeminiServer;
+
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -21,54 +44,64 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PredictionServiceTest {
 
+    private static StubGeminiServer stubServer;
+    private static Client geminiClient;
+
     @Mock
     private MultipartFile mockFile;
 
-    @InjectMocks
     private PredictionService predictionService;
 
+    @BeforeAll
+    static void startStub() throws IOException {
+        stubServer = new StubGeminiServer();
+        geminiClient = GeminiClientConfig.buildClient("test-api-key", stubServer.baseUrl(), 2000, 5000, 4, 0);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        geminiClient.close();
+        stubServer.close();
+    }
+
     @BeforeEach
     void setUp() {
-        // Set the API key using reflection since it's a @Value field
-        ReflectionTestUtils.setField(predictionService, "apiKey", "test-api-key");
+        stubServer.requests().clear();
+        stubServer.respondWith("stub prediction");
+        predictionService = newService(geminiClient, 30_000);
     }
 
     @Test
     void sendPdfToGemini_withCountry_shouldIncludeCountryInPrompt() throws IOException {
-        String pdfContent = "Test PDF content about tariffs";
         String country = "United States";
-        
+
         when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
-        
-        // This will fail because we can't easily mock the Gemini client
-        // But it tests the PDF extraction logic
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            predictionService.sendPdfToGemini(mockFile, country);
-        });
-        
+
+        String result = predictionService.sendPdfToGemini(mockFile, country);
+
+        assertEquals("stub prediction", result);
         verify(mockFile, atLeastOnce()).getInputStream();
+        assertTrue(lastRequestBody().contains("likely impacts for United States"));
     }
 
     @Test
     void sendPdfToGemini_withoutCountry_shouldUseGenericPrompt() throws IOException {
         when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
-        
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            predictionService.sendPdfToGemini(mockFile, null);
-        });
-        
+
+        predictionService.sendPdfToGemini(mockFile, null);
+
         verify(mockFile, atLeastOnce()).getInputStream();
+        assertTrue(lastRequestBody().contains("the country of interest that the user specified"));
     }
 
     @Test
     void sendPdfToGemini_withBlankCountry_shouldUseGenericPrompt() throws IOException {
         when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
-        
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            predictionService.sendPdfToGemini(mockFile, "   ");
-        });
-        
+
+        predictionService.sendPdfToGemini(mockFile, "   ");
+
         verify(mockFile, atLeastOnce()).getInputStream();
+        assertTrue(lastRequestBody().contains("the country of interest that the user specified"));
     }
 
     @Test
@@ -81,6 +114,7 @@ class PredictionServiceTest {
         });
         
         assertEquals("Failed to parse PDF file", exception.getMessage());
+        assertTrue(stubServer.requests().isEmpty());
     }
 
     @Test
@@ -97,14 +131,237 @@ class PredictionServiceTest {
     @Test
     void sendPdfToGemini_withValidPdf_shouldCallGeminiAPI() throws IOException {
         when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
-        
-        // This will throw an exception because we can't mock the Gemini client easily
-        // In a real scenario, we need to refactor PredictionService to inject the Client
-        assertThrows(RuntimeException.class, () -> {
-            predictionService.sendPdfToGemini(mockFile, "Germany");
-        });
-        
+
+        predictionService.sendPdfToGemini(mockFile, "Germany");
+
         verify(mockFile, atLeastOnce()).getInputStream();
+        assertEquals(1, stubServer.requests().size());
+        assertTrue(stubServer.requests().get(0).path().endsWith("models/gemini-2.5-flash-lite:generateContent"));
+        assertTrue(lastRequestBody().contains("Test tariff content"));
+    }
+
+    @Test
+    void sendPdfToGemini_repeatedCalls_shouldReuseTheSameConnection() throws IOException {
+        when(mockFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(createSimplePdf()));
+
+        predictionService.sendPdfToGemini(mockFile, "Germany");
+        predictionService.sendPdfToGemini(mockFile, "France");
+
+        // same client port = the pooled keep-alive connection was reused, no new TCP/TLS setup
+        assertEquals(2, stubServer.requests().size());
+        assertEquals(stubServer.requests().get(0).remotePort(), stubServer.requests().get(1).remotePort());
+    }
+
+    @Test
+    void sendPdfToGemini_whenModelTooSlow_shouldTimeOut() throws IOException {
+        Client impatientClient = GeminiClientConfig.buildClient("test-api-key", stubServer.baseUrl(), 2000, 200, 4, 0);
+        stubServer.delay(1000);
+        when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
+
+        try {
+            assertThrows(RuntimeException.class, () -> newService(impatientClient, 30_000).sendPdfToGemini(mockFile, "Germany"));
+        } finally {
+            stubServer.delay(0);
+            impatientClient.close();
+        }
+    }
+
+    @Test
+    void sendPdfToGemini_samePdfAndCountry_shouldServeFromCache() throws IOException {
+        when(mockFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(createSimplePdf()));
+
+        String first = predictionService.sendPdfToGemini(mockFile, "Germany");
+        stubServer.respondWith("a different answer");
+        String second = predictionService.sendPdfToGemini(mockFile, " germany ");
+
+        assertEquals("stub prediction", first);
+        assertEquals(first, second);
+        assertEquals(1, stubServer.requests().size());
+    }
+
+    @Test
+    void sendPdfToGemini_differentCountry_shouldNotHitCache() throws IOException {
+        when(mockFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(createSimplePdf()));
+
+        predictionService.sendPdfToGemini(mockFile, "Germany");
+        predictionService.sendPdfToGemini(mockFile, "Japan");
+
+        assertEquals(2, stubServer.requests().size());
+    }
+
+    @Test
+    void streamPrediction_shouldEmitChunksAsTheyArrive() {
+        stubServer.respondWith("Summary for you: tariffs go up");
+        List<String> chunks = new ArrayList<>();
+
+        String result = predictionService.streamPrediction(createSimplePdf(), "Germany", chunks::add);
+
+        assertEquals("Summary for you: tariffs go up", result);
+        assertEquals(List.of("Summary ", "for ", "you: ", "tariffs ", "go ", "up"), chunks);
+        assertTrue(stubServer.requests().get(0).path().endsWith("models/gemini-2.5-flash-lite:streamGenerateContent"));
+        assertTrue(lastRequestBody().contains("likely impacts for Germany"));
+    }
+
+    @Test
+    void streamPrediction_cacheHit_shouldEmitOneChunkWithoutCallingModel() {
+        List<String> chunks = new ArrayList<>();
+
+        predictionService.streamPrediction(createSimplePdf(), "Germany", chunk -> {});
+        String result = predictionService.streamPrediction(createSimplePdf(), "Germany", chunks::add);
+
+        assertEquals("stub prediction", result);
+        assertEquals(List.of("stub prediction"), chunks);
+        assertEquals(1, stubServer.requests().size());
+    }
+
+    @Test
+    void sendPdfToGemini_longDocument_shouldSummarizeChunksThenReduce() throws IOException {
+        // "Test tariff content" is 19 chars, a 10 char chunk size splits it in two
+        PredictionService chunkingService = newService(geminiClient, 10);
+        stubServer.respondWith(body -> body.contains("Below is section") ? "summary of " + sectionOf(body) : "final prediction");
+        when(mockFile.getInputStream()).thenReturn(new ByteArrayInputStream(createSimplePdf()));
+
+        String result = chunkingService.sendPdfToGemini(mockFile, "Germany");
+
+        assertEquals("final prediction", result);
+        assertEquals(3, stubServer.requests().size());
+        String reducePrompt = lastRequestBody();
+        assertTrue(reducePrompt.contains("Section 1: summary of section 1 of 2"));
+        assertTrue(reducePrompt.contains("Section 2: summary of section 2 of 2"));
+        assertTrue(reducePrompt.contains("Summary for you:"));
+        assertFalse(reducePrompt.contains("Test tariff content"));
+    }
+
+    @Test
+    void streamPrediction_burstAgainstSlowModel_shouldQueueThenRejectBeyondTheBulkhead() throws InterruptedException {
+        // 2 running + 2 waiting, the other 4 of the burst are turned away without reaching the model
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PredictionService bulkheadedService = newService(geminiClient, 30_000, new LlmBulkhead(2, 2, 5_000, 5, registry));
+        byte[] pdf = createSimplePdf();
+        stubServer.delay(300);
+        stubServer.resetConcurrency();
+
+        int burst = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < burst; i++) {
+                String country = "Country " + i; // distinct cache keys, every call needs the model
+                clients.submit(() -> {
+                    start.await();
+                    try {
+                        bulkheadedService.streamPrediction(pdf, country, chunk -> {});
+                        succeeded.incrementAndGet();
+                    } catch (TooManyRequestsException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            stubServer.delay(0);
+        }
+
+        assertEquals(burst, succeeded.get() + rejected.get());
+        assertTrue(succeeded.get() >= 2);
+        assertTrue(rejected.get() >= 1);
+        assertTrue(stubServer.maxConcurrentRequests() <= 2);
+        assertEquals(succeeded.get(), stubServer.requests().size());
+        assertEquals(succeeded.get(), registry.get("prediction.llm.call").tag("operation", "stream").tag("outcome", "success").timer().count());
+        assertEquals(rejected.get(), registry.get("prediction.llm.rejected").counters().stream().mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void sendPdfToGemini_revisedNotice_shouldReuseTheEarlierAnswerFlaggedAsApproximate() throws IOException {
+        when(mockFile.getInputStream())
+                .thenReturn(new ByteArrayInputStream(createNoticePdf("1 March 2025")))
+                .thenReturn(new ByteArrayInputStream(createNoticePdf("15 March 2025")));
+
+        String first = predictionService.sendPdfToGemini(mockFile, "Germany");
+        String revised = predictionService.sendPdfToGemini(mockFile, "Germany");
+
+        assertEquals("stub prediction", first);
+        assertEquals(PredictionService.APPROXIMATE_NOTE + "stub prediction", revised);
+        assertEquals(1, stubServer.requests().size());
+    }
+
+    @Test
+    void sendPdfToGemini_revisedNoticeForAnotherCountry_shouldCallTheModel() throws IOException {
+        when(mockFile.getInputStream())
+                .thenReturn(new ByteArrayInputStream(createNoticePdf("1 March 2025")))
+                .thenReturn(new ByteArrayInputStream(createNoticePdf("15 March 2025")));
+
+        predictionService.sendPdfToGemini(mockFile, "Germany");
+        predictionService.sendPdfToGemini(mockFile, "Japan");
+
+        assertEquals(2, stubServer.requests().size());
+    }
+
+    @Test
+    void streamPrediction_revisedNotice_withoutFlag_shouldReplayTheEarlierAnswerAsIs() throws IOException {
+        PredictionService unflagged = newService(geminiClient, 30_000,
+                new LlmBulkhead(16, 32, 10_000, 5, new SimpleMeterRegistry()), false);
+        List<String> chunks = new ArrayList<>();
+
+        unflagged.streamPrediction(createNoticePdf("1 March 2025"), "Germany", chunk -> {});
+        String revised = unflagged.streamPrediction(createNoticePdf("15 March 2025"), "Germany", chunks::add);
+
+        assertEquals("stub prediction", revised);
+        assertEquals(List.of("stub prediction"), chunks);
+        assertEquals(1, stubServer.requests().size());
+    }
+
+    private static String sectionOf(String body) {
+        int start = body.indexOf("section ");
+        return body.substring(start, body.indexOf(" of a longer", start));
+    }
+
+    private static PredictionService newService(Client client, int chunkChars) {
+        return newService(client, chunkChars, new LlmBulkhead(16, 32, 10_000, 5, new SimpleMeterRegistry()));
+    }
+
+    private static PredictionService newService(Client client, int chunkChars, LlmBulkhead bulkhead) {
+        return newService(client, chunkChars, bulkhead, true);
+    }
+
+    private static PredictionService newService(Client client, int chunkChars, LlmBulkhead bulkhead, boolean flagApproximate) {
+        return new PredictionService(
+                client,
+                new PredictionCache(1_000_000, "", 0, 0, new SimpleMeterRegistry()),
+                new PdfTextExtractor(50, 200_000, 1_048_576),
+                new MapReduceSummarizer(client, bulkhead, chunkChars, 4),
+                bulkhead,
+                new NearDuplicateIndex(true, 16, 8, 0.9, 1000, new SimpleMeterRegistry()),
+                flagApproximate);
+    }
+
+    private String lastRequestBody() {
+        return stubServer.requests().get(stubServer.requests().size() - 1).body();
+    }
+
+    // A one page notice of 30 numbered lines, only the effective date differs between revisions
+    private static byte[] createNoticePdf(String effectiveDate) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 9);
+                content.setLeading(15);
+                content.newLineAtOffset(40, 750);
+                content.showText("Notice of tariff modification effective " + effectiveDate);
+                for (int line = 1; line <= 30; line++) {
+                    content.newLine();
+                    content.showText("Item " + line + " duty on passenger vehicles under heading 8703." + line + " rises to 25 percent ad valorem");
+                }
+                content.endText();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
     }
 
     // Creates a minimal valid PDF structure for testing
@@ -0,0 +1,147 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.exception.InvalidCredentialsException;
+import com.tariff.backend.model.RefreshToken;
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.RefreshTokenRepository;
+import java.time.Instant;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+  @Mock
+  private RefreshTokenRepository refreshTokenRepository;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
+  private RefreshTokenService refreshTokenService;
+
+  @BeforeEach
+  void setUp() {
+    refreshTokenService = new RefreshTokenService(refreshTokenRepository, userDetailsService);
+    ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 60_000L);
+  }
+
+  @Test
+  void issueShouldStoreOnlyTheHash() {
+    User user = new User("user@user.com", "hash", null);
+    ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+
+    String rawToken = refreshTokenService.issue(user);
+
+    verify(refreshTokenRepository).save(captor.capture());
+    RefreshToken saved = captor.getValue();
+    assertThat(saved.getTokenHash()).isEqualTo(RefreshTokenService.hash(rawToken)).isNotEqualTo(rawToken);
+    assertThat(saved.getUserEmail()).isEqualTo("user@user.com");
+    assertThat(saved.getExpiresAt()).isAfter(Instant.now());
+  }
+
+  @Test
+  void rotateShouldDeleteOldTokenAndIssueNewOne() {
+    User user = new User("user@user.com", "hash", null);
+    stubStored("old", user.getEmail(), 0, Instant.now().plusSeconds(60));
+    when(refreshTokenRepository.deleteByTokenHash(RefreshTokenService.hash("old"))).thenReturn(1);
+    when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+
+    RefreshTokenService.Rotation rotation = refreshTokenService.rotate("old");
+
+    assertThat(rotation.user()).isSameAs(user);
+    assertThat(rotation.refreshToken()).isNotEqualTo("old");
+    verify(refreshTokenRepository).save(any(RefreshToken.class));
+  }
+
+  @Test
+  void rotateShouldRejectUnknownToken() {
+    when(refreshTokenRepository.findByTokenHash(any())).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> refreshTokenService.rotate("unknown"))
+      .isInstanceOf(InvalidCredentialsException.class);
+    verify(refreshTokenRepository, never()).save(any());
+  }
+
+  @Test
+  void rotateShouldRejectMissingCookie() {
+    assertThatThrownBy(() -> refreshTokenService.rotate(null))
+      .isInstanceOf(InvalidCredentialsException.class);
+  }
+
+  @Test
+  void rotateShouldRejectTokenAlreadyUsedByConcurrentRequest() {
+    stubStored("raced", "user@user.com", 0, Instant.now().plusSeconds(60));
+    when(refreshTokenRepository.deleteByTokenHash(RefreshTokenService.hash("raced"))).thenReturn(0);
+
+    assertThatThrownBy(() -> refreshTokenService.rotate("raced"))
+      .isInstanceOf(InvalidCredentialsException.class);
+    verify(refreshTokenRepository, never()).save(any());
+  }
+
+  @Test
+  void rotateShouldRejectExpiredToken() {
+    stubStored("expired", "user@user.com", 0, Instant.now().minusSeconds(1));
+    when(refreshTokenRepository.deleteByTokenHash(RefreshTokenService.hash("expired"))).thenReturn(1);
+
+    assertThatThrownBy(() -> refreshTokenService.rotate("expired"))
+      .isInstanceOf(InvalidCredentialsException.class)
+      .hasMessageContaining("expired");
+  }
+
+  @Test
+  void rotateShouldRejectTokenIssuedBeforeRoleOrPasswordChange() {
+    User user = new User("user@user.com", "hash", null);
+    user.bumpTokenGeneration();
+    stubStored("stale", user.getEmail(), 0, Instant.now().plusSeconds(60));
+    when(refreshTokenRepository.deleteByTokenHash(RefreshTokenService.hash("stale"))).thenReturn(1);
+    when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(user);
+
+    assertThatThrownBy(() -> refreshTokenService.rotate("stale"))
+      .isInstanceOf(InvalidCredentialsException.class)
+      .hasMessageContaining("revoked");
+  }
+
+  @Test
+  void rotateShouldRejectTokenOfDeletedUser() {
+    stubStored("orphan", "gone@user.com", 0, Instant.now().plusSeconds(60));
+    when(refreshTokenRepository.deleteByTokenHash(RefreshTokenService.hash("orphan"))).thenReturn(1);
+    when(userDetailsService.loadUserByUsername("gone@user.com")).thenThrow(new UsernameNotFoundException("gone"));
+
+    assertThatThrownBy(() -> refreshTokenService.rotate("orphan"))
+      .isInstanceOf(InvalidCredentialsException.class);
+  }
+
+  @Test
+  void revokeShouldDeleteByHashAndIgnoreMissingCookie() {
+    refreshTokenService.revoke("token");
+    refreshTokenService.revoke(null);
+
+    verify(refreshTokenRepository).deleteByTokenHash(RefreshTokenService.hash("token"));
+  }
+
+  @Test
+  void revokeAllShouldDeleteEveryTokenOfTheUser() {
+    refreshTokenService.revokeAll("user@user.com");
+    verify(refreshTokenRepository).deleteByUserEmail("user@user.com");
+  }
+
+  private void stubStored(String rawToken, String email, long generation, Instant expiresAt) {
+    String tokenHash = RefreshTokenService.hash(rawToken);
+    when(refreshTokenRepository.findByTokenHash(tokenHash))
+      .thenReturn(Optional.of(new RefreshToken(tokenHash, email, generation, expiresAt)));
+  }
+}
@@ -0,0 +1,311 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.dto.AddTariffDTO;
+import com.tariff.backend.dto.CountryDTO;
+import com.tariff.backend.dto.ParticularTariffDTO;
+import com.tariff.backend.dto.ProductDTO;
+import com.tariff.backend.exception.BadRequestException;
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.support.QueryCounter;
+
+// Exact SQL statement counts for every public TariffService, ProductService and CountryService
+// method (and the tariff lookup behind TariffMentionExtractor), so an N+1 shows up as a failing test instead of a slow page. The fixture spreads
+// tariffs over several countries and products on purpose: a per-row lazy load changes the count.
+// Results are touched the way the JSON response would (countries and products), so lazy loads
+// triggered during serialization are counted too.
+@DataJpaTest
+@Import({ TariffService.class, ProductService.class, CountryService.class, TariffMentionExtractor.class, PdfTextExtractor.class })
+class ServiceQueryCountTest {
+
+  private static final LocalDate DATE = LocalDate.of(2024, 6, 1);
+
+  @Autowired
+  private TariffService tariffService;
+
+  @Autowired
+  private ProductService productService;
+
+  @Autowired
+  private CountryService countryService;
+
+  @Autowired
+  private TariffMentionExtractor tariffMentionExtractor;
+
+  @Autowired
+  private TestEntityManager entityManager;
+
+  private QueryCounter queries;
+  private Tariff cnToUs;
+
+  @BeforeEach
+  void setUp() {
+    queries = new QueryCounter(entityManager.getEntityManager());
+
+    Country us = country("US", "United States");
+    Country cn = country("CN", "China");
+    Country sg = country("SG", "Singapore");
+    Country jp = country("JP", "Japan");
+    Product steel = product("7208.10", "Steel");
+    Product copper = product("7403.11", "Copper");
+    product("8703.23", "Cars");
+
+    cnToUs = tariff(cn, us, 0.25, steel);
+    tariff(sg, us, 0.05, steel);
+    tariff(jp, sg, 0.0, steel);
+    tariff(cn, sg, 0.10, steel, copper);
+    tariff(jp, us, 0.02, copper);
+    entityManager.flush();
+  }
+
+  // Tariffs
+
+  // existing tariffs for the HTS code (countries and products fetched with them), then the tariff
+  // and its tariff_product row; the countries and product are already in the persistence context
+  @Test
+  void addTariff() {
+    AddTariffDTO dto = new AddTariffDTO();
+    dto.setOriginCountry("JP");
+    dto.setDestCountry("CN");
+    dto.setEffectiveDate(DATE);
+    dto.setRate(0.07);
+    dto.setHtscode("7208.10");
+    dto.setProducts(List.of());
+
+    Tariff added = queries.assertStatements(3, () -> tariffService.addTariff(dto));
+    assertThat(added.getId()).isNotNull();
+  }
+
+  @Test
+  void updateTariff() {
+    Tariff changes = new Tariff();
+    changes.setAdValoremRate(0.3);
+
+    queries.assertStatements(2, () -> tariffService.updateTariff(cnToUs.getId(), changes));
+  }
+
+  @Test
+  void addProductToTariff() {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Copper");
+    dto.setDescription("Copper");
+    dto.setEnabled(true);
+
+    Tariff updated = queries.assertStatements(4, () -> render(tariffService.addProductToTariff(cnToUs.getId(), dto)));
+    assertThat(updated.getProducts()).hasSize(2);
+  }
+
+  @Test
+  void removeProductFromTariff() {
+    Tariff updated = queries.assertStatements(4, () -> render(tariffService.removeProductFromTariff(cnToUs.getId(), "7208.10")));
+    assertThat(updated.getProducts()).isEmpty();
+  }
+
+  @Test
+  void softDeleteTariff() {
+    queries.assertStatements(2, () -> tariffService.deleteTariff(cnToUs.getId(), true));
+  }
+
+  @Test
+  void hardDeleteTariff() {
+    queries.assertStatements(3, () -> tariffService.deleteTariff(cnToUs.getId(), false));
+  }
+
+  @Test
+  void getTariffsByHtsCode() {
+    List<Tariff> found = queries.assertStatements(1, () -> render(tariffService.getTariffsByHtsCode("7208.10")));
+    assertThat(found).hasSize(4);
+  }
+
+  @Test
+  void getTariffById() {
+    queries.assertStatements(2, () -> render(tariffService.getTariffById(cnToUs.getId())));
+  }
+
+  @Test
+  void listTariff() {
+    List<Tariff> all = queries.assertStatements(1, () -> render(tariffService.listTariff()));
+    assertThat(all).hasSize(5);
+  }
+
+  // the tariff with both countries, then its products
+  @Test
+  void getParticularTariff() {
+    ParticularTariffDTO dto = new ParticularTariffDTO();
+    dto.setProductName("Steel");
+    dto.setOriginCountry("CN");
+    dto.setDestCountry("US");
+    dto.setDate(DATE);
+
+    Tariff found = queries.assertStatements(2, () -> render(tariffService.getParticularTariff(dto)));
+    assertThat(found.getId()).isEqualTo(cnToUs.getId());
+  }
+
+  @Test
+  void getValidDestCountriesForProductAndOrigin() {
+    List<Country> dests = queries.assertStatements(1,
+      () -> tariffService.getValidDestCountriesForProductAndOrigin("CN", "Steel"));
+    assertThat(dests).extracting(Country::getCode).containsExactlyInAnyOrder("US", "SG");
+  }
+
+  // Mentions, with the name dictionary already built (it is cached for minutes)
+
+  // tariff ids for the mentioned codes (limit applied in SQL), then those tariffs with
+  // countries and every product fetched together
+  @Test
+  void extractMentions() {
+    tariffMentionExtractor.extract("warm up", null);
+
+    TariffMentionExtractor.TariffMentions mentions = queries.assertStatements(2,
+      () -> renderMentions(tariffMentionExtractor.extract("Flat-rolled products, 7208.10: 25%", null)));
+    assertThat(mentions.tariffs()).hasSize(4);
+  }
+
+  @Test
+  void extractMentionsNarrowedToCountries() {
+    tariffMentionExtractor.extract("warm up", null);
+
+    TariffMentionExtractor.TariffMentions mentions = queries.assertStatements(2,
+      () -> renderMentions(tariffMentionExtractor.extract("Steel and Copper from China", null)));
+    assertThat(mentions.tariffs()).extracting(t -> t.getOriginCountry().getCode()).containsOnly("CN");
+    assertThat(mentions.tariffs()).hasSize(2);
+  }
+
+  // Products
+
+  // ProductDTO has no HTS code, so only the duplicate check can run against a real database
+  @Test
+  void addProduct() {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Steel");
+    dto.setDescription("Steel");
+    dto.setEnabled(true);
+
+    queries.assertStatements(1, () -> assertThatThrownBy(() -> productService.addProduct(dto))
+      .isInstanceOf(BadRequestException.class));
+  }
+
+  @Test
+  void getProductById() {
+    queries.assertStatements(1, () -> productService.getProductById("7208.10"));
+  }
+
+  @Test
+  void getAllProducts() {
+    List<Product> all = queries.assertStatements(1, () -> productService.getAllProducts());
+    assertThat(all).hasSize(3);
+  }
+
+  @Test
+  void updateProduct() {
+    ProductDTO dto = new ProductDTO();
+    dto.setName("Flat-rolled steel");
+    dto.setDescription("Flat-rolled steel");
+
+    queries.assertStatements(2, () -> productService.updateProduct("7208.10", dto));
+  }
+
+  @Test
+  void softDeleteProduct() {
+    queries.assertStatements(2, () -> productService.deleteProduct("7208.10", true));
+  }
+
+  @Test
+  void hardDeleteProduct() {
+    queries.assertStatements(2, () -> productService.deleteProduct("8703.23", false));
+  }
+
+  // Countries
+
+  // existsById, then save() merges the assigned id: select + insert
+  @Test
+  void addCountry() {
+    queries.assertStatements(3, () -> countryService.addCountry(new CountryDTO("DE", "Germany")));
+  }
+
+  @Test
+  void getCountryByCode() {
+    queries.assertStatements(1, () -> countryService.getCountryByCode("US"));
+  }
+
+  @Test
+  void getAllCountries() {
+    List<Country> all = queries.assertStatements(1, () -> countryService.getAllCountries());
+    assertThat(all).hasSize(4);
+  }
+
+  @Test
+  void updateCountry() {
+    queries.assertStatements(2, () -> countryService.updateCountry("US", new CountryDTO("US", "USA")));
+  }
+
+  @Test
+  void deleteCountry() {
+    country("DE", "Germany");
+
+    queries.assertStatements(2, () -> countryService.deleteCountry("DE"));
+  }
+
+  // what Jackson reads when the controller returns the tariff
+  private static Tariff render(Tariff tariff) {
+    tariff.getOriginCountry().getName();
+    tariff.getDestCountry().getName();
+    tariff.getProducts().forEach(Product::getName);
+    return tariff;
+  }
+
+  private static TariffMentionExtractor.TariffMentions renderMentions(TariffMentionExtractor.TariffMentions mentions) {
+    render(mentions.tariffs());
+    return mentions;
+  }
+
+  private static <C extends Collection<Tariff>> C render(C tariffs) {
+    tariffs.forEach(ServiceQueryCountTest::render);
+    return tariffs;
+  }
+
+  private Country country(String code, String name) {
+    Country country = new Country();
+    country.setCode(code);
+    country.setName(name);
+    return entityManager.persist(country);
+  }
+
+  private Product product(String htsCode, String name) {
+    Product product = new Product();
+    product.setHTS_code(htsCode);
+    product.setName(name);
+    product.setDescription(name);
+    product.setEnabled(true);
+    return entityManager.persist(product);
+  }
+
+  private Tariff tariff(Country origin, Country dest, double rate, Product... products) {
+    Tariff tariff = new Tariff();
+    tariff.setOriginCountry(origin);
+    tariff.setDestCountry(dest);
+    tariff.setEffectiveDate(DATE.minusYears(1));
+    tariff.setAdValoremRate(rate);
+    tariff.setSpecificRate(0.0);
+    tariff.setProducts(new HashSet<>(Set.of(products)));
+    return entityManager.persist(tariff);
+  }
+}
@@ -0,0 +1,155 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.component.PdfTextExtractor;
+import com.tariff.backend.model.Country;
+import com.tariff.backend.model.Product;
+import com.tariff.backend.model.Tariff;
+import com.tariff.backend.repository.CountryRepository;
+import com.tariff.backend.repository.ProductRepository;
+import com.tariff.backend.repository.TariffRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TariffMentionExtractorTest {
+
+  @Mock
+  private ProductRepository productRepository;
+
+  @Mock
+  private CountryRepository countryRepository;
+
+  @Mock
+  private TariffRepository tariffRepository;
+
+  private TariffMentionExtractor extractor;
+  private Country china;
+  private Country usa;
+  private Product computerParts;
+  private Product phones;
+
+  @BeforeEach
+  void setUp() {
+    china = country("156", "China");
+    usa = country("840", "United States");
+    computerParts = product("847330", "Parts of computers", true);
+    phones = product("8517.12.00", "Mobile phones", true);
+    Product retired = product("999999", "Retired widgets", false);
+
+    when(productRepository.findAll()).thenReturn(List.of(computerParts, phones, retired));
+    when(countryRepository.findAll()).thenReturn(List.of(china, usa));
+    when(countryRepository.findById(anyString())).thenReturn(Optional.empty());
+
+    extractor = new TariffMentionExtractor(
+      new PdfTextExtractor(50, 200_000, 1_048_576), productRepository, countryRepository, tariffRepository, 300, 100);
+  }
+
+  @Test
+  void shouldFindCodesRatesProductsAndCountries() {
+    String schedule = """
+      Notice of action on imports from China
+      8473.30.10  Parts and accessories   25%
+      851712      Telephones for cellular networks   7.5 percent
+      Mobile phones are covered from 1 January 2026
+      """;
+
+    TariffMentionExtractor.TariffMentions mentions = extractor.extract(schedule, null);
+
+    assertThat(mentions.codes()).extracting(TariffMentionExtractor.CodeMention::code).containsExactly("8473.30.10", "851712");
+    assertThat(mentions.codes()).extracting(TariffMentionExtractor.CodeMention::rate).containsExactly(25.0, 7.5);
+    assertThat(mentions.codes().get(0).productCodes()).containsExactly("847330");
+    assertThat(mentions.codes().get(1).productCodes()).containsExactly("8517.12.00");
+    assertThat(mentions.products()).containsExactlyInAnyOrder(computerParts, phones);
+    assertThat(mentions.countries()).containsExactly(china);
+  }
+
+  @Test
+  void shouldNotTreatYearsAmountsOrDecimalsAsCodes() {
+    TariffMentionExtractor.TariffMentions mentions = extractor.extract(
+      "In 2025 the duty of 12.50 on 1,000 units (ref 8473.301) rose by 3%", null);
+
+    assertThat(mentions.codes()).isEmpty();
+    assertThat(mentions.tariffs()).isEmpty();
+    verify(tariffRepository, never()).findActiveByHtsCodes(any(), any(), any());
+  }
+
+  @Test
+  void shouldIgnoreDisabledProducts() {
+    TariffMentionExtractor.TariffMentions mentions = extractor.extract("Retired widgets 999999 at 10%", null);
+
+    assertThat(mentions.products()).isEmpty();
+    assertThat(mentions.codes()).singleElement().satisfies(code -> assertThat(code.productCodes()).isEmpty());
+  }
+
+  @Test
+  void shouldAttachTariffsNarrowedToMentionedCountries() {
+    Tariff tariff = new Tariff();
+    tariff.setOriginCountry(china);
+    tariff.setDestCountry(usa);
+    tariff.setAdValoremRate(25.0);
+    when(tariffRepository.findActiveByHtsCodesAndCountries(
+      eq(List.of("847330")), eq(List.of("156")), any(LocalDate.class), eq(Limit.of(100)))).thenReturn(List.of(tariff));
+
+    TariffMentionExtractor.TariffMentions mentions = extractor.extract("Goods of China under 8473.30 now pay 25%", null);
+
+    assertThat(mentions.tariffs()).containsExactly(tariff);
+  }
+
+  @Test
+  void requestCountryShouldNarrowTariffsEvenIfTheTextNeverNamesIt() {
+    extractor.extract("Mobile phones: 10%", "United States");
+
+    verify(tariffRepository).findActiveByHtsCodesAndCountries(
+      eq(List.of("8517.12.00")), eq(List.of("840")), any(), any());
+  }
+
+  @Test
+  void shouldSearchAllCountriesWhenNoneIsMentioned() {
+    extractor.extract("Mobile phones: 10%", null);
+
+    verify(tariffRepository).findActiveByHtsCodes(eq(List.of("8517.12.00")), any(), eq(Limit.of(100)));
+  }
+
+  @Test
+  void dictionaryShouldBeBuiltOnceAndReused() {
+    extractor.extract("Mobile phones", null);
+    extractor.extract("Parts of computers", null);
+
+    verify(productRepository, times(1)).findAll();
+    verify(countryRepository, times(1)).findAll();
+  }
+
+  private static Country country(String code, String name) {
+    Country country = new Country();
+    country.setCode(code);
+    country.setName(name);
+    return country;
+  }
+
+  private static Product product(String code, String name, boolean enabled) {
+    Product product = new Product();
+    product.setHTS_code(code);
+    product.setName(name);
+    product.setEnabled(enabled);
+    return product;
+  }
+}
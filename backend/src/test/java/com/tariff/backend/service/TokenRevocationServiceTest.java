@@ -0,0 +1,193 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.repository.UserRepository;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private MutableClock clock;
+  private TokenRevocationService tokenRevocationService;
+
+  @BeforeEach
+  void setUp() {
+    clock = new MutableClock();
+    // 15 minute access tokens
+    tokenRevocationService = new TokenRevocationService(userRepository, 900_000, clock);
+  }
+
+  @Test
+  void unknownUserShouldNotBeRevoked() {
+    assertThat(tokenRevocationService.isRevoked("new@user.com", 0)).isFalse();
+  }
+
+  @Test
+  void revokeBeforeShouldRejectOlderGenerationsOnly() {
+    tokenRevocationService.revokeBefore("user@user.com", 2);
+
+    assertThat(tokenRevocationService.isRevoked("user@user.com", 1)).isTrue();
+    assertThat(tokenRevocationService.isRevoked("user@user.com", 2)).isFalse();
+  }
+
+  @Test
+  void revokeBeforeShouldNeverMoveBackwards() {
+    tokenRevocationService.revokeBefore("user@user.com", 5);
+    tokenRevocationService.revokeBefore("user@user.com", 3);
+
+    assertThat(tokenRevocationService.isRevoked("user@user.com", 4)).isTrue();
+  }
+
+  @Test
+  void revokeAllShouldRejectEveryGeneration() {
+    tokenRevocationService.revokeAll("deleted@user.com");
+
+    assertThat(tokenRevocationService.isRevoked("deleted@user.com", Long.MAX_VALUE - 1)).isTrue();
+  }
+
+  @Test
+  void syncShouldPickUpGenerationsAndDeletionsFromDb() {
+    tokenRevocationService.revokeBefore("gone@user.com", 0);
+    when(userRepository.findAllTokenGenerations()).thenReturn(List.of(row("bumped@user.com", 4)));
+
+    tokenRevocationService.sync();
+
+    assertThat(tokenRevocationService.isRevoked("bumped@user.com", 3)).isTrue();
+    assertThat(tokenRevocationService.isRevoked("bumped@user.com", 4)).isFalse();
+    assertThat(tokenRevocationService.isRevoked("gone@user.com", 0)).isTrue();
+  }
+
+  @Test
+  void syncShouldLiftTombstoneOfReRegisteredUser() {
+    tokenRevocationService.revokeAll("back@user.com");
+    when(userRepository.findAllTokenGenerations()).thenReturn(List.of(row("back@user.com", 0)));
+
+    tokenRevocationService.sync();
+
+    assertThat(tokenRevocationService.isRevoked("back@user.com", 0)).isFalse();
+  }
+
+  @Test
+  void syncShouldKeepTombstoneSetWhileTheQueryRuns() {
+    tokenRevocationService.revokeBefore("racing@user.com", 1);
+    // the delete lands after the snapshot, the rows were read before it
+    when(userRepository.findAllTokenGenerations()).thenAnswer(invocation -> {
+      tokenRevocationService.revokeAll("racing@user.com");
+      return List.of(row("racing@user.com", 1));
+    });
+
+    tokenRevocationService.sync();
+
+    assertThat(tokenRevocationService.isRevoked("racing@user.com", 1)).isTrue();
+  }
+
+  @Test
+  void tombstoneShouldBeDroppedOnceTheLastAccessTokenHasExpired() {
+    tokenRevocationService.revokeAll("deleted@user.com");
+
+    clock.advance(Duration.ofMinutes(14));
+    tokenRevocationService.scheduledSync();
+    assertThat(tokenRevocationService.isRevoked("deleted@user.com", 0)).isTrue();
+
+    clock.advance(Duration.ofMinutes(2));
+    tokenRevocationService.scheduledSync();
+    assertThat(tokenRevocationService.isRevoked("deleted@user.com", 0)).isFalse();
+  }
+
+  @Test
+  void tombstoneFromSyncShouldExpireFromTheFirstSync() {
+    tokenRevocationService.revokeBefore("gone@user.com", 0);
+    when(userRepository.findAllTokenGenerations()).thenReturn(List.of());
+    tokenRevocationService.sync();
+
+    // later syncs still don't find the user, that must not push the expiry back
+    clock.advance(Duration.ofMinutes(10));
+    tokenRevocationService.sync();
+    clock.advance(Duration.ofMinutes(6));
+    tokenRevocationService.pruneTombstones();
+
+    assertThat(tokenRevocationService.isRevoked("gone@user.com", 0)).isFalse();
+  }
+
+  @Test
+  void pruningShouldNotTouchReRegisteredUsers() {
+    tokenRevocationService.revokeAll("back@user.com");
+    tokenRevocationService.reset("back@user.com", 2);
+
+    clock.advance(Duration.ofMinutes(16));
+    tokenRevocationService.pruneTombstones();
+
+    assertThat(tokenRevocationService.isRevoked("back@user.com", 1)).isTrue();
+  }
+
+  @Test
+  void scheduledSyncShouldSkipDbWhenStatelessModeOff() {
+    tokenRevocationService.scheduledSync();
+
+    verify(userRepository, never()).findAllTokenGenerations();
+  }
+
+  @Test
+  void scheduledSyncShouldQueryDbWhenStatelessModeOn() {
+    ReflectionTestUtils.setField(tokenRevocationService, "statelessRoles", true);
+    when(userRepository.findAllTokenGenerations()).thenReturn(List.of());
+
+    tokenRevocationService.scheduledSync();
+
+    verify(userRepository).findAllTokenGenerations();
+  }
+
+  private UserRepository.TokenGenerationView row(String email, long generation) {
+    return new UserRepository.TokenGenerationView() {
+      @Override
+      public String getEmail() {
+        return email;
+      }
+
+      @Override
+      public long getTokenGeneration() {
+        return generation;
+      }
+    };
+  }
+
+  private static class MutableClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneId.of("UTC");
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package com.tariff.backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tariff.backend.model.User;
+import com.tariff.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsServiceImplTest {
+
+  @Mock
+  private UserRepository userRepository;
+
+  private UserDetailsServiceImpl userDetailsService;
+
+  @BeforeEach
+  void setUp() {
+    userDetailsService = new UserDetailsServiceImpl(userRepository, 100, 600, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void loadUserByUsernameShouldHitDatabaseOnlyOnce() {
+    User user = new User("cached@user.com", "hash", User.Role.USER);
+    when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+    UserDetails first = userDetailsService.loadUserByUsername(user.getEmail());
+    UserDetails second = userDetailsService.loadUserByUsername(user.getEmail());
+
+    assertThat(first).isSameAs(user);
+    assertThat(second).isSameAs(user);
+    verify(userRepository, times(1)).findByEmail(user.getEmail());
+  }
+
+  @Test
+  void evictUserShouldReloadFreshAuthorities() {
+    User admin = new User("role@user.com", "hash", User.Role.ADMIN);
+    User demoted = new User("role@user.com", "hash", User.Role.USER);
+    when(userRepository.findByEmail(admin.getEmail()))
+      .thenReturn(Optional.of(admin))
+      .thenReturn(Optional.of(demoted));
+
+    userDetailsService.loadUserByUsername(admin.getEmail());
+    userDetailsService.evictUser(admin.getEmail());
+    UserDetails reloaded = userDetailsService.loadUserByUsername(admin.getEmail());
+
+    assertThat(reloaded.getAuthorities())
+      .extracting(Object::toString)
+      .containsExactly("ROLE_USER");
+    verify(userRepository, times(2)).findByEmail(admin.getEmail());
+  }
+
+  @Test
+  void loadUserByUsernameShouldNotCacheMissingUsers() {
+    when(userRepository.findByEmail("missing@user.com")).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> userDetailsService.loadUserByUsername("missing@user.com"))
+      .isInstanceOf(UsernameNotFoundException.class);
+    assertThatThrownBy(() -> userDetailsService.loadUserByUsername("missing@user.com"))
+      .isInstanceOf(UsernameNotFoundException.class);
+
+    verify(userRepository, times(2)).findByEmail("missing@user.com");
+  }
+}
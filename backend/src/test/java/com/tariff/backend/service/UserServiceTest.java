@@ -3,12 +3,16 @@ package com.tariff.backend.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.tariff.backend.dto.UserRequestDTO;
 import com.tariff.backend.exception.InvalidCredentialsException;
+import com.tariff.backend.exception.TooManyRequestsException;
 import com.tariff.backend.exception.UserAlreadyExistsException;
 import com.tariff.backend.model.User;
 import com.tariff.backend.repository.UserRepository;
@@ -20,10 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,16 +34,25 @@ class UserServiceTest {
   private UserRepository userRepository;
 
   @Mock
-  private BCryptPasswordEncoder passwordEncoder;
+  private PasswordHashingService passwordHashingService;
 
   @Mock
-  private AuthenticationManager authenticationManager;
+  private UserDetailsServiceImpl userDetailsService;
+
+  @Mock
+  private TokenRevocationService tokenRevocationService;
+
+  @Mock
+  private LoginAttemptService loginAttemptService;
+
+  @Mock
+  private RefreshTokenService refreshTokenService;
 
   private UserService userService;
 
   @BeforeEach
   void setUp() {
-    userService = new UserService(userRepository, passwordEncoder, authenticationManager);
+    userService = new UserService(userRepository, passwordHashingService, userDetailsService, tokenRevocationService, loginAttemptService, refreshTokenService);
     // Set the @Value fields manually since we're using mocks
     ReflectionTestUtils.setField(userService, "minPwdLength", 8);
     ReflectionTestUtils.setField(userService, "maxPwdLength", 16);
@@ -68,7 +78,7 @@ class UserServiceTest {
     when(userRepository.findByEmail(request.email())).thenReturn(
       Optional.empty()
     );
-    when(passwordEncoder.encode(request.password())).thenReturn("hashed");
+    when(passwordHashingService.encode(request.password())).thenReturn("hashed");
     when(userRepository.save(any(User.class))).thenAnswer(invocation ->
       invocation.getArgument(0)
     );
@@ -82,7 +92,7 @@ class UserServiceTest {
     assertThat(persisted.getEmail()).isEqualTo(request.email());
     assertThat(persisted.getPassword()).isEqualTo("hashed");
     assertThat(savedUser).isSameAs(persisted);
-    verify(passwordEncoder).encode(request.password());
+    verify(passwordHashingService).encode(request.password());
   }
 
   @Test
@@ -115,7 +125,7 @@ class UserServiceTest {
       .isInstanceOf(IllegalArgumentException.class)
       .hasMessageContaining("Password must be between")
       .hasMessageContaining("characters long");
-    verify(passwordEncoder, never()).encode(any());
+    verify(passwordHashingService, never()).encode(any());
   }
 
   @Test
@@ -129,16 +139,16 @@ class UserServiceTest {
       Optional.of(user)
     );
     when(
-      passwordEncoder.matches(request.password(), user.getPassword())
+      passwordHashingService.matches(request.password(), user.getPassword())
     ).thenReturn(true);
-    when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
-      .thenReturn(null);
 
-    User result = userService.loginUser(request);
+    User result = userService.loginUser(request, "10.0.0.1");
 
     assertThat(result).isSameAs(user);
-    verify(passwordEncoder).matches(request.password(), user.getPassword());
-    verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+    verify(loginAttemptService).recordSuccess(user.getEmail());
+    verify(passwordHashingService).matches(request.password(), user.getPassword());
+    // exactly one bcrypt verification per login
+    verify(passwordHashingService, times(1)).matches(any(), any());
   }
 
   @Test
@@ -151,10 +161,11 @@ class UserServiceTest {
       Optional.empty()
     );
 
-    assertThatThrownBy(() -> userService.loginUser(request))
+    assertThatThrownBy(() -> userService.loginUser(request, "10.0.0.1"))
       .isInstanceOf(UsernameNotFoundException.class)
       .hasMessageContaining("User not found with email");
-    verify(passwordEncoder, never()).matches(any(), any());
+    verify(passwordHashingService, never()).matches(any(), any());
+    verify(loginAttemptService).recordFailure(request.email(), "10.0.0.1");
   }
 
   @Test
@@ -168,12 +179,29 @@ class UserServiceTest {
       Optional.of(user)
     );
     when(
-      passwordEncoder.matches(request.password(), user.getPassword())
+      passwordHashingService.matches(request.password(), user.getPassword())
     ).thenReturn(false);
 
-    assertThatThrownBy(() -> userService.loginUser(request))
+    assertThatThrownBy(() -> userService.loginUser(request, "10.0.0.1"))
       .isInstanceOf(InvalidCredentialsException.class)
       .hasMessage("Invalid password. Please try again.");
+    verify(loginAttemptService).recordFailure(user.getEmail(), "10.0.0.1");
+    verify(loginAttemptService, never()).recordSuccess(any());
+  }
+
+  @Test
+  void loginUserShouldRejectLockedOutAttemptBeforeHashing() {
+    UserRequestDTO.LoginDto request = new UserRequestDTO.LoginDto(
+      "locked@user.com",
+      "Password1"
+    );
+    doThrow(new TooManyRequestsException("locked", 30))
+      .when(loginAttemptService).checkAllowed(request.email(), "10.0.0.1");
+
+    assertThatThrownBy(() -> userService.loginUser(request, "10.0.0.1"))
+      .isInstanceOf(TooManyRequestsException.class);
+    verify(userRepository, never()).findByEmail(any());
+    verify(passwordHashingService, never()).matches(any(), any());
   }
 
   @Test
@@ -189,9 +217,9 @@ class UserServiceTest {
       Optional.of(user)
     );
     when(
-      passwordEncoder.matches(request.password(), user.getPassword())
+      passwordHashingService.matches(request.password(), user.getPassword())
     ).thenReturn(true);
-    when(passwordEncoder.encode(request.newPassword())).thenReturn("new-hash");
+    when(passwordHashingService.encode(request.newPassword())).thenReturn("new-hash");
     when(userRepository.save(user)).thenAnswer(invocation ->
       invocation.getArgument(0)
     );
@@ -199,9 +227,13 @@ class UserServiceTest {
     User result = userService.updatePassword(authenticatedEmail, request);
 
     assertThat(user.getPassword()).isEqualTo("new-hash");
+    assertThat(user.getTokenGeneration()).isEqualTo(1L);
     assertThat(result).isSameAs(user);
-    verify(passwordEncoder).encode(request.newPassword());
+    verify(tokenRevocationService).revokeBefore(user.getEmail(), 1L);
+    verify(refreshTokenService).revokeAll(user.getEmail());
+    verify(passwordHashingService).encode(request.newPassword());
     verify(userRepository).save(user);
+    verify(userDetailsService).evictUser(user.getEmail());
   }
 
   @Test
@@ -234,13 +266,14 @@ class UserServiceTest {
       Optional.of(user)
     );
     when(
-      passwordEncoder.matches(request.password(), user.getPassword())
+      passwordHashingService.matches(request.password(), user.getPassword())
     ).thenReturn(false);
 
     assertThatThrownBy(() -> userService.updatePassword(authenticatedEmail, request))
       .isInstanceOf(InvalidCredentialsException.class)
       .hasMessage("Invalid password. Please try again.");
     verify(userRepository, never()).save(any(User.class));
+    verify(userDetailsService, never()).evictUser(any());
   }
 
   @Test
@@ -253,14 +286,14 @@ class UserServiceTest {
       Optional.of(user)
     );
     when(
-      passwordEncoder.matches(request.password(), user.getPassword())
+      passwordHashingService.matches(request.password(), user.getPassword())
     ).thenReturn(true);
 
     assertThatThrownBy(() -> userService.updatePassword(authenticatedEmail, request))
       .isInstanceOf(IllegalArgumentException.class)
       .hasMessageContaining("Password must be between")
       .hasMessageContaining("characters long");
-    verify(passwordEncoder, never()).encode(any());
+    verify(passwordHashingService, never()).encode(any());
   }
 
   @Test
@@ -273,6 +306,9 @@ class UserServiceTest {
 
     assertThat(result).isSameAs(user);
     verify(userRepository).delete(user);
+    verify(userDetailsService).evictUser(user.getEmail());
+    verify(tokenRevocationService).revokeAll(user.getEmail());
+    verify(refreshTokenService).revokeAll(user.getEmail());
   }
 
   @Test
@@ -286,6 +322,8 @@ class UserServiceTest {
 
     assertThat(result.getRole()).isEqualTo(User.Role.ADMIN);
     verify(userRepository).save(user);
+    verify(userDetailsService).evictUser(user.getEmail());
+    verify(refreshTokenService).revokeAll(user.getEmail());
   }
 
   @Test
@@ -298,6 +336,26 @@ class UserServiceTest {
     User result = userService.downgradeRole(request);
 
     assertThat(result.getRole()).isEqualTo(User.Role.USER);
+    assertThat(result.getTokenGeneration()).isEqualTo(1L);
     verify(userRepository).save(user);
+    verify(userDetailsService).evictUser(user.getEmail());
+    verify(tokenRevocationService).revokeBefore(user.getEmail(), 1L);
+  }
+
+  @Test
+  void roleChangesThatChangeNothingShouldKeepSessions() {
+    User admin = new User("admin@user.com", "hash", User.Role.ADMIN);
+    User superAdmin = new User("super@user.com", "hash", User.Role.SUPER_ADMIN);
+    when(userRepository.findByEmail(admin.getEmail())).thenReturn(Optional.of(admin));
+    when(userRepository.findByEmail(superAdmin.getEmail())).thenReturn(Optional.of(superAdmin));
+
+    userService.upgradeRole(new UserRequestDTO.UpdateUserRoleDto(admin.getEmail()));
+    userService.downgradeRole(new UserRequestDTO.UpdateUserRoleDto(superAdmin.getEmail()));
+
+    assertThat(admin.getRole()).isEqualTo(User.Role.ADMIN);
+    assertThat(admin.getTokenGeneration()).isZero();
+    assertThat(superAdmin.getTokenGeneration()).isZero();
+    verify(userRepository, never()).save(any());
+    verifyNoInteractions(userDetailsService, tokenRevocationService, refreshTokenService);
   }
 }
@@ -0,0 +1,49 @@
+package com.tariff.backend.support;
+
+import java.util.function.Supplier;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import jakarta.persistence.EntityManager;
+
+// Counts the SQL statements Hibernate prepares while a block runs, using the session factory's
+// statistics. The persistence context is flushed and cleared before the block, so nothing is
+// served from the first-level cache, and flushed again after it, so pending inserts, updates
+// and deletes are counted with the call that caused them.
+public class QueryCounter {
+
+  private final EntityManager entityManager;
+  private final Statistics statistics;
+
+  public QueryCounter(EntityManager entityManager) {
+    this.entityManager = entityManager;
+    this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    this.statistics.setStatisticsEnabled(true);
+  }
+
+  public <T> T assertStatements(int expected, Supplier<T> call) {
+    entityManager.flush();
+    entityManager.clear();
+    statistics.clear();
+
+    T result = call.get();
+    entityManager.flush();
+
+    long actual = statistics.getPrepareStatementCount();
+    if (actual != expected) {
+      throw new AssertionError(String.format(
+        "Expected %d SQL statements but %d were executed (entity loads %d, entity fetches %d, collection fetches %d, queries %d)",
+        expected, actual, statistics.getEntityLoadCount(), statistics.getEntityFetchCount(),
+        statistics.getCollectionFetchCount(), statistics.getQueryExecutionCount()));
+    }
+    return result;
+  }
+
+  public void assertStatements(int expected, Runnable call) {
+    assertStatements(expected, () -> {
+      call.run();
+      return null;
+    });
+  }
+}
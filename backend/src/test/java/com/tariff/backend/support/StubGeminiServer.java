@@ -0,0 +1,134 @@
+package com.tariff.backend.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Local stand-in for the Gemini API: answers every generateContent call with a canned
+// (or computed) text and records what it received, so tests never touch the network.
+// streamGenerateContent gets the same text back as SSE, one event per word.
+public class StubGeminiServer implements AutoCloseable {
+
+  public record RecordedRequest(String path, String body, int remotePort) {}
+
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final HttpServer server;
+  private final List<RecordedRequest> requests = new CopyOnWriteArrayList<>();
+  private volatile Function<String, String> responder = body -> "stub prediction";
+  private volatile long delayMillis;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  public StubGeminiServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", this::handle);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+  }
+
+  public String baseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  // request body (the SDK's JSON) -> text the model "answers"
+  public void respondWith(Function<String, String> responder) {
+    this.responder = responder;
+  }
+
+  public void respondWith(String text) {
+    respondWith(body -> text);
+  }
+
+  public void delay(long delayMillis) {
+    this.delayMillis = delayMillis;
+  }
+
+  public List<RecordedRequest> requests() {
+    return requests;
+  }
+
+  // highest number of requests that were being handled at the same time
+  public int maxConcurrentRequests() {
+    return maxInFlight.get();
+  }
+
+  public void resetConcurrency() {
+    maxInFlight.set(0);
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      respond(exchange);
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+
+  private void respond(HttpExchange exchange) throws IOException {
+    String body;
+    try (InputStream in = exchange.getRequestBody()) {
+      body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+    requests.add(new RecordedRequest(exchange.getRequestURI().getPath(), body, exchange.getRemoteAddress().getPort()));
+
+    if (delayMillis > 0) {
+      try {
+        Thread.sleep(delayMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    String text = responder.apply(body);
+    if (exchange.getRequestURI().getPath().endsWith(":streamGenerateContent")) {
+      streamResponse(exchange, text);
+      return;
+    }
+
+    byte[] bytes = objectMapper.writeValueAsBytes(candidate(text));
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private void streamResponse(HttpExchange exchange, String text) throws IOException {
+    exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+    exchange.sendResponseHeaders(200, 0); // chunked
+    try (OutputStream out = exchange.getResponseBody()) {
+      for (String word : text.split("(?<= )")) {
+        out.write(("data: " + objectMapper.writeValueAsString(candidate(word)) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+      }
+    }
+  }
+
+  private static Map<String, Object> candidate(String text) {
+    return Map.of(
+      "candidates", List.of(Map.of(
+        "content", Map.of("role", "model", "parts", List.of(Map.of("text", text))),
+        "finishReason", "STOP"
+      ))
+    );
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}